@@ -0,0 +1,65 @@
+package spring.batch.teamPerformanceJob.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generator of synthetic division files in the input format: team name line, one "player:scores" line per player
+ * (scores in descending order, so score rank 0 is the best score of the player) and an empty line after every team.
+ * Same arguments (and seed) always generate the same files
+ */
+public class DivisionFileGenerator {
+
+    private final int teamsPerDivision;
+    private final int playersPerTeam;
+    private final int scoresPerPlayer;
+    private final long seed;
+
+    public DivisionFileGenerator(int teamsPerDivision, int playersPerTeam, int scoresPerPlayer, long seed) {
+        this.teamsPerDivision = teamsPerDivision;
+        this.playersPerTeam = playersPerTeam;
+        this.scoresPerPlayer = scoresPerPlayer;
+        this.seed = seed;
+    }
+
+    // Writes "div<n>.txt" files into the directory
+    public void generate(Path directory, int divisions) throws IOException {
+        Files.createDirectories(directory);
+        for (int division = 1; division <= divisions; division++) {
+            generate(directory.resolve("div" + division + ".txt"), new SplittableRandom(seed + division), division);
+        }
+    }
+
+    private void generate(Path divisionFile, SplittableRandom random, int division) throws IOException {
+        int[] scores = new int[scoresPerPlayer];
+        try (BufferedWriter writer = Files.newBufferedWriter(divisionFile, StandardCharsets.UTF_8)) {
+            for (int team = 0; team < teamsPerDivision; team++) {
+                writer.write("Team" + division + "-" + team);
+                writer.newLine();
+                for (int player = 0; player < playersPerTeam; player++) {
+                    // Scores are hundredths in [0, 1000], written as "9.80"
+                    for (int score = 0; score < scoresPerPlayer; score++) {
+                        scores[score] = random.nextInt(1001);
+                    }
+                    Arrays.sort(scores);
+                    StringBuilder line = new StringBuilder("Player").append(team).append('-').append(player).append(':');
+                    for (int score = scoresPerPlayer - 1; score >= 0; score--) {
+                        line.append(scores[score] / 100).append('.')
+                                .append(scores[score] % 100 / 10).append(scores[score] % 10);
+                        if (score > 0) {
+                            line.append(',');
+                        }
+                    }
+                    writer.write(line.toString());
+                    writer.newLine();
+                }
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package spring.batch.teamPerformanceJob.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.reader.DivisionFileReader;
+import spring.batch.teamPerformanceJob.reader.DivisionReaderMode;
+import spring.batch.teamPerformanceJob.reader.MappedDivisionFileReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Reading of a whole synthetic division file (one operation) by both reader modes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DivisionFileReaderBenchmark {
+
+    @Param({"1000", "10000"})
+    private int teams;
+
+    @Param({"10"})
+    private int players;
+
+    @Param({"10"})
+    private int scores;
+
+    @Param({"FLAT", "MAPPED"})
+    private DivisionReaderMode mode;
+
+    private Path directory;
+    private FileSystemResource division;
+
+    @Setup(Level.Trial)
+    public void generateDivision() throws IOException {
+        directory = Files.createTempDirectory("division-reader-benchmark");
+        new DivisionFileGenerator(teams, players, scores, 42).generate(directory, 1);
+        division = new FileSystemResource(directory.resolve("div1.txt"));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDivision() throws IOException {
+        Files.deleteIfExists(directory.resolve("div1.txt"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int readDivision(Blackhole blackhole) throws Exception {
+        ResourceAwareItemReaderItemStream<Team> reader = reader();
+        reader.setResource(division);
+        reader.open(new ExecutionContext());
+        int count = 0;
+        try {
+            Team team;
+            while ((team = reader.read()) != null) {
+                blackhole.consume(team);
+                count++;
+            }
+        } finally {
+            reader.close();
+        }
+        return count;
+    }
+
+    private ResourceAwareItemReaderItemStream<Team> reader() {
+        if (mode == DivisionReaderMode.MAPPED) {
+            return new MappedDivisionFileReader();
+        }
+        FlatFileItemReader<String> lineReader = new FlatFileItemReaderBuilder<String>()
+                .name("divisionLineReader")
+                .lineMapper((line, lineNumber) -> line)
+                .build();
+        return new DivisionFileReader(lineReader);
+    }
+}
@@ -0,0 +1,60 @@
+package spring.batch.teamPerformanceJob.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.TeamPerformance;
+import spring.batch.teamPerformanceJob.processor.PerformanceEvaluator;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Performance of a single team against the baseline (one operation), with and without formatting of the percentage
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerformanceEvaluatorBenchmark {
+
+    private static final int TEAMS = 4096;
+
+    private final AverageScoredTeam[] teams = new AverageScoredTeam[TEAMS];
+    private final StringBuilder line = new StringBuilder();
+    private double baselineScore;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generateAverages() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int team = 0; team < TEAMS; team++) {
+            // Averages of one-decimal scores, as calculated by the average step
+            int players = 1 + random.nextInt(12);
+            double sum = 0;
+            for (int player = 0; player < players; player++) {
+                sum += random.nextInt(101) / 10.0;
+            }
+            teams[team] = new AverageScoredTeam("Team" + team, sum / players);
+        }
+        baselineScore = 9.7;
+    }
+
+    @Benchmark
+    public TeamPerformance evaluatePerformance() {
+        return PerformanceEvaluator.evaluatePerformance(nextTeam(), baselineScore);
+    }
+
+    // Evaluation together with formatting, as done by the performance line aggregator
+    @Benchmark
+    public int evaluateAndFormatPerformance() {
+        line.setLength(0);
+        PerformanceEvaluator.evaluatePerformance(nextTeam(), baselineScore).appendPerformance(line);
+        return line.length();
+    }
+
+    private AverageScoredTeam nextTeam() {
+        AverageScoredTeam team = teams[next];
+        next = (next + 1) & (TEAMS - 1);
+        return team;
+    }
+}
@@ -0,0 +1,70 @@
+package spring.batch.teamPerformanceJob.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.processor.TeamAverageProcessor;
+import spring.batch.teamPerformanceJob.reader.DivisionFileReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Average of a single team (one operation), teams are read from a synthetic division file in advance
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TeamAverageProcessorBenchmark {
+
+    @Param({"10", "100"})
+    private int players;
+
+    @Param({"10"})
+    private int scores;
+
+    @Param({"0", "5"})
+    private int scoreRank;
+
+    private Team[] teams;
+    private TeamAverageProcessor processor;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void readTeams() throws Exception {
+        Path directory = Files.createTempDirectory("team-average-benchmark");
+        new DivisionFileGenerator(1000, players, scores, 42).generate(directory, 1);
+        Path division = directory.resolve("div1.txt");
+        DivisionFileReader reader = new DivisionFileReader(new FlatFileItemReaderBuilder<String>()
+                .name("divisionLineReader")
+                .lineMapper((line, lineNumber) -> line)
+                .build());
+        reader.setResource(new FileSystemResource(division));
+        reader.open(new ExecutionContext());
+        List<Team> readTeams = new ArrayList<>();
+        for (Team team = reader.read(); team != null; team = reader.read()) {
+            readTeams.add(team);
+        }
+        reader.close();
+        Files.delete(division);
+        Files.delete(directory);
+        teams = readTeams.toArray(Team[]::new);
+
+        processor = new TeamAverageProcessor(scoreRank);
+        processor.open(new ExecutionContext());
+    }
+
+    @Benchmark
+    public AverageScoredTeam processTeam() throws Exception {
+        Team team = teams[next];
+        next = next + 1 == teams.length ? 0 : next + 1;
+        return processor.process(team);
+    }
+}
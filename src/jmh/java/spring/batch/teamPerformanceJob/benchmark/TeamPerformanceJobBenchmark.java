@@ -0,0 +1,114 @@
+package spring.batch.teamPerformanceJob.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import spring.batch.teamPerformanceJob.TestConfiguration;
+import spring.batch.teamPerformanceJob.config.TeamPerformanceJobConfiguration;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole team performance job over synthetic division files (one operation is one job execution, launched synchronously).
+ * Job runs against in-memory H2 job repository, outputs are written to "calculated/<uuid>" directories of the working directory
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TeamPerformanceJobBenchmark {
+
+    private static final List<String> PROPERTIES = List.of(
+            "team-performance.input.location", "spring.datasource.url", "team-performance.reader.mode",
+            "team-performance.average.partitioned");
+
+    @Param({"4"})
+    private int divisions;
+
+    @Param({"10000"})
+    private int teams;
+
+    @Param({"10"})
+    private int players;
+
+    @Param({"10"})
+    private int scores;
+
+    @Param({"FLAT", "MAPPED"})
+    private String readerMode;
+
+    @Param({"false", "true"})
+    private boolean partitioned;
+
+    private AnnotationConfigApplicationContext context;
+    private JobLauncher jobLauncher;
+    private Job job;
+
+    // Creates job repository schema in the in-memory database
+    @Configuration
+    static class SchemaConfiguration {
+
+        @Bean
+        public DataSourceInitializer dataSourceInitializer(DataSource dataSource) {
+            DataSourceInitializer initializer = new DataSourceInitializer();
+            initializer.setDataSource(dataSource);
+            initializer.setDatabasePopulator(
+                    new ResourceDatabasePopulator(new ClassPathResource("org/springframework/batch/core/schema-h2.sql")));
+            return initializer;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startContext() throws Exception {
+        Path input = Path.of("input").toAbsolutePath();
+        new DivisionFileGenerator(teams, players, scores, 42).generate(input, divisions);
+
+        System.setProperty("team-performance.input.location", input.toUri() + "*.txt");
+        System.setProperty("spring.datasource.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        System.setProperty("team-performance.reader.mode", readerMode);
+        System.setProperty("team-performance.average.partitioned", Boolean.toString(partitioned));
+        // Step logging of every execution would be measured as well
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+
+        context = new AnnotationConfigApplicationContext(
+                TestConfiguration.class, TeamPerformanceJobConfiguration.class, SchemaConfiguration.class);
+        jobLauncher = context.getBean("jobLauncher", JobLauncher.class);
+        job = context.getBean("teamPerformanceJob", Job.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+        PROPERTIES.forEach(System::clearProperty);
+    }
+
+    @Benchmark
+    public JobExecution runJob() throws Exception {
+        JobExecution jobExecution = jobLauncher.run(job, new JobParametersBuilder()
+                .addLong("scoreRank", 2L)
+                .addString("uuid", UUID.randomUUID().toString())
+                .toJobParameters());
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Job execution " + jobExecution.getId() + " ended with " + jobExecution.getStatus());
+        }
+        return jobExecution;
+    }
+}
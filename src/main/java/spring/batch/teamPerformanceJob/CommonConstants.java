@@ -2,10 +2,36 @@ package spring.batch.teamPerformanceJob;
 
 public class CommonConstants {
     public static final String SCORE_RANK_PARAM = "scoreRank";
+    public static final String SCORE_RANKS_PARAM = "scoreRanks";
     public static final String UUID_PARAM = "uuid";
+    public static final String AVERAGE_CHUNK_SIZE_PARAM = "averageChunkSize";
+    public static final String MAX_RATIO_CHUNK_SIZE_PARAM = "maxRatioChunkSize";
+    public static final String MIN_RATIO_CHUNK_SIZE_PARAM = "minRatioChunkSize";
+    public static final String RATIO_CHUNK_SIZE_PARAM = "ratioChunkSize";
+    public static final String ADAPTIVE_CHUNK_PARAM = "adaptiveChunk";
+    public static final String DURABILITY_PARAM = "durability";
     public static final String MAX_SCORE = "max.score";
     public static final String MAX_PLAYER = "max.player";
     public static final String MIN_SCORE = "min.score";
     public static final String MIN_PLAYER = "min.player";
+    // Comma separated ranks processed by multi-rank job
+    public static final String SCORE_RANKS = "score.ranks";
+    public static final String PARTITION_INDEX = "partition.index";
+    public static final String PARTITION_RESOURCE = "division.resource";
+    public static final String PARTITION_OUTPUT = "partition.output";
+    // Binary average output of the partition (binary average handoff)
+    public static final String PARTITION_BINARY_OUTPUT = "partition.binary.output";
+    public static final String RANGE_START = "range.start";
+    public static final String RANGE_END = "range.end";
+    // Key of the partial aggregate of the partition (incremental average calculation)
+    public static final String PARTIAL_KEY = "partial.key";
+    // Encoded team ranking (top teams, division leaderboards and score sketch) of average step or partition
+    public static final String TEAM_RANKING = "team.ranking";
+    // Key of the job result in the result cache
+    public static final String RESULT_CACHE_KEY = "result.cache.key";
 
+    // Key of the per-rank value in multi-rank job, e.g. "max.score.3"
+    public static String rankKey(String key, int rank) {
+        return key + "." + rank;
+    }
 }
@@ -0,0 +1,197 @@
+package spring.batch.teamPerformanceJob.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of job outputs: every entry is a directory named by the hash of the input fingerprint and
+ * of everything else affecting the outputs, holding the output files and the job context values (best/worst player).
+ * Entries are stored atomically (renamed from a temporary directory), and the least recently used entries are evicted
+ * when total size of the cache exceeds the bound (entry modification time is the time of last use)
+ */
+@Slf4j
+public class ResultCache {
+
+    private static final String CONTEXT_FILE = "context.properties";
+    private static final String TEMPORARY_PREFIX = ".tmp-";
+    // Context values are stored with their type (scores are doubles, players are strings)
+    private static final String DOUBLE_PREFIX = "double:";
+    private static final String STRING_PREFIX = "string:";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    public ResultCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Key of the outputs of the given score rank over the given input, with the given output files and the given
+     * settings affecting their content (name to value, in any order)
+     */
+    public static String key(long scoreRank, String inputFingerprint, List<String> outputNames, Map<String, String> settings) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(("rank=" + scoreRank + "\ninput=" + inputFingerprint + "\noutputs=" + String.join(",", outputNames))
+                    .getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, String> setting : new TreeMap<>(settings).entrySet()) {
+                digest.update(("\n" + setting.getKey() + "=" + setting.getValue()).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    public boolean contains(String key) {
+        return Files.isRegularFile(directory.resolve(key).resolve(CONTEXT_FILE));
+    }
+
+    /**
+     * Copies cached output files to the output directory and puts cached values into the job context.
+     * Returns false if there is no such entry (e.g. evicted since checked)
+     */
+    public boolean restore(String key, Path outputDirectory, ExecutionContext jobContext) {
+        Path entry = directory.resolve(key);
+        try {
+            Properties context = new Properties();
+            try (InputStream inputStream = Files.newInputStream(entry.resolve(CONTEXT_FILE))) {
+                context.load(inputStream);
+            }
+            Files.createDirectories(outputDirectory);
+            try (Stream<Path> files = Files.list(entry)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (!file.getFileName().toString().equals(CONTEXT_FILE)) {
+                        // Copied next to the output and renamed, so the output is never seen half-written
+                        Path output = outputDirectory.resolve(file.getFileName());
+                        Path part = output.resolveSibling(file.getFileName() + ".part");
+                        Files.copy(file, part, StandardCopyOption.REPLACE_EXISTING);
+                        Files.move(part, output, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+            for (String name : context.stringPropertyNames()) {
+                String value = context.getProperty(name);
+                if (value.startsWith(DOUBLE_PREFIX)) {
+                    jobContext.putDouble(name, Double.parseDouble(value.substring(DOUBLE_PREFIX.length())));
+                } else {
+                    jobContext.putString(name, value.substring(STRING_PREFIX.length()));
+                }
+            }
+            // Entry is the most recently used now
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not restore cached result " + key, e);
+        }
+    }
+
+    // Stores the given output files and job context values (by keys) under the key, then evicts the least recently used entries
+    public void store(String key, Path outputDirectory, List<String> outputNames, ExecutionContext jobContext, List<String> contextKeys) {
+        Path temporary = directory.resolve(TEMPORARY_PREFIX + UUID.randomUUID());
+        try {
+            Files.createDirectories(temporary);
+            for (String outputName : outputNames) {
+                Files.copy(outputDirectory.resolve(outputName), temporary.resolve(outputName));
+            }
+            Properties context = new Properties();
+            for (String contextKey : contextKeys) {
+                Object value = jobContext.get(contextKey);
+                if (value instanceof Double score) {
+                    context.setProperty(contextKey, DOUBLE_PREFIX + score);
+                } else if (value != null) {
+                    context.setProperty(contextKey, STRING_PREFIX + value);
+                }
+            }
+            try (OutputStream outputStream = Files.newOutputStream(temporary.resolve(CONTEXT_FILE))) {
+                context.store(outputStream, null);
+            }
+            try {
+                Files.move(temporary, directory.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException | AtomicMoveNotSupportedException e) {
+                // Same result was stored concurrently
+                log.debug("Result {} is already cached", key);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not cache result " + key, e);
+        } finally {
+            deleteRecursively(temporary);
+        }
+        evict();
+    }
+
+    // Least recently used entries are removed until total size fits into the bound
+    private synchronized void evict() {
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.filter(path -> !path.getFileName().toString().startsWith(TEMPORARY_PREFIX))
+                    .forEach(entries::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not list result cache " + directory, e);
+        }
+        entries.sort(Comparator.comparing(ResultCache::lastModified).reversed());
+        long totalBytes = 0;
+        for (Path entry : entries) {
+            totalBytes += size(entry);
+            if (totalBytes > maxBytes) {
+                log.info("Evicting cached result {}", entry.getFileName());
+                deleteRecursively(entry);
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long size(Path entry) {
+        try (Stream<Path> files = Files.walk(entry)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteRecursively(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Can not delete {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package spring.batch.teamPerformanceJob.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import spring.batch.teamPerformanceJob.CommonConstants;
+import spring.batch.teamPerformanceJob.submission.InputFingerprint;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides whether outputs of the job are already cached (same score rank over the same input, with the same outputs
+ * and output settings).
+ * Key of the result is put in job context either way, so the result can be restored or cached under it
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ResultCacheDecider implements JobExecutionDecider {
+
+    public static final FlowExecutionStatus CACHED = new FlowExecutionStatus("CACHED");
+    public static final FlowExecutionStatus NOT_CACHED = new FlowExecutionStatus("NOT_CACHED");
+
+    private final ResultCache resultCache;
+    private final InputFingerprint inputFingerprint;
+    private final List<String> outputNames;
+    private final Map<String, String> settings;
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        long scoreRank = jobExecution.getJobParameters().getLong(CommonConstants.SCORE_RANK_PARAM);
+        String key = ResultCache.key(scoreRank, inputFingerprint.fingerprint(), outputNames, settings);
+        jobExecution.getExecutionContext().putString(CommonConstants.RESULT_CACHE_KEY, key);
+        if (resultCache.contains(key)) {
+            log.info("Result for score rank {} is cached, average and ratio steps are skipped", scoreRank);
+            return CACHED;
+        }
+        return NOT_CACHED;
+    }
+}
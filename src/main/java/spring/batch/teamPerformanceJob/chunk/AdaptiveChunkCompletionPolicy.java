@@ -0,0 +1,61 @@
+package spring.batch.teamPerformanceJob.chunk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completion policy which starts from the configured commit interval and resizes it between chunks,
+ * so that a single chunk takes roughly the target latency.
+ * Latency is measured between two consecutive chunk starts, which means it covers read, process, write,
+ * transaction commit and the job repository update of the previous chunk
+ */
+@Slf4j
+public class AdaptiveChunkCompletionPolicy extends SimpleCompletionPolicy {
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long targetLatencyNanos;
+
+    private long chunkStartNanos = -1;
+    private RepeatContext lastChunkContext;
+
+    public AdaptiveChunkCompletionPolicy(int initialChunkSize, int minChunkSize, int maxChunkSize, long targetLatencyMillis) {
+        super(Math.clamp(initialChunkSize, minChunkSize, maxChunkSize));
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+    }
+
+    @Override
+    public synchronized RepeatContext start(RepeatContext parent) {
+        long now = System.nanoTime();
+        if (lastChunkContext instanceof RepeatContextSupport lastChunk) {
+            resize(lastChunk.getStartedCount(), now - chunkStartNanos);
+        }
+        chunkStartNanos = now;
+        lastChunkContext = super.start(parent);
+        return lastChunkContext;
+    }
+
+    private void resize(int itemCount, long elapsedNanos) {
+        int chunkSize = getChunkSize();
+        // Partial chunk (end of input) tells nothing about how big chunk could be
+        if (itemCount <= 0 || elapsedNanos <= 0 || (itemCount < chunkSize && elapsedNanos < targetLatencyNanos)) {
+            return;
+        }
+        double nanosPerItem = (double) elapsedNanos / itemCount;
+        // Never jump more than twice up or down in a single step to smooth out latency spikes
+        long idealChunkSize = (long) (targetLatencyNanos / nanosPerItem);
+        int newChunkSize = Math.clamp(idealChunkSize, Math.max(1, chunkSize / 2), (int) Math.min(Integer.MAX_VALUE, 2L * chunkSize));
+        newChunkSize = Math.clamp(newChunkSize, minChunkSize, maxChunkSize);
+        if (newChunkSize != chunkSize) {
+            log.debug("Chunk of {} items took {} ms, commit interval changed from {} to {}",
+                    itemCount, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), chunkSize, newChunkSize);
+            setChunkSize(newChunkSize);
+        }
+    }
+}
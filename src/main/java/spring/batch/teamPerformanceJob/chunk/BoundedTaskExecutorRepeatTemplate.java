@@ -0,0 +1,153 @@
+package spring.batch.teamPerformanceJob.chunk;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.repeat.RepeatCallback;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatException;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.support.RepeatInternalState;
+import org.springframework.batch.repeat.support.RepeatInternalStateSupport;
+import org.springframework.batch.repeat.support.RepeatSynchronizationManager;
+import org.springframework.batch.repeat.support.RepeatTemplate;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Repeat template of a multi-threaded step: iterations (chunks) run on the task executor, at most the given number
+ * of them at once, so the limit can follow the size of the executor's pool.
+ * Takes over the throttle limit of TaskExecutorRepeatTemplate, which is deprecated for removal
+ */
+@RequiredArgsConstructor
+public class BoundedTaskExecutorRepeatTemplate extends RepeatTemplate {
+
+    private final TaskExecutor taskExecutor;
+    private final int limit;
+
+    @Override
+    protected RepeatInternalState createInternalState(RepeatContext context) {
+        return new Iterations(limit);
+    }
+
+    @Override
+    protected RepeatStatus getNextResult(RepeatContext context, RepeatCallback callback, RepeatInternalState state)
+            throws Throwable {
+        Iterations iterations = (Iterations) state;
+        // Keeps submitting until an iteration is finished or completion policy ends the repeat
+        do {
+            iterations.expect();
+            try {
+                taskExecutor.execute(new Iteration(callback, context, iterations));
+            } catch (RuntimeException e) {
+                iterations.cancel();
+                throw e;
+            }
+            update(context);
+        } while (iterations.isEmpty() && !isComplete(context));
+        return iterations.take().getResult();
+    }
+
+    @Override
+    protected boolean waitForResults(RepeatInternalState state) {
+        Iterations iterations = (Iterations) state;
+        boolean result = true;
+        while (iterations.isExpecting()) {
+            Iteration iteration;
+            try {
+                iteration = iterations.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RepeatException("Interrupted while waiting for the running chunks", e);
+            }
+            if (iteration.error != null) {
+                state.getThrowables().add(iteration.error);
+                result = false;
+            } else {
+                result = result && canContinue(iteration.status);
+                executeAfterInterceptors(iteration.context, iteration.status);
+            }
+        }
+        return result;
+    }
+
+    // Iterations of a single repeat: permit is taken by the submitting thread and returned once the iteration is run,
+    // so the limit bounds running iterations, not the finished ones waiting for the submitting thread
+    private static class Iterations extends RepeatInternalStateSupport {
+
+        private final Semaphore permits;
+        private final BlockingQueue<Iteration> finished = new LinkedBlockingQueue<>();
+        private int expected;
+
+        private Iterations(int limit) {
+            this.permits = new Semaphore(limit);
+        }
+
+        private void expect() throws InterruptedException {
+            permits.acquire();
+            expected++;
+        }
+
+        // Iteration was not submitted
+        private void cancel() {
+            expected--;
+            permits.release();
+        }
+
+        private void finish(Iteration iteration) {
+            finished.add(iteration);
+            permits.release();
+        }
+
+        private boolean isExpecting() {
+            return expected > 0;
+        }
+
+        private boolean isEmpty() {
+            return finished.isEmpty();
+        }
+
+        private Iteration take() throws InterruptedException {
+            Iteration iteration = finished.take();
+            expected--;
+            return iteration;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Iteration implements Runnable {
+
+        private final RepeatCallback callback;
+        private final RepeatContext context;
+        private final Iterations iterations;
+
+        private volatile RepeatStatus status;
+        private volatile Throwable error;
+
+        @Override
+        public void run() {
+            boolean clearContext = RepeatSynchronizationManager.getContext() == null;
+            if (clearContext) {
+                RepeatSynchronizationManager.register(context);
+            }
+            try {
+                status = callback.doInIteration(context);
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                if (clearContext) {
+                    RepeatSynchronizationManager.clear();
+                }
+                iterations.finish(this);
+            }
+        }
+
+        private RepeatStatus getResult() throws Throwable {
+            if (error != null) {
+                throw error;
+            }
+            return status;
+        }
+    }
+}
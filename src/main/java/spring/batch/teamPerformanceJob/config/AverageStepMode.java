@@ -0,0 +1,92 @@
+package spring.batch.teamPerformanceJob.config;
+
+import org.springframework.core.env.PropertyResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// How team averages are calculated, modes are exclusive (see selection from average properties)
+public enum AverageStepMode {
+    // Single thread reads, processes and writes chunks
+    SEQUENTIAL,
+    // Teams are parsed and processed ahead by pipeline threads, step thread writes chunks in input order
+    PIPELINED,
+    // Teams of a chunk are processed by executor threads, step thread reads and writes them in input order
+    THREADED_ORDERED,
+    // Every executor thread reads, processes and writes whole chunks, output order is not defined
+    THREADED_UNORDERED,
+    // Step only reads teams, chunks are processed and written by remote chunk workers
+    REMOTE,
+    // Division files (or their byte ranges) are averaged by partition steps
+    PARTITIONED,
+    // Partitioned, partitions of unchanged division files are restored from partials of previous runs
+    INCREMENTAL;
+
+    // Mode of the average step configured by the properties (defaults are those of application.properties)
+    public static AverageStepMode of(PropertyResolver properties) {
+        return of(properties.getProperty("team-performance.average.partitioned", Boolean.class, false),
+                properties.getProperty("team-performance.average.incremental", Boolean.class, false),
+                properties.getProperty("team-performance.average.threads", Integer.class, 1),
+                properties.getProperty("team-performance.average.ordered", Boolean.class, true),
+                properties.getProperty("team-performance.average.pipelined", Boolean.class, false),
+                properties.getProperty("team-performance.average.remote.workers", Integer.class, 0),
+                properties.getProperty("team-performance.ranking.enabled", Boolean.class, false));
+    }
+
+    /**
+     * Mode of the average step configured by team-performance.average properties.
+     * Settings of more than one mode are rejected (instead of one mode silently winning),
+     * as well as ranking with remote workers, which don't gather it
+     */
+    public static AverageStepMode of(boolean partitioned, boolean incremental, int threads, boolean ordered,
+                                     boolean pipelined, int remoteWorkers, boolean rankingEnabled) {
+        List<String> requested = new ArrayList<>();
+        if (partitioned) {
+            requested.add("team-performance.average.partitioned=true");
+        }
+        if (incremental) {
+            requested.add("team-performance.average.incremental=true");
+        }
+        if (threads > 1) {
+            requested.add("team-performance.average.threads=" + threads);
+        }
+        if (pipelined) {
+            requested.add("team-performance.average.pipelined=true");
+        }
+        if (remoteWorkers > 0) {
+            requested.add("team-performance.average.remote.workers=" + remoteWorkers);
+        }
+        // Incremental calculation is always partitioned, so both may be set
+        int modes = requested.size() - (partitioned && incremental ? 1 : 0);
+        if (modes > 1) {
+            throw new IllegalStateException("Average step modes can not be combined, but " + String.join(", ", requested)
+                    + " are set");
+        }
+        if (remoteWorkers > 0 && rankingEnabled) {
+            throw new IllegalStateException("Team ranking is not gathered by remote chunk workers, "
+                    + "team-performance.ranking.enabled=true can not be combined with " + requested.get(0));
+        }
+        if (incremental) {
+            return INCREMENTAL;
+        }
+        if (partitioned) {
+            return PARTITIONED;
+        }
+        if (threads > 1) {
+            return ordered ? THREADED_ORDERED : THREADED_UNORDERED;
+        }
+        if (pipelined) {
+            return PIPELINED;
+        }
+        return remoteWorkers > 0 ? REMOTE : SEQUENTIAL;
+    }
+
+    public boolean isPartitioned() {
+        return this == PARTITIONED || this == INCREMENTAL;
+    }
+
+    // Position of threads (or remote workers) running chunks concurrently is not defined, so there is no state to restart from
+    public boolean isUnordered() {
+        return this == THREADED_UNORDERED || this == REMOTE;
+    }
+}
@@ -0,0 +1,35 @@
+package spring.batch.teamPerformanceJob.config;
+
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Configuration (or bean) wiring the average step of the given modes only.
+ * Mode is selected from the properties, so conflicting average step settings fail the configuration parsing
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Conditional(ConditionalOnAverageStepMode.OnAverageStepModeCondition.class)
+public @interface ConditionalOnAverageStepMode {
+
+    AverageStepMode[] value();
+
+    class OnAverageStepModeCondition implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            Map<String, Object> attributes = metadata.getAnnotationAttributes(ConditionalOnAverageStepMode.class.getName());
+            AverageStepMode[] modes = (AverageStepMode[]) attributes.get("value");
+            return Arrays.asList(modes).contains(AverageStepMode.of(context.getEnvironment()));
+        }
+    }
+}
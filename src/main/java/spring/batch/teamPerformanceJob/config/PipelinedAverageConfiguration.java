@@ -0,0 +1,36 @@
+package spring.batch.teamPerformanceJob.config;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.pipeline.PipelineStageExecutor;
+import spring.batch.teamPerformanceJob.pipeline.PipelinedItemReader;
+
+// Stages of the pipelined average step, connected to the step thread by ring buffers
+@Configuration
+@ConditionalOnAverageStepMode(AverageStepMode.PIPELINED)
+public class PipelinedAverageConfiguration {
+
+    @Value("${team-performance.average.pipeline.buffer-size:1024}")
+    private int averagePipelineBufferSize;
+
+    // Reader stage of pipelined average step, division files are parsed ahead by its own thread
+    @Bean
+    @StepScope
+    @Qualifier("pipelinedDivisionTeamReader")
+    public ItemStreamReader<Team> pipelinedDivisionTeamReader(@Qualifier("divisionTeamReader") ItemStreamReader<Team> divisionTeamReader) {
+        return new PipelinedItemReader<>(divisionTeamReader, "division-reader", averagePipelineBufferSize);
+    }
+
+    // Processing stage of pipelined average step, its thread is stopped along with the step (as a step scoped bean)
+    @Bean(destroyMethod = "shutdown")
+    @StepScope
+    @Qualifier("averagePipelineExecutor")
+    public PipelineStageExecutor averagePipelineExecutor() {
+        return new PipelineStageExecutor("team-average", averagePipelineBufferSize);
+    }
+}
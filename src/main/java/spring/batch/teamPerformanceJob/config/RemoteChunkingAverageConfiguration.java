@@ -0,0 +1,81 @@
+package spring.batch.teamPerformanceJob.config;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.support.builder.SynchronizedItemStreamWriterBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.remote.ChunkManagerItemWriter;
+import spring.batch.teamPerformanceJob.remote.ChunkTransport;
+import spring.batch.teamPerformanceJob.remote.ChunkWorker;
+import spring.batch.teamPerformanceJob.remote.LocalChunkWorkers;
+import spring.batch.teamPerformanceJob.remote.QueueChunkTransport;
+
+// Remote chunking of the average step: manager side (reader and chunk writer) and the workers processing chunks
+@Configuration
+@ConditionalOnAverageStepMode(AverageStepMode.REMOTE)
+public class RemoteChunkingAverageConfiguration {
+
+    @Value("${team-performance.average.remote.workers:0}")
+    private int averageRemoteWorkers;
+
+    // Chunks waiting for a free worker, reading is blocked while there are that many
+    @Value("${team-performance.average.remote.queue-capacity:4}")
+    private int averageRemoteQueueCapacity;
+
+    @Value("${team-performance.average.remote.reply-timeout-ms:60000}")
+    private long averageRemoteReplyTimeoutMillis;
+
+    // Transport of remote chunking, every step execution has its own, so concurrent jobs don't share workers
+    @Bean
+    @StepScope
+    @Qualifier("averageChunkTransport")
+    public ChunkTransport averageChunkTransport() {
+        return new QueueChunkTransport(averageRemoteQueueCapacity);
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("chunkManagerItemWriter")
+    public ChunkManagerItemWriter chunkManagerItemWriter(@Qualifier("averageChunkTransport") ChunkTransport averageChunkTransport) {
+        return new ChunkManagerItemWriter(averageChunkTransport, TeamPerformanceJobConfiguration.SKIP_LIMIT, averageRemoteReplyTimeoutMillis);
+    }
+
+    // End of its input is the signal for the manager writer to await all chunks sent to workers
+    @Bean
+    @StepScope
+    @Qualifier("chunkManagerDivisionTeamReader")
+    public ItemStreamReader<Team> chunkManagerDivisionTeamReader(
+            @Qualifier("divisionTeamReader") ItemStreamReader<Team> divisionTeamReader,
+            @Qualifier("chunkManagerItemWriter") ChunkManagerItemWriter chunkManagerItemWriter
+    ) {
+        return chunkManagerItemWriter.endOfInputSignalling(divisionTeamReader);
+    }
+
+    // Workers of remote chunking run in this JVM, sharing the average writer (synchronized, as flat file writer is not thread-safe)
+    @Bean
+    @StepScope
+    @Qualifier("localChunkWorkers")
+    public LocalChunkWorkers localChunkWorkers(
+            @Value("#{jobParameters['scoreRank']}") int scoreRank,
+            @Qualifier("averageChunkTransport") ChunkTransport averageChunkTransport,
+            @Qualifier("averageTeamScoreWriter") ItemStreamWriter<AverageScoredTeam> averageTeamScoreWriter,
+            PlatformTransactionManager transactionManager
+    ) {
+        ItemStreamWriter<AverageScoredTeam> workerWriter = new SynchronizedItemStreamWriterBuilder<AverageScoredTeam>()
+                .delegate(averageTeamScoreWriter)
+                .build();
+        // Thread per worker, held for the whole step, so workers of concurrent jobs don't wait for each other
+        return new LocalChunkWorkers(averageChunkTransport,
+                new ChunkWorker(scoreRank, workerWriter, new TransactionTemplate(transactionManager)),
+                workerWriter, new SimpleAsyncTaskExecutor("remote-chunk-worker-"), averageRemoteWorkers);
+    }
+}
@@ -1,5 +1,9 @@
 package spring.batch.teamPerformanceJob.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.*;
 import org.springframework.batch.core.configuration.annotation.StepScope;
@@ -10,60 +14,214 @@ import org.springframework.batch.core.job.flow.support.SimpleFlow;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
 import org.springframework.batch.core.listener.ExecutionContextPromotionListener;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.partition.support.StepExecutionAggregator;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.core.step.tasklet.CommandRunner;
 import org.springframework.batch.core.step.tasklet.JvmCommandRunner;
 import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.BufferedReaderFactory;
+import org.springframework.batch.item.file.DefaultBufferedReaderFactory;
 import org.springframework.batch.item.file.FlatFileHeaderCallback;
 import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
-import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
 import org.springframework.batch.item.file.builder.MultiResourceItemReaderBuilder;
 import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.support.CompositeItemWriter;
+import org.springframework.batch.item.support.builder.SynchronizedItemStreamWriterBuilder;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.RepeatOperations;
 import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.WritableResource;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
 import spring.batch.teamPerformanceJob.CommonConstants;
-import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
-import spring.batch.teamPerformanceJob.domain.Team;
-import spring.batch.teamPerformanceJob.domain.TeamPerformance;
+import spring.batch.teamPerformanceJob.cache.ResultCache;
+import spring.batch.teamPerformanceJob.cache.ResultCacheDecider;
+import spring.batch.teamPerformanceJob.chunk.AdaptiveChunkCompletionPolicy;
+import spring.batch.teamPerformanceJob.domain.*;
+import spring.batch.teamPerformanceJob.handoff.AverageHandoffMode;
+import spring.batch.teamPerformanceJob.handoff.AverageScoredTeamBufferReader;
+import spring.batch.teamPerformanceJob.handoff.AverageScoredTeamBufferWriter;
+import spring.batch.teamPerformanceJob.handoff.AverageScoredTeamBuffers;
+import spring.batch.teamPerformanceJob.handoff.BinaryAverageScoredTeamReader;
+import spring.batch.teamPerformanceJob.handoff.BinaryAverageScoredTeamWriter;
+import spring.batch.teamPerformanceJob.launcher.LauncherThreadMode;
+import spring.batch.teamPerformanceJob.launcher.RunningJobLimiter;
+import spring.batch.teamPerformanceJob.metrics.BatchObservationPostProcessor;
+import spring.batch.teamPerformanceJob.metrics.StepMetricsListener;
+import spring.batch.teamPerformanceJob.metrics.TeamPerformanceMetrics;
+import spring.batch.teamPerformanceJob.submission.InputFingerprint;
+import spring.batch.teamPerformanceJob.submission.JobSubmissionService;
+import spring.batch.teamPerformanceJob.partition.DivisionFilePartitioner;
+import spring.batch.teamPerformanceJob.partition.DivisionPartials;
+import spring.batch.teamPerformanceJob.partition.IncrementalAverageWorkerStep;
+import spring.batch.teamPerformanceJob.partition.TeamAveragePartitionAggregator;
+import spring.batch.teamPerformanceJob.processor.MultiRankTeamAverageProcessor;
+import spring.batch.teamPerformanceJob.processor.OrderedParallelItemProcessor;
+import spring.batch.teamPerformanceJob.processor.PerformanceEvaluator;
 import spring.batch.teamPerformanceJob.processor.TeamAverageProcessor;
+import spring.batch.teamPerformanceJob.ranking.TeamRanking;
+import spring.batch.teamPerformanceJob.remote.ChunkManagerItemWriter;
+import spring.batch.teamPerformanceJob.remote.LocalChunkWorkers;
+import spring.batch.teamPerformanceJob.ranking.TeamRankingListener;
+import spring.batch.teamPerformanceJob.repository.DurabilityJobRepositoryPostProcessor;
+import spring.batch.teamPerformanceJob.stream.PerformanceOutputReplay;
+import spring.batch.teamPerformanceJob.stream.StreamingTeamPerformanceWriter;
+import spring.batch.teamPerformanceJob.stream.TeamPerformanceStream;
+import spring.batch.teamPerformanceJob.stream.TeamPerformanceStreams;
+import spring.batch.teamPerformanceJob.reader.ByteRangeBufferedReaderFactory;
+import spring.batch.teamPerformanceJob.reader.DecompressingBufferedReaderFactory;
 import spring.batch.teamPerformanceJob.reader.DivisionFileReader;
+import spring.batch.teamPerformanceJob.reader.DivisionReaderMode;
+import spring.batch.teamPerformanceJob.reader.MappedDivisionFileReader;
+import spring.batch.teamPerformanceJob.reader.RankedAverageFileReader;
+import spring.batch.teamPerformanceJob.reader.SynchronizedTeamReader;
+import spring.batch.teamPerformanceJob.writer.BaselinePerformanceWriter;
+import spring.batch.teamPerformanceJob.writer.FlatFileWriters;
+import spring.batch.teamPerformanceJob.writer.OutputCommitListener;
+import spring.batch.teamPerformanceJob.writer.PerformanceHeaderCallback;
+import spring.batch.teamPerformanceJob.writer.RankedAverageScoredTeamWriter;
+import spring.batch.teamPerformanceJob.writer.RankedTeamPerformanceWriter;
 
-import java.io.Writer;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 @Slf4j
 @Configuration
+// Wiring specific to the average step mode, only the configuration of the selected mode is used
+@Import({ThreadedAverageConfiguration.class, PipelinedAverageConfiguration.class, RemoteChunkingAverageConfiguration.class})
 public class TeamPerformanceJobConfiguration {
 
+    // Teams with a player not having the score rank are skipped up to this number (per step execution)
+    static final int SKIP_LIMIT = 40;
 
-    @Value("classpath:input/*.txt")
+    @Value("${team-performance.input.location:classpath:input/*.txt*}")
     private Resource[] inDivisionResources;
 
-    @Value("file:calculated/avg.txt")
-    private WritableResource outAvgResource;
+    // Outputs of every job are written to "<output directory>/<uuid>/", so concurrent jobs don't overwrite each other;
+    // steps write part files renamed to final outputs once the step is completed (see OutputCommitListener)
+    @Value("${team-performance.output.directory:calculated}")
+    private String outputDirectory;
 
-    @Value("file:calculated/max.txt")
-    private WritableResource maxPerformanceRatioOutResource;
+    private static final String AVG_OUTPUT = "avg.txt";
 
-    @Value("file:calculated/min.txt")
-    private WritableResource minPerformanceRatioOutResource;
+    // Performance output against the baseline ("max.txt", "min.txt"), baseline name is the only argument
+    private static final String PERFORMANCE_OUTPUT = "%s.txt";
 
-    @Value("file:calculated/")
-    private WritableResource calculatedDirectoryResource;
+    // Per-rank outputs of multi-rank job, rank is the only argument
+    private static final String AVG_RANK_OUTPUT = "avg.rank%s.txt";
+    private static final String RANK_PERFORMANCE_OUTPUT = "%s.rank%s.txt";
+
+    // Partition outputs are merged into average output once all partitions are completed
+    private static final String AVG_PARTITION_OUTPUT = "avg.partition%d.txt";
+    // Averages handed over to ratio steps in binary format (binary average handoff)
+    private static final String AVG_BINARY_OUTPUT = "avg.bin";
+    private static final String AVG_PARTITION_BINARY_OUTPUT = "avg.partition%d.bin";
+
+    @Value("${team-performance.reader.mode:FLAT}")
+    private DivisionReaderMode divisionReaderMode;
+
+    // Outputs of the same rank over the same input are restored from the result cache instead of calculation
+    @Value("${team-performance.cache.enabled:false}")
+    private boolean resultCacheEnabled;
+
+    // Threads of launched jobs and their split flows
+    @Value("${team-performance.launcher.threads:PLATFORM}")
+    private LauncherThreadMode launcherThreadMode;
+
+    // Limit of simultaneously running jobs (0 for no limit), jobs submitted above it wait for a running one to finish
+    @Value("${team-performance.launcher.max-running-jobs:0}")
+    private int maxRunningJobs;
+
+    @Value("${team-performance.average.handoff:FILE}")
+    private AverageHandoffMode averageHandoffMode;
+
+    // Average output file is always written with FILE handoff, and optional with MEMORY and BINARY handoff
+    @Value("${team-performance.average.handoff.write-file:true}")
+    private boolean averageHandoffWriteFile;
+
+    // Fused ratio step evaluates all baselines in one scan of averages, instead of one parallel step per baseline
+    @Value("${team-performance.ratio.fused:false}")
+    private boolean ratioFused;
+
+    // Baselines evaluated by fused ratio step, every baseline is "<name>.score" and "<name>.player" in job context
+    @Value("${team-performance.ratio.baselines:max,min}")
+    private String[] ratioBaselines;
+
+    // Top teams, division leaderboards and score percentiles are gathered in the same pass as team averages
+    @Value("${team-performance.ranking.enabled:false}")
+    private boolean rankingEnabled;
+
+    @Value("${team-performance.ranking.top-k:10}")
+    private int rankingTopK;
+
+    // Percentiles of player scores, also put in job context as ratio baselines (e.g. "p50")
+    @Value("${team-performance.ranking.percentiles:50,90}")
+    private String[] rankingPercentiles;
+
+    // Percentiles are exact up to this number of scores, rank error is around 1/size beyond it
+    @Value("${team-performance.ranking.sketch-size:200}")
+    private int rankingSketchSize;
+
+    @Value("${team-performance.partition.max-range-bytes:0}")
+    private long partitionMaxRangeBytes;
+
+    @Value("${team-performance.partition.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int partitionThreads;
+
+    // Bounds and target for adaptive commit interval (used only when adaptive chunk mode is on)
+    @Value("${team-performance.chunk.adaptive.min-size:1}")
+    private int adaptiveMinChunkSize;
+
+    @Value("${team-performance.chunk.adaptive.max-size:10000}")
+    private int adaptiveMaxChunkSize;
+
+    @Value("${team-performance.chunk.adaptive.target-latency-ms:500}")
+    private long adaptiveTargetLatencyMillis;
+
+    @Autowired
+    private Environment environment;
+
+    // Modes are exclusive, conflicting average step settings fail the startup (see ConditionalOnAverageStepMode)
+    private AverageStepMode averageStepMode;
+
+    @PostConstruct
+    void selectAverageStepMode() {
+        averageStepMode = AverageStepMode.of(environment);
+        log.info("Average step mode is {}", averageStepMode);
+    }
 
     @Bean
     @Qualifier("teamPerformanceJob")
@@ -71,12 +229,19 @@ public class TeamPerformanceJobConfiguration {
             JobRepository jobRepository,
             @Qualifier("threadPoolTaskExecutor") TaskExecutor threadPoolTaskExecutor,
             @Qualifier("averageTeamScoreStep") Step averageTeamScoreStep,
+            @Qualifier("partitionedAverageTeamScoreStep") Step partitionedAverageTeamScoreStep,
             @Qualifier("teamMaxRatioPerformanceStep") Step teamMaxRatioPerformanceStep,
             @Qualifier("teamMinRatioPerformanceStep") Step teamMinRatioPerformanceStep,
+            @Qualifier("teamRatioPerformanceStep") Step teamRatioPerformanceStep,
             @Qualifier("shellScriptStep") Step shellScriptStep,
-            @Qualifier("successLoggerStep") Step successLoggerStep
-
-
+            @Qualifier("successLoggerStep") Step successLoggerStep,
+            @Qualifier("resultCacheDecider") ResultCacheDecider resultCacheDecider,
+            @Qualifier("resultCacheRestoreStep") Step resultCacheRestoreStep,
+            @Qualifier("resultCacheStoreStep") Step resultCacheStoreStep,
+            @Qualifier("averageScoredTeamBuffers") AverageScoredTeamBuffers averageScoredTeamBuffers,
+            @Qualifier("jobSubmissionService") JobSubmissionService jobSubmissionService,
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics,
+            @Qualifier("teamPerformanceStreams") TeamPerformanceStreams teamPerformanceStreams
     ) {
         // Wrap both performance steps into corresponding flows
         Flow maxRatioPerformanceFlow = new FlowBuilder<SimpleFlow>("maxRatioPerformanceFlow")
@@ -90,14 +255,52 @@ public class TeamPerformanceJobConfiguration {
                 .split(threadPoolTaskExecutor)
                 .add(maxRatioPerformanceFlow, minRatioPerformanceFlow)
                 .build();
-        return new JobBuilder("teamPerformanceJob", jobRepository)
+        Flow ratioPerformanceFlow = ratioFused
+                ? new FlowBuilder<SimpleFlow>("ratioPerformanceFlow").start(teamRatioPerformanceStep).build()
+                : performanceSplitFlow;
+        Flow averageTeamScoreFlow = new FlowBuilder<SimpleFlow>("averageTeamScoreFlow")
+                .start(averageStepMode.isPartitioned() ? partitionedAverageTeamScoreStep : averageTeamScoreStep)
+                .build();
+        JobBuilder jobBuilder = new JobBuilder("teamPerformanceJob", jobRepository)
+                // Releases averages buffered for ratio steps (if any) when job is finished
+                .listener(averageScoredTeamBuffers)
+                // Frees the submission slot when job is finished
+                .listener(jobSubmissionService)
+                // Completes performance stream of the job
+                .listener(teamPerformanceStreams);
+        if (!ratioFused) {
+            // How much of the split flow time both performance steps actually ran in parallel
+            jobBuilder.listener(teamPerformanceMetrics.splitFlowEfficiencyListener("performanceSplitFlow",
+                    Set.of("teamMaxRatioPerformanceStep", "teamMinRatioPerformanceStep")));
+        }
+        if (resultCacheEnabled) {
+            Flow calculationFlow = new FlowBuilder<SimpleFlow>("calculationFlow")
+                    .start(averageTeamScoreFlow)
+                    .next(ratioPerformanceFlow)
+                    // Outputs are cached for the next job over the same input
+                    .next(resultCacheStoreStep)
+                    .build();
+            Flow completionFlow = new FlowBuilder<SimpleFlow>("completionFlow")
+                    .start(shellScriptStep)
+                    .next(successLoggerStep)
+                    .build();
+            return jobBuilder
+                    // 1. Cached outputs of the same rank over the same input are restored instead of calculation
+                    .start(resultCacheDecider)
+                    .on(ResultCacheDecider.CACHED.getName()).to(resultCacheRestoreStep).next(completionFlow)
+                    // 2. Otherwise average and ratio steps are executed as usual
+                    .from(resultCacheDecider).on("*").to(calculationFlow).next(completionFlow)
+                    .end()
+                    .build();
+        }
+        return jobBuilder
                 // 1. (Start) Flow with single step -> average team score
                 // (flow is needed since the next is split flow, not a step)
-                .start(new FlowBuilder<SimpleFlow>("averageTeamScoreFlow")
-                        .start(averageTeamScoreStep)
-                        .build())
+                // (partitioned step processes every division file in a separate worker)
+                .start(averageTeamScoreFlow)
                 // 2. Next is parallel flow with 2 performance steps running in parallel
-                .next(performanceSplitFlow)
+                // (or single fused step writing performances against all baselines)
+                .next(ratioPerformanceFlow)
                 // 3. Execute shell script after done with parallel performance steps
                 .next(shellScriptStep)
                 // 4. Last step is to execute logging the success step
@@ -107,57 +310,340 @@ public class TeamPerformanceJobConfiguration {
 
     }
 
+    @Bean
+    @Qualifier("multiRankTeamPerformanceJob")
+    public Job multiRankTeamPerformanceJob(
+            JobRepository jobRepository,
+            @Qualifier("multiRankAverageTeamScoreStep") Step multiRankAverageTeamScoreStep,
+            @Qualifier("multiRankRatioPerformanceStep") Step multiRankRatioPerformanceStep,
+            @Qualifier("shellScriptStep") Step shellScriptStep,
+            @Qualifier("successLoggerStep") Step successLoggerStep,
+            @Qualifier("jobSubmissionService") JobSubmissionService jobSubmissionService,
+            @Qualifier("teamPerformanceStreams") TeamPerformanceStreams teamPerformanceStreams
+    ) {
+        return new JobBuilder("multiRankTeamPerformanceJob", jobRepository)
+                .listener(jobSubmissionService)
+                .listener(teamPerformanceStreams)
+                // 1. Single pass over division files, averages of all requested ranks are written to per-rank outputs
+                .start(multiRankAverageTeamScoreStep)
+                // 2. Single pass over per-rank averages, max and min performance of every rank are written at once
+                .next(multiRankRatioPerformanceStep)
+                .next(shellScriptStep)
+                .next(successLoggerStep)
+                .build();
+    }
+
     @Bean
     @Qualifier("averageTeamScoreStep")
     public Step averageTeamScoreStep(
             JobRepository jobRepository,
             PlatformTransactionManager transactionManager,
-            @Qualifier("divisionTeamReader") ItemReader<Team> divisionTeamReader,
+            @Qualifier("divisionTeamReader") ItemStreamReader<Team> divisionTeamReader,
             @Qualifier("teamAverageProcessor") TeamAverageProcessor teamAverageProcessor,
+            @Qualifier("averageChunkCompletionPolicy") CompletionPolicy averageChunkCompletionPolicy,
+            @Qualifier("averageTeamScoreWriter") ItemStreamWriter<AverageScoredTeam> averageTeamScoreWriter,
             @Qualifier("jobStartLoggerListener") StepExecutionListener jobStartLoggerListener,
-            @Qualifier("teamAverageContextPromotionListener") ExecutionContextPromotionListener teamAverageContextPromotionListener
+            @Qualifier("teamAverageContextPromotionListener") ExecutionContextPromotionListener teamAverageContextPromotionListener,
+            @Qualifier("teamRanking") TeamRanking teamRanking,
+            // Beans of the selected mode only (see mode configurations)
+            @Qualifier("averageTaskExecutor") ObjectProvider<TaskExecutor> averageTaskExecutor,
+            @Qualifier("averageStepOperations") ObjectProvider<RepeatOperations> averageStepOperations,
+            @Qualifier("pipelinedDivisionTeamReader") ObjectProvider<ItemStreamReader<Team>> pipelinedDivisionTeamReader,
+            @Qualifier("averagePipelineExecutor") ObjectProvider<TaskExecutor> averagePipelineExecutor,
+            @Qualifier("chunkManagerDivisionTeamReader") ObjectProvider<ItemStreamReader<Team>> chunkManagerDivisionTeamReader,
+            @Qualifier("chunkManagerItemWriter") ObjectProvider<ChunkManagerItemWriter> chunkManagerItemWriter,
+            @Qualifier("localChunkWorkers") ObjectProvider<LocalChunkWorkers> localChunkWorkers,
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
     ) {
-        return new StepBuilder("averageTeamScoreStep", jobRepository)
-                .<Team, AverageScoredTeam>chunk(1, transactionManager)
-                .reader(divisionTeamReader)
-                .processor(teamAverageProcessor)
-                .writer(
-                        new FlatFileItemWriterBuilder<AverageScoredTeam>()
-                                .name("averageTeamScoreWriter")
-                                .resource(outAvgResource)
-                                .delimited()
-                                .delimiter(",")
-                                .fieldExtractor(avgScoredTeam -> new Object[]{avgScoredTeam.name(), avgScoredTeam.averageScore()})
-                                .build()
-                )
+        StepMetricsListener stepMetricsListener = teamPerformanceMetrics.stepListener("averageTeamScoreStep");
+        StepBuilder stepBuilder = new StepBuilder("averageTeamScoreStep", jobRepository)
+                // Buffered averages don't survive the job execution, so they are recalculated on restart
+                .allowStartIfComplete(averageHandoffMode == AverageHandoffMode.MEMORY)
                 // This step should log the informational message
                 .listener(jobStartLoggerListener)
                 // Listener to promote step execution context to job execution context
                 .listener(teamAverageContextPromotionListener)
-                // / Listener to inject step execution object before step started and to flush it after it finished
-                .listener(new StepExecutionListener() {
-                    @Override
-                    public void beforeStep(StepExecution stepExecution) {
-                        teamAverageProcessor.setStepExecution(stepExecution);
+                .listener(outputCommitListener("avg.{txt,bin}"));
+        if (rankingEnabled) {
+            // Ranking is shared with the processor, as context published by one of several threads may miss the others
+            stepBuilder.listener(new TeamRankingListener(teamRanking, this::jobOutputDirectory, percentiles()));
+        }
+        if (averageStepMode == AverageStepMode.REMOTE) {
+            // Manager step only reads teams and sends chunks of them, workers process and write them (and own the writer)
+            return measured(stepBuilder
+                    .<Team, Team>chunk(averageChunkCompletionPolicy, transactionManager)
+                    .reader(chunkManagerDivisionTeamReader.getObject())
+                    .writer(chunkManagerItemWriter.getObject())
+                    .stream(localChunkWorkers.getObject()), stepMetricsListener)
+                    .build();
+        }
+        if (averageStepMode == AverageStepMode.THREADED_ORDERED) {
+            // Chunk is read and written by the step thread, processing of its teams is spread over the executor
+            return measured(buildAverageTeamScoreStep(stepBuilder, transactionManager, averageChunkCompletionPolicy,
+                    divisionTeamReader, new OrderedParallelItemProcessor<>(teamAverageProcessor, averageTaskExecutor.getObject()),
+                    averageTeamScoreWriter), stepMetricsListener)
+                    .build();
+        }
+        if (averageStepMode == AverageStepMode.THREADED_UNORDERED) {
+            // Every executor thread runs whole chunks, reader hands out whole teams (synchronized),
+            // and writer is synchronized as flat file writer is not thread-safe
+            return measured(buildAverageTeamScoreStep(stepBuilder, transactionManager, averageChunkCompletionPolicy,
+                    divisionTeamReader, teamAverageProcessor, new SynchronizedItemStreamWriterBuilder<AverageScoredTeam>()
+                            .delegate(averageTeamScoreWriter)
+                            .build()), stepMetricsListener)
+                    .taskExecutor(averageTaskExecutor.getObject())
+                    .stepOperations(averageStepOperations.getObject())
+                    .build();
+        }
+        if (averageStepMode == AverageStepMode.PIPELINED) {
+            // Reading and processing run ahead on pipeline threads, while the step thread writes and commits chunks,
+            // so chunk transactions and restart state stay those of the sequential step
+            return measured(buildAverageTeamScoreStep(stepBuilder, transactionManager, averageChunkCompletionPolicy,
+                    pipelinedDivisionTeamReader.getObject(),
+                    new OrderedParallelItemProcessor<>(teamAverageProcessor, averagePipelineExecutor.getObject()),
+                    averageTeamScoreWriter), stepMetricsListener)
+                    .build();
+        }
+        return measured(buildAverageTeamScoreStep(stepBuilder, transactionManager, averageChunkCompletionPolicy,
+                divisionTeamReader, teamAverageProcessor, averageTeamScoreWriter), stepMetricsListener)
+                .build();
+    }
+
+    @Bean
+    @Qualifier("partitionedAverageTeamScoreStep")
+    public Step partitionedAverageTeamScoreStep(
+            JobRepository jobRepository,
+            @Qualifier("averageTeamScoreWorkerStep") Step averageTeamScoreWorkerStep,
+            @Qualifier("incrementalAverageTeamScoreWorkerStep") Step incrementalAverageTeamScoreWorkerStep,
+            @Qualifier("partitionTaskExecutor") TaskExecutor partitionTaskExecutor,
+            @Qualifier("divisionFilePartitioner") Partitioner divisionFilePartitioner,
+            @Qualifier("teamAveragePartitionAggregator") StepExecutionAggregator teamAveragePartitionAggregator,
+            @Qualifier("jobStartLoggerListener") StepExecutionListener jobStartLoggerListener,
+            @Qualifier("teamAverageContextPromotionListener") ExecutionContextPromotionListener teamAverageContextPromotionListener
+    ) {
+        StepBuilder stepBuilder = new StepBuilder("partitionedAverageTeamScoreStep", jobRepository);
+        if (rankingEnabled) {
+            // Rankings of partitions are merged into step context by the aggregator
+            stepBuilder.listener(new TeamRankingListener(null, this::jobOutputDirectory, percentiles()));
+        }
+        return stepBuilder
+                .allowStartIfComplete(averageHandoffMode == AverageHandoffMode.MEMORY)
+                // One worker step execution per division file (or its byte range), executed on the partition executor
+                .partitioner("averageTeamScoreWorkerStep", divisionFilePartitioner)
+                // Incremental worker restores partition of unchanged division file from its partial instead
+                .step(averageStepMode == AverageStepMode.INCREMENTAL ? incrementalAverageTeamScoreWorkerStep : averageTeamScoreWorkerStep)
+                .taskExecutor(partitionTaskExecutor)
+                .gridSize(partitionThreads)
+                // Merges max/min players and partition outputs back, so ratio steps see the same as for non-partitioned step
+                .aggregator(teamAveragePartitionAggregator)
+                .listener(jobStartLoggerListener)
+                .listener(teamAverageContextPromotionListener)
+                .build();
+    }
+
+    // Partition outputs are written to the output directory of the job
+    @Bean
+    @StepScope
+    @Qualifier("divisionFilePartitioner")
+    public Partitioner divisionFilePartitioner(@Value("#{jobParameters['uuid']}") String uuid) {
+        return new DivisionFilePartitioner(inDivisionResources, outputLocation(uuid, AVG_PARTITION_OUTPUT),
+                writesBinaryFile() ? outputLocation(uuid, AVG_PARTITION_BINARY_OUTPUT) : null, partitionMaxRangeBytes);
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("teamAveragePartitionAggregator")
+    public StepExecutionAggregator teamAveragePartitionAggregator(@Value("#{jobParameters['uuid']}") String uuid) {
+        return new TeamAveragePartitionAggregator(writesAverageFile() ? outputResource(uuid, AVG_OUTPUT) : null,
+                writesBinaryFile() ? outputResource(uuid, AVG_BINARY_OUTPUT) : null);
+    }
+
+    @Bean
+    @Qualifier("averageTeamScoreWorkerStep")
+    public Step averageTeamScoreWorkerStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("partitionDivisionTeamReader") ItemStreamReader<Team> partitionDivisionTeamReader,
+            @Qualifier("teamAverageProcessor") TeamAverageProcessor teamAverageProcessor,
+            @Qualifier("averageChunkCompletionPolicy") CompletionPolicy averageChunkCompletionPolicy,
+            @Qualifier("partitionAverageTeamScoreWriter") ItemStreamWriter<AverageScoredTeam> partitionAverageTeamScoreWriter,
+            @Qualifier("partialWritingAverageTeamScoreWriter") ItemStreamWriter<AverageScoredTeam> partialWritingAverageTeamScoreWriter,
+            @Qualifier("divisionPartials") DivisionPartials divisionPartials,
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
+    ) {
+        StepBuilder stepBuilder = new StepBuilder("averageTeamScoreWorkerStep", jobRepository)
+                .allowStartIfComplete(averageHandoffMode == AverageHandoffMode.MEMORY);
+        if (averageStepMode == AverageStepMode.INCREMENTAL) {
+            stepBuilder.listener(new StepExecutionListener() {
+                // Partial is written along with partition output, and committed once the partition is completed
+                // (every chunk commit flushes written averages, so nothing is left to be written on close)
+                @Override
+                public ExitStatus afterStep(StepExecution stepExecution) {
+                    if (stepExecution.getStatus() == BatchStatus.COMPLETED) {
+                        divisionPartials.commit(stepExecution.getExecutionContext().getString(CommonConstants.PARTIAL_KEY),
+                                stepExecution.getJobExecution().getJobInstance().getInstanceId(), stepExecution.getExecutionContext());
                     }
+                    return stepExecution.getExitStatus();
+                }
+            });
+        }
+        // Skip limit is applied per partition, as every worker is a separate step execution
+        // (metrics are not, all workers are measured under the worker step name)
+        return measured(buildAverageTeamScoreStep(
+                stepBuilder,
+                transactionManager,
+                averageChunkCompletionPolicy,
+                partitionDivisionTeamReader,
+                teamAverageProcessor,
+                averageStepMode == AverageStepMode.INCREMENTAL ? partialWritingAverageTeamScoreWriter : partitionAverageTeamScoreWriter
+        ), teamPerformanceMetrics.stepListener("averageTeamScoreWorkerStep")).build();
+    }
+
+    @Bean
+    @Qualifier("incrementalAverageTeamScoreWorkerStep")
+    public Step incrementalAverageTeamScoreWorkerStep(
+            @Qualifier("averageTeamScoreWorkerStep") Step averageTeamScoreWorkerStep,
+            @Qualifier("partialAverageTeamScoreWorkerStep") Step partialAverageTeamScoreWorkerStep,
+            @Qualifier("divisionPartials") DivisionPartials divisionPartials,
+            @Qualifier("inputFingerprint") InputFingerprint inputFingerprint
+    ) {
+        return new IncrementalAverageWorkerStep(averageTeamScoreWorkerStep, partialAverageTeamScoreWorkerStep, divisionPartials, inputFingerprint);
+    }
 
+    // Worker step restoring partition of unchanged division file: partial averages are copied to partition output
+    @Bean
+    @Qualifier("partialAverageTeamScoreWorkerStep")
+    public Step partialAverageTeamScoreWorkerStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("partialAverageScoredTeamReader") ItemStreamReader<AverageScoredTeam> partialAverageScoredTeamReader,
+            @Qualifier("averageChunkCompletionPolicy") CompletionPolicy averageChunkCompletionPolicy,
+            @Qualifier("partitionAverageTeamScoreWriter") ItemStreamWriter<AverageScoredTeam> partitionAverageTeamScoreWriter,
+            @Qualifier("divisionPartials") DivisionPartials divisionPartials,
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
+    ) {
+        return measured(new StepBuilder("partialAverageTeamScoreWorkerStep", jobRepository)
+                .allowStartIfComplete(averageHandoffMode == AverageHandoffMode.MEMORY)
+                // Best/worst player of the partition are restored as if they were calculated
+                .listener(new StepExecutionListener() {
                     @Override
-                    public ExitStatus afterStep(StepExecution stepExecution) {
-                        teamAverageProcessor.setStepExecution(null);
-                        return StepExecutionListener.super.afterStep(stepExecution);
+                    public void beforeStep(StepExecution stepExecution) {
+                        divisionPartials.restoreExtremes(stepExecution.getExecutionContext().getString(CommonConstants.PARTIAL_KEY),
+                                stepExecution.getExecutionContext());
                     }
                 })
+                .<AverageScoredTeam, AverageScoredTeam>chunk(averageChunkCompletionPolicy, transactionManager)
+                .reader(partialAverageScoredTeamReader)
+                .writer(partitionAverageTeamScoreWriter), teamPerformanceMetrics.stepListener("partialAverageTeamScoreWorkerStep"))
+                .build();
+    }
+
+    // Chunk-oriented part shared by average step and partition worker step
+    private static FaultTolerantStepBuilder<Team, AverageScoredTeam> buildAverageTeamScoreStep(
+            StepBuilder stepBuilder,
+            PlatformTransactionManager transactionManager,
+            CompletionPolicy completionPolicy,
+            ItemReader<Team> reader,
+            ItemProcessor<Team, AverageScoredTeam> teamAverageProcessor,
+            ItemWriter<AverageScoredTeam> writer
+    ) {
+        return skipTeamsWithoutScoreRank(stepBuilder
+                .<Team, AverageScoredTeam>chunk(completionPolicy, transactionManager)
+                .reader(reader)
+                // Processor is an item stream too: best/worst players are put in step context on chunk commit
+                .processor(teamAverageProcessor)
+                .writer(writer));
+    }
+
+    // Teams with a player not having the score rank are skipped (up to the limit)
+    private static <O> FaultTolerantStepBuilder<Team, O> skipTeamsWithoutScoreRank(SimpleStepBuilder<Team, O> stepBuilder) {
+        return stepBuilder
                 .faultTolerant()
+                // Processed teams are kept for the retry of the chunk after a skip, instead of being processed again,
+                // as team ranking gathered by the processor would count them twice
+                .processorNonTransactional()
                 .skip(IndexOutOfBoundsException.class)
                 .noSkip(NullPointerException.class)
-                .skipLimit(40)
-                .listener(new SkipListener<Team, AverageScoredTeam>() {
+                .skipLimit(SKIP_LIMIT)
+                .listener(new SkipListener<Team, O>() {
                     @Override
                     public void onSkipInProcess(Team team, Throwable t) {
                         log.info("Error while processing team {}, item is skipped", team.getName());
                         log.info("Reason: {} -> {}", t.getClass().getName(), t.getLocalizedMessage());
                     }
-                })
+                });
+    }
+
+    // Teams read, chunk latency and skips (of fault-tolerant steps) of the chunk-oriented step are measured by the listener
+    private static <B extends SimpleStepBuilder<?, ?>> B measured(B stepBuilder, StepMetricsListener stepMetricsListener) {
+        stepBuilder.listener((ItemReadListener<Object>) stepMetricsListener);
+        stepBuilder.listener((ChunkListener) stepMetricsListener);
+        if (stepBuilder instanceof FaultTolerantStepBuilder<?, ?> faultTolerantStepBuilder) {
+            faultTolerantStepBuilder.listener((SkipListener<Object, Object>) stepMetricsListener);
+        }
+        return stepBuilder;
+    }
+
+    @Bean
+    @Qualifier("multiRankAverageTeamScoreStep")
+    public Step multiRankAverageTeamScoreStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("multiRankDivisionTeamReader") ItemStreamReader<Team> multiRankDivisionTeamReader,
+            @Qualifier("multiRankTeamAverageProcessor") MultiRankTeamAverageProcessor multiRankTeamAverageProcessor,
+            @Qualifier("rankedAverageScoredTeamWriter") ItemStreamWriter<MultiRankAverageScoredTeam> rankedAverageScoredTeamWriter,
+            @Qualifier("averageChunkCompletionPolicy") CompletionPolicy averageChunkCompletionPolicy,
+            @Qualifier("jobStartLoggerListener") StepExecutionListener jobStartLoggerListener,
+            @Qualifier("multiRankContextPromotionListener") StepExecutionListener multiRankContextPromotionListener,
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
+    ) {
+        return measured(new StepBuilder("multiRankAverageTeamScoreStep", jobRepository)
+                .listener(jobStartLoggerListener)
+                .listener(multiRankContextPromotionListener)
+                .listener(outputCommitListener(AVG_RANK_OUTPUT.formatted("*")))
+                .<Team, MultiRankAverageScoredTeam>chunk(averageChunkCompletionPolicy, transactionManager)
+                .reader(multiRankDivisionTeamReader)
+                .processor(multiRankTeamAverageProcessor)
+                .writer(rankedAverageScoredTeamWriter), teamPerformanceMetrics.stepListener("multiRankAverageTeamScoreStep"))
+                .build();
+    }
+
+    @Bean
+    @Qualifier("multiRankRatioPerformanceStep")
+    public Step multiRankRatioPerformanceStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("rankedAverageScoredTeamReader") ItemStreamReader<RankedAverageScoredTeam> rankedAverageScoredTeamReader,
+            @Qualifier("rankedTeamPerformanceWriter") ItemStreamWriter<RankedAverageScoredTeam> rankedTeamPerformanceWriter,
+            @Qualifier("ratioChunkCompletionPolicy") CompletionPolicy ratioChunkCompletionPolicy,
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
+    ) {
+        return measured(new StepBuilder("multiRankRatioPerformanceStep", jobRepository)
+                .listener(outputCommitListener(RANK_PERFORMANCE_OUTPUT.formatted("*", "*")))
+                .<RankedAverageScoredTeam, RankedAverageScoredTeam>chunk(ratioChunkCompletionPolicy, transactionManager)
+                .reader(rankedAverageScoredTeamReader)
+                // Performance against every baseline is evaluated by the writer of the rank
+                .writer(rankedTeamPerformanceWriter), teamPerformanceMetrics.stepListener("multiRankRatioPerformanceStep"))
+                .build();
+    }
+
+    @Bean
+    @Qualifier("teamRatioPerformanceStep")
+    public Step teamRatioPerformanceStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("averageScoredTeamReader") ItemStreamReader<AverageScoredTeam> averageScoredTeamReader,
+            @Qualifier("ratioPerformanceWriter") ItemStreamWriter<AverageScoredTeam> ratioPerformanceWriter,
+            @Qualifier("ratioChunkCompletionPolicy") CompletionPolicy ratioChunkCompletionPolicy,
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
+    ) {
+        return measured(new StepBuilder("teamRatioPerformanceStep", jobRepository)
+                .listener(outputCommitListener(PERFORMANCE_OUTPUT.formatted("{" + String.join(",", ratioBaselines) + "}")))
+                .<AverageScoredTeam, AverageScoredTeam>chunk(ratioChunkCompletionPolicy, transactionManager)
+                // Every average is read once ...
+                .reader(averageScoredTeamReader)
+                // ... and written against every baseline in the same chunk transaction
+                .writer(ratioPerformanceWriter), teamPerformanceMetrics.stepListener("teamRatioPerformanceStep"))
                 .build();
     }
 
@@ -166,24 +652,19 @@ public class TeamPerformanceJobConfiguration {
     public Step teamMaxRatioPerformanceStep(
             JobRepository jobRepository,
             PlatformTransactionManager transactionManager,
+            @Qualifier("averageScoredTeamReader") ItemStreamReader<AverageScoredTeam> averageScoredTeamReader,
             @Qualifier("maxRatioPerformanceProcessor") ItemProcessor<AverageScoredTeam, TeamPerformance> maxRatioPerformanceProcessor,
-            @Qualifier("maxHeaderWriter") FlatFileHeaderCallback maxHeaderWriter
+            @Qualifier("maxRatioPerformanceWriter") ItemStreamWriter<TeamPerformance> maxRatioPerformanceWriter,
+            @Qualifier("maxRatioChunkCompletionPolicy") CompletionPolicy maxRatioChunkCompletionPolicy,
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
     ) {
-        return new StepBuilder("teamMaxRatioPerformanceStep", jobRepository)
-                .<AverageScoredTeam, TeamPerformance>chunk(1, transactionManager)
-                .reader(averageScoredTeamReader())
+        return measured(new StepBuilder("teamMaxRatioPerformanceStep", jobRepository)
+                .listener(outputCommitListener(PERFORMANCE_OUTPUT.formatted("max")))
+                .<AverageScoredTeam, TeamPerformance>chunk(maxRatioChunkCompletionPolicy, transactionManager)
+                .reader(averageScoredTeamReader)
                 .processor(maxRatioPerformanceProcessor)
-                .writer(new FlatFileItemWriterBuilder<TeamPerformance>()
-                        .name("teamMinRatioPerformanceWriter")
-                        .resource(maxPerformanceRatioOutResource)
-                        .delimited()
-                        .delimiter(",")
-                        .fieldExtractor(teamPerformance -> new Object[]{
-                                teamPerformance.name(), teamPerformance.performance()
-                        })
-                        .headerCallback(maxHeaderWriter)
-                        .build()
-                )
+                .writer(maxRatioPerformanceWriter),
+                        teamPerformanceMetrics.stepListener("teamMaxRatioPerformanceStep"))
                 .build();
 
     }
@@ -192,22 +673,20 @@ public class TeamPerformanceJobConfiguration {
     @Qualifier("teamMinRatioPerformanceStep")
     public Step teamMinRatioPerformanceStep(JobRepository jobRepository,
                                             PlatformTransactionManager transactionManager,
+                                            @Qualifier("averageScoredTeamReader") ItemStreamReader<AverageScoredTeam> averageScoredTeamReader,
                                             @Qualifier("minRatioPerformanceProcessor") ItemProcessor<AverageScoredTeam, TeamPerformance> minRatioPerformanceProcessor,
-                                            @Qualifier("minHeaderWriter") FlatFileHeaderCallback minHeaderWriter) {
-        return new StepBuilder("teamMinRatioPerformanceStep", jobRepository)
-                // Read-and-write one-by-one
-                .<AverageScoredTeam, TeamPerformance>chunk(1, transactionManager)
-                // Reading from average scored team file
-                .reader(averageScoredTeamReader())
+                                            @Qualifier("minRatioPerformanceWriter") ItemStreamWriter<TeamPerformance> minRatioPerformanceWriter,
+                                            @Qualifier("minRatioChunkCompletionPolicy") CompletionPolicy minRatioChunkCompletionPolicy,
+                                            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics) {
+        return measured(new StepBuilder("teamMinRatioPerformanceStep", jobRepository)
+                .listener(outputCommitListener(PERFORMANCE_OUTPUT.formatted("min")))
+                // Commit interval is taken from job parameters / properties (read-and-write one-by-one by default)
+                .<AverageScoredTeam, TeamPerformance>chunk(minRatioChunkCompletionPolicy, transactionManager)
+                // Reading averages handed over by average step
+                .reader(averageScoredTeamReader)
                 .processor(minRatioPerformanceProcessor)
-                .writer(new FlatFileItemWriterBuilder<TeamPerformance>()
-                        .name("teamMinRatioPerformanceWriter")
-                        .resource(minPerformanceRatioOutResource)
-                        .delimited()
-                        .delimiter(",")
-                        .fieldExtractor(team -> new Object[]{team.name(), team.performance()})
-                        .headerCallback(minHeaderWriter)
-                        .build())
+                .writer(minRatioPerformanceWriter),
+                        teamPerformanceMetrics.stepListener("teamMinRatioPerformanceStep"))
                 .build();
     }
 
@@ -223,6 +702,55 @@ public class TeamPerformanceJobConfiguration {
     }
 
 
+    @Bean
+    @Qualifier("resultCacheRestoreStep")
+    public Step resultCacheRestoreStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("resultCache") ResultCache resultCache,
+            @Qualifier("teamPerformanceStreams") TeamPerformanceStreams teamPerformanceStreams
+    ) {
+        return new StepBuilder("resultCacheRestoreStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+                    ExecutionContext jobContext = stepExecution.getJobExecution().getExecutionContext();
+                    String key = jobContext.getString(CommonConstants.RESULT_CACHE_KEY);
+                    String uuid = stepExecution.getJobParameters().getString(CommonConstants.UUID_PARAM);
+                    if (!resultCache.restore(key, jobOutputDirectory(uuid), jobContext)) {
+                        // Decider checks the cache again on restart
+                        throw new IllegalStateException("Cached result " + key + " was evicted, job should be restarted");
+                    }
+                    // Stream clients get the restored performances, as if ratio steps calculated them
+                    TeamPerformanceStream stream = teamPerformanceStreams.open(uuid);
+                    for (String baseline : ratioFused ? ratioBaselines : new String[]{"max", "min"}) {
+                        PerformanceOutputReplay.publish(jobOutputDirectory(uuid).resolve(PERFORMANCE_OUTPUT.formatted(baseline)),
+                                baseline, stream);
+                    }
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
+    @Bean
+    @Qualifier("resultCacheStoreStep")
+    public Step resultCacheStoreStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("resultCache") ResultCache resultCache
+    ) {
+        return new StepBuilder("resultCacheStoreStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+                    ExecutionContext jobContext = stepExecution.getJobExecution().getExecutionContext();
+                    resultCache.store(jobContext.getString(CommonConstants.RESULT_CACHE_KEY),
+                            jobOutputDirectory(stepExecution.getJobParameters().getString(CommonConstants.UUID_PARAM)),
+                            resultOutputNames(), jobContext,
+                            List.of(CommonConstants.MAX_SCORE, CommonConstants.MAX_PLAYER, CommonConstants.MIN_SCORE, CommonConstants.MIN_PLAYER));
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
     @Bean("successLoggerStep")
     public Step successLoggerStep(
             JobRepository jobRepository,
@@ -236,38 +764,580 @@ public class TeamPerformanceJobConfiguration {
 
 
 
+    // Step scoped, so concurrent jobs don't share the reader
     @Bean
+    @StepScope
     @Qualifier("divisionTeamReader")
-    public ItemReader<Team> divisionTeamReader() {
+    public ItemStreamReader<Team> divisionTeamReader(
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
+    ) {
+        ResourceAwareItemReaderItemStream<Team> singleFileMultiLineReader =
+                divisionFileReader(0, Long.MAX_VALUE, teamPerformanceMetrics.readerBytes(divisionReaderMode));
+
+        SynchronizedTeamReader divisionTeamReader = new SynchronizedTeamReader(new MultiResourceItemReaderBuilder<Team>()
+                .name("divisionTeamReader")
+                .delegate(singleFileMultiLineReader)
+                .resources(inDivisionResources)
+                .build());
+        // Position of threads (or remote workers) running chunks concurrently is not defined, so there is no state to restart from
+        divisionTeamReader.setSaveState(!averageStepMode.isUnordered());
+        return divisionTeamReader;
+    }
+
+    // Reader of a single division file (or its byte range) assigned to the partition
+    @Bean
+    @StepScope
+    @Qualifier("partitionDivisionTeamReader")
+    public ItemStreamReader<Team> partitionDivisionTeamReader(
+            @Value("#{stepExecutionContext['division.resource']}") Resource divisionResource,
+            @Value("#{stepExecutionContext['range.start']}") Long rangeStart,
+            @Value("#{stepExecutionContext['range.end']}") Long rangeEnd,
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
+    ) {
+        LongConsumer readBytesConsumer = teamPerformanceMetrics.readerBytes(divisionReaderMode);
+        ResourceAwareItemReaderItemStream<Team> divisionFileReader = rangeStart != null && rangeEnd != null
+                ? divisionFileReader(rangeStart, rangeEnd, readBytesConsumer)
+                : divisionFileReader(0, Long.MAX_VALUE, readBytesConsumer);
+        divisionFileReader.setResource(divisionResource);
+        return new SynchronizedTeamReader(divisionFileReader);
+    }
+
+    // Creates single division file reader according to the configured reader mode, reading only [start, end) bytes
+    private ResourceAwareItemReaderItemStream<Team> divisionFileReader(long rangeStart, long rangeEnd, LongConsumer readBytesConsumer) {
+        if (divisionReaderMode == DivisionReaderMode.MAPPED) {
+            // Restart state is a byte offset, so every range restarts independently
+            MappedDivisionFileReader mappedDivisionFileReader = new MappedDivisionFileReader(rangeStart, rangeEnd);
+            mappedDivisionFileReader.setReadBytesConsumer(readBytesConsumer);
+            return mappedDivisionFileReader;
+        }
         FlatFileItemReader<String> lineReader = new FlatFileItemReaderBuilder<String>()
                 .name("divisionLineReader")
                 .lineMapper((line, lineNumber) -> line)
                 .build();
-        DivisionFileReader singleFileMultiLineReader = new DivisionFileReader(lineReader);
+        // Read count saved by line reader is relative to range start, so every range restarts independently
+        BufferedReaderFactory plainFileReaderFactory = rangeStart > 0 || rangeEnd < Long.MAX_VALUE
+                ? new ByteRangeBufferedReaderFactory(rangeStart, rangeEnd)
+                : new DefaultBufferedReaderFactory();
+        // Compressed division files are decoded on a pipeline thread ahead of line parsing
+        lineReader.setBufferedReaderFactory(new DecompressingBufferedReaderFactory(plainFileReaderFactory));
+        DivisionFileReader divisionFileReader = new DivisionFileReader(lineReader);
+        divisionFileReader.setReadBytesConsumer(readBytesConsumer);
+        return divisionFileReader;
+    }
 
-        return new MultiResourceItemReaderBuilder<Team>()
-                .name("divisionTeamReader")
-                .delegate(singleFileMultiLineReader)
+    @Bean
+    @StepScope
+    @Qualifier("partitionAverageTeamScoreWriter")
+    public ItemStreamWriter<AverageScoredTeam> partitionAverageTeamScoreWriter(
+            @Value("#{stepExecutionContext['partition.output']}") WritableResource partitionOutputResource,
+            @Value("#{stepExecutionContext['partition.binary.output']}") WritableResource partitionBinaryOutputResource,
+            @Value("#{stepExecutionContext['partition.index']}") int partitionIndex,
+            @Value("#{stepExecution.jobExecutionId}") long jobExecutionId,
+            @Qualifier("averageScoredTeamBuffers") AverageScoredTeamBuffers averageScoredTeamBuffers
+    ) {
+        // Buffer segment of every partition is read back in partition order, just as merged partition outputs
+        return averageHandoffWriter(
+                FlatFileWriters.averageScoredTeamWriter("partitionAverageTeamScoreWriter", partitionOutputResource),
+                () -> new BinaryAverageScoredTeamWriter("partitionBinaryAverageTeamScoreWriter", partitionBinaryOutputResource),
+                averageScoredTeamBuffers, jobExecutionId, partitionIndex);
+    }
+
+    // Incremental calculation: partition writer also writes averages to the pending partial of the partition
+    @Bean
+    @StepScope
+    @Qualifier("partialWritingAverageTeamScoreWriter")
+    public ItemStreamWriter<AverageScoredTeam> partialWritingAverageTeamScoreWriter(
+            @Value("#{stepExecutionContext['partial.key']}") String partialKey,
+            @Value("#{stepExecution.jobExecution.jobInstance.instanceId}") long jobInstanceId,
+            @Qualifier("partitionAverageTeamScoreWriter") ItemStreamWriter<AverageScoredTeam> partitionAverageTeamScoreWriter,
+            @Qualifier("divisionPartials") DivisionPartials divisionPartials
+    ) {
+        FlatFileItemWriter<AverageScoredTeam> partialWriter = FlatFileWriters.averageScoredTeamWriter("partialAverageTeamScoreWriter",
+                new FileSystemResource(divisionPartials.pendingAveragesFile(partialKey, jobInstanceId)));
+        // Partition writer goes last, as it may buffer averages
+        return new CompositeItemWriter<>(List.of(partialWriter, partitionAverageTeamScoreWriter));
+    }
+
+    // Averages of partial restored by incremental calculation
+    @Bean
+    @StepScope
+    @Qualifier("partialAverageScoredTeamReader")
+    public ItemStreamReader<AverageScoredTeam> partialAverageScoredTeamReader(
+            @Value("#{stepExecutionContext['partial.key']}") String partialKey,
+            @Qualifier("divisionPartials") DivisionPartials divisionPartials
+    ) {
+        return averageScoredTeamFileReader("partialAverageScoredTeamReader", new FileSystemResource(divisionPartials.averagesFile(partialKey)));
+    }
+
+    @Bean
+    @Qualifier("divisionPartials")
+    public DivisionPartials divisionPartials(
+            @Value("${team-performance.average.incremental.directory:calculated/partials}") String directory
+    ) {
+        // Partials without team ranking can't restore it, so partials with ranking are stored apart
+        return new DivisionPartials(rankingEnabled
+                ? Path.of(directory, "ranking-" + rankingTopK + "-" + rankingSketchSize)
+                : Path.of(directory));
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("averageTeamScoreWriter")
+    public ItemStreamWriter<AverageScoredTeam> averageTeamScoreWriter(
+            @Value("#{jobParameters['uuid']}") String uuid,
+            @Value("#{stepExecution.jobExecutionId}") long jobExecutionId,
+            @Qualifier("averageScoredTeamBuffers") AverageScoredTeamBuffers averageScoredTeamBuffers
+    ) {
+        FlatFileItemWriter<AverageScoredTeam> fileWriter = FlatFileWriters.averageScoredTeamWriter("averageTeamScoreWriter",
+                partResource(uuid, AVG_OUTPUT));
+        // Output is rewritten on restart, as reader has no state to restart from
+        fileWriter.setSaveState(!averageStepMode.isUnordered());
+        return averageHandoffWriter(fileWriter, () -> {
+            BinaryAverageScoredTeamWriter binaryWriter = new BinaryAverageScoredTeamWriter("binaryAverageTeamScoreWriter",
+                    partResource(uuid, AVG_BINARY_OUTPUT));
+            binaryWriter.setSaveState(!averageStepMode.isUnordered());
+            return binaryWriter;
+        }, averageScoredTeamBuffers, jobExecutionId, 0);
+    }
+
+    // Writes averages to the file and/or buffer segment or binary file, according to the configured handoff
+    private ItemStreamWriter<AverageScoredTeam> averageHandoffWriter(
+            FlatFileItemWriter<AverageScoredTeam> fileWriter,
+            Supplier<BinaryAverageScoredTeamWriter> binaryWriter,
+            AverageScoredTeamBuffers averageScoredTeamBuffers,
+            long jobExecutionId,
+            int segmentIndex
+    ) {
+        if (averageHandoffMode == AverageHandoffMode.FILE) {
+            return fileWriter;
+        }
+        ItemStreamWriter<AverageScoredTeam> handoffWriter = averageHandoffMode == AverageHandoffMode.BINARY
+                ? binaryWriter.get()
+                : new AverageScoredTeamBufferWriter(averageScoredTeamBuffers, jobExecutionId, segmentIndex);
+        if (!averageHandoffWriteFile) {
+            return handoffWriter;
+        }
+        // Handoff writers append on the chunk commit, so nothing is handed over when file writing fails
+        return new CompositeItemWriter<>(List.of(fileWriter, handoffWriter));
+    }
+
+    // Files written to the output directory of the job by average and ratio steps
+    private List<String> resultOutputNames() {
+        List<String> outputNames = new ArrayList<>();
+        if (writesAverageFile()) {
+            outputNames.add(AVG_OUTPUT);
+        }
+        for (String baseline : ratioFused ? ratioBaselines : new String[]{"max", "min"}) {
+            outputNames.add(PERFORMANCE_OUTPUT.formatted(baseline));
+        }
+        if (rankingEnabled) {
+            outputNames.addAll(List.of(TeamRankingListener.TOP_OUTPUT, TeamRankingListener.LEADERBOARDS_OUTPUT, TeamRankingListener.PERCENTILES_OUTPUT));
+        }
+        return outputNames;
+    }
+
+    // Settings affecting content of the output files, so results calculated with other settings are not reused
+    private Map<String, String> resultSettings() {
+        Map<String, String> settings = new LinkedHashMap<>();
+        settings.put("performance.format", PerformanceEvaluator.FORMAT);
+        settings.put("ratio.fused", String.valueOf(ratioFused));
+        if (ratioFused) {
+            settings.put("ratio.baselines", String.join(",", ratioBaselines));
+        }
+        if (rankingEnabled) {
+            settings.put("ranking.top-k", String.valueOf(rankingTopK));
+            settings.put("ranking.sketch-size", String.valueOf(rankingSketchSize));
+            settings.put("ranking.percentiles", Arrays.toString(percentiles()));
+        }
+        return settings;
+    }
+
+    private Path jobOutputDirectory(String uuid) {
+        return Path.of(outputDirectory, uuid);
+    }
+
+    private WritableResource outputResource(String uuid, String filename) {
+        return new FileSystemResource(jobOutputDirectory(uuid).resolve(filename));
+    }
+
+    // Part file of the output, renamed to the output by the output commit listener of the step
+    private WritableResource partResource(String uuid, String filename) {
+        return outputResource(uuid, OutputCommitListener.partName(filename));
+    }
+
+    // Renames part files of the outputs matching the glob once the step is completed
+    private OutputCommitListener outputCommitListener(String outputGlob) {
+        return new OutputCommitListener(this::jobOutputDirectory, outputGlob);
+    }
+
+    // Resource location of the output (e.g. for step execution context)
+    private String outputLocation(String uuid, String filename) {
+        return "file:" + jobOutputDirectory(uuid).resolve(filename);
+    }
+
+    private boolean writesAverageFile() {
+        return averageHandoffMode == AverageHandoffMode.FILE || averageHandoffWriteFile;
+    }
+
+    private double[] percentiles() {
+        return Arrays.stream(rankingPercentiles).mapToDouble(percentile -> Double.parseDouble(percentile.trim())).toArray();
+    }
+
+    private boolean writesBinaryFile() {
+        return averageHandoffMode == AverageHandoffMode.BINARY;
+    }
+
+    @Bean
+    @Qualifier("averageScoredTeamBuffers")
+    public AverageScoredTeamBuffers averageScoredTeamBuffers(
+            @Value("${team-performance.average.handoff.spill-threshold:1000000}") int spillThreshold,
+            @Value("${team-performance.average.handoff.spill-directory:#{systemProperties['java.io.tmpdir']}}") String spillDirectory
+    ) {
+        return new AverageScoredTeamBuffers(spillThreshold, Path.of(spillDirectory));
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("multiRankDivisionTeamReader")
+    public ItemStreamReader<Team> multiRankDivisionTeamReader(
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
+    ) {
+        return new SynchronizedTeamReader(new MultiResourceItemReaderBuilder<Team>()
+                .name("multiRankDivisionTeamReader")
+                .delegate(divisionFileReader(0, Long.MAX_VALUE, teamPerformanceMetrics.readerBytes(divisionReaderMode)))
                 .resources(inDivisionResources)
+                .build());
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("multiRankTeamAverageProcessor")
+    public MultiRankTeamAverageProcessor multiRankTeamAverageProcessor(@Value("#{jobParameters['scoreRanks']}") String scoreRanks) {
+        return new MultiRankTeamAverageProcessor(ScoreRanks.parse(scoreRanks));
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("rankedAverageScoredTeamWriter")
+    public ItemStreamWriter<MultiRankAverageScoredTeam> rankedAverageScoredTeamWriter(
+            @Value("#{jobParameters['scoreRanks']}") String scoreRanks,
+            @Value("#{jobParameters['uuid']}") String uuid
+    ) {
+        return new RankedAverageScoredTeamWriter(
+                ScoreRanks.parse(scoreRanks),
+                rank -> partResource(uuid, AVG_RANK_OUTPUT.formatted(rank)),
+                FlatFileWriters::averageScoredTeamWriter
+        );
+    }
+
+    // Promotes per-rank best/worst players and processed ranks to job execution context
+    @Bean
+    @Qualifier("multiRankContextPromotionListener")
+    public StepExecutionListener multiRankContextPromotionListener() {
+        return new StepExecutionListener() {
+            @Override
+            public ExitStatus afterStep(StepExecution stepExecution) {
+                if (stepExecution.getStatus() == BatchStatus.COMPLETED) {
+                    ExecutionContext jobExecutionContext = stepExecution.getJobExecution().getExecutionContext();
+                    for (Map.Entry<String, Object> entry : stepExecution.getExecutionContext().entrySet()) {
+                        String key = entry.getKey();
+                        if (key.equals(CommonConstants.SCORE_RANKS) || key.startsWith(CommonConstants.MAX_SCORE + ".")
+                                || key.startsWith(CommonConstants.MAX_PLAYER + ".") || key.startsWith(CommonConstants.MIN_SCORE + ".")
+                                || key.startsWith(CommonConstants.MIN_PLAYER + ".")) {
+                            jobExecutionContext.put(key, entry.getValue());
+                        }
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    // Reads per-rank averages of all processed ranks, one rank after another
+    @Bean
+    @StepScope
+    @Qualifier("rankedAverageScoredTeamReader")
+    public ItemStreamReader<RankedAverageScoredTeam> rankedAverageScoredTeamReader(
+            @Value("#{jobExecutionContext['score.ranks']}") String processedRanks,
+            @Value("#{jobParameters['uuid']}") String uuid
+    ) {
+        Map<String, Integer> rankByFilename = new HashMap<>();
+        List<Resource> rankResources = new ArrayList<>();
+        for (int rank : parseRanks(processedRanks)) {
+            Resource resource = outputResource(uuid, AVG_RANK_OUTPUT.formatted(rank));
+            rankByFilename.put(resource.getFilename(), rank);
+            rankResources.add(resource);
+        }
+        FlatFileItemReader<AverageScoredTeam> averageReader = new FlatFileItemReaderBuilder<AverageScoredTeam>()
+                .name("averageScoredTeamReader")
+                .lineTokenizer(new DelimitedLineTokenizer(","))
+                .fieldSetMapper(fieldSet -> new AverageScoredTeam(fieldSet.readString(0), fieldSet.readDouble(1)))
+                .build();
+        return new MultiResourceItemReaderBuilder<RankedAverageScoredTeam>()
+                .name("rankedAverageScoredTeamReader")
+                .delegate(new RankedAverageFileReader(averageReader, resource -> rankByFilename.get(resource.getFilename())))
+                .resources(rankResources.toArray(Resource[]::new))
+                .comparator(Comparator.comparing(resource -> rankByFilename.get(resource.getFilename())))
                 .build();
     }
 
+    // Writes max and min performance of every processed rank, baselines are per-rank best/worst players
+    @Bean
+    @StepScope
+    @Qualifier("rankedTeamPerformanceWriter")
+    public ItemStreamWriter<RankedAverageScoredTeam> rankedTeamPerformanceWriter(
+            @Value("#{jobExecutionContext}") Map<String, Object> jobExecutionContext,
+            @Value("#{jobParameters['uuid']}") String uuid,
+            @Qualifier("teamPerformanceStreams") TeamPerformanceStreams teamPerformanceStreams
+    ) {
+        TeamPerformanceStream stream = teamPerformanceStreams.open(uuid);
+        Map<Integer, BaselinePerformanceWriter> rankWriters = new TreeMap<>();
+        for (int rank : parseRanks((String) jobExecutionContext.get(CommonConstants.SCORE_RANKS))) {
+            if (!jobExecutionContext.containsKey(CommonConstants.rankKey(CommonConstants.MAX_SCORE, rank))) {
+                // Nobody scored this rank, so there are no averages to evaluate
+                continue;
+            }
+            rankWriters.put(rank, baselinePerformanceWriter(
+                    new String[]{"max", "min"},
+                    jobExecutionContext,
+                    key -> CommonConstants.rankKey(key, rank),
+                    baseline -> baseline + "Rank" + rank + "PerformanceWriter",
+                    baseline -> partResource(uuid, RANK_PERFORMANCE_OUTPUT.formatted(baseline, rank)),
+                    (baseline, writer) -> new StreamingTeamPerformanceWriter(writer, stream, baseline, rank)
+            ));
+        }
+        return new RankedTeamPerformanceWriter(rankWriters);
+    }
+
+    // Writes performance against every configured baseline to "<baseline>.txt"
+    @Bean
+    @StepScope
+    @Qualifier("ratioPerformanceWriter")
+    public ItemStreamWriter<AverageScoredTeam> ratioPerformanceWriter(
+            @Value("#{jobExecutionContext}") Map<String, Object> jobExecutionContext,
+            @Value("#{jobParameters['uuid']}") String uuid,
+            @Qualifier("teamPerformanceStreams") TeamPerformanceStreams teamPerformanceStreams
+    ) {
+        TeamPerformanceStream stream = teamPerformanceStreams.open(uuid);
+        return baselinePerformanceWriter(
+                ratioBaselines,
+                jobExecutionContext,
+                UnaryOperator.identity(),
+                // Same writer names as in separate max/min ratio steps
+                baseline -> "team" + StringUtils.capitalize(baseline) + "RatioPerformanceWriter",
+                baseline -> partResource(uuid, PERFORMANCE_OUTPUT.formatted(baseline)),
+                (baseline, writer) -> new StreamingTeamPerformanceWriter(writer, stream, baseline, null)
+        );
+    }
+
+    // Baseline score and player are taken from job execution context ("<baseline>.score" and "<baseline>.player"),
+    // file writer of every baseline is wrapped by the given decorator
+    private static BaselinePerformanceWriter baselinePerformanceWriter(
+            String[] baselines,
+            Map<String, Object> jobExecutionContext,
+            UnaryOperator<String> contextKey,
+            UnaryOperator<String> writerName,
+            Function<String, WritableResource> outputResource,
+            BiFunction<String, ItemStreamWriter<TeamPerformance>, ItemStreamWriter<TeamPerformance>> writerDecorator
+    ) {
+        Map<PerformanceBaseline, ItemStreamWriter<TeamPerformance>> baselineWriters = new LinkedHashMap<>();
+        for (String baselineName : baselines) {
+            Object score = jobExecutionContext.get(contextKey.apply(baselineName + ".score"));
+            if (score == null) {
+                throw new IllegalStateException("Baseline score " + contextKey.apply(baselineName + ".score") + " is not in job execution context");
+            }
+            PerformanceBaseline baseline = new PerformanceBaseline(baselineName, (Double) score,
+                    (String) jobExecutionContext.get(contextKey.apply(baselineName + ".player")));
+            baselineWriters.put(baseline, writerDecorator.apply(baselineName, FlatFileWriters.teamPerformanceWriter(
+                    writerName.apply(baselineName),
+                    outputResource.apply(baselineName),
+                    new PerformanceHeaderCallback(baseline.player(), baseline.score()))));
+        }
+        return new BaselinePerformanceWriter(baselineWriters);
+    }
+
+    private static int[] parseRanks(String ranks) {
+        if (ranks == null || ranks.isEmpty()) {
+            return new int[0];
+        }
+        return Arrays.stream(ranks.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
     @Bean
     @StepScope
     @Qualifier("teamAverageProcessor")
-    public TeamAverageProcessor teamAverageProcessor(@Value("#{jobParameters['scoreRank']}") int scoreRank) {
-        return new TeamAverageProcessor(scoreRank);
+    public TeamAverageProcessor teamAverageProcessor(
+            @Value("#{jobParameters['scoreRank']}") int scoreRank,
+            @Qualifier("teamRanking") TeamRanking teamRanking
+    ) {
+        TeamAverageProcessor processor = new TeamAverageProcessor(scoreRank);
+        if (rankingEnabled) {
+            processor.setTeamRanking(teamRanking);
+        }
+        return processor;
+    }
+
+    // Ranking of the step (or partition), gathered by its processor
+    @Bean
+    @StepScope
+    @Qualifier("teamRanking")
+    public TeamRanking teamRanking() {
+        TeamRanking teamRanking = new TeamRanking(rankingTopK, rankingSketchSize);
+        // Step is restarted from the beginning, as reader has no state to restart from
+        teamRanking.setSaveState(!averageStepMode.isUnordered());
+        return teamRanking;
+    }
+
+    // Commit interval policies: chunk size is taken from job parameter if present, otherwise from properties
+    @Bean
+    @StepScope
+    @Qualifier("averageChunkCompletionPolicy")
+    public CompletionPolicy averageChunkCompletionPolicy(
+            @Value("#{jobParameters['averageChunkSize'] ?: ${team-performance.chunk.average-size:1}}") int chunkSize,
+            @Value("#{jobParameters['adaptiveChunk'] ?: ${team-performance.chunk.adaptive.enabled:false}}") boolean adaptive
+    ) {
+        return chunkCompletionPolicy(chunkSize, adaptive);
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("maxRatioChunkCompletionPolicy")
+    public CompletionPolicy maxRatioChunkCompletionPolicy(
+            @Value("#{jobParameters['maxRatioChunkSize'] ?: ${team-performance.chunk.max-ratio-size:1}}") int chunkSize,
+            @Value("#{jobParameters['adaptiveChunk'] ?: ${team-performance.chunk.adaptive.enabled:false}}") boolean adaptive
+    ) {
+        return chunkCompletionPolicy(chunkSize, adaptive);
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("minRatioChunkCompletionPolicy")
+    public CompletionPolicy minRatioChunkCompletionPolicy(
+            @Value("#{jobParameters['minRatioChunkSize'] ?: ${team-performance.chunk.min-ratio-size:1}}") int chunkSize,
+            @Value("#{jobParameters['adaptiveChunk'] ?: ${team-performance.chunk.adaptive.enabled:false}}") boolean adaptive
+    ) {
+        return chunkCompletionPolicy(chunkSize, adaptive);
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("ratioChunkCompletionPolicy")
+    public CompletionPolicy ratioChunkCompletionPolicy(
+            @Value("#{jobParameters['ratioChunkSize'] ?: ${team-performance.chunk.ratio-size:1}}") int chunkSize,
+            @Value("#{jobParameters['adaptiveChunk'] ?: ${team-performance.chunk.adaptive.enabled:false}}") boolean adaptive
+    ) {
+        return chunkCompletionPolicy(chunkSize, adaptive);
+    }
+
+    private CompletionPolicy chunkCompletionPolicy(int chunkSize, boolean adaptive) {
+        if (adaptive) {
+            // Configured chunk size is only a starting point, it will be resized based on measured chunk latency
+            return new AdaptiveChunkCompletionPolicy(chunkSize, adaptiveMinChunkSize, adaptiveMaxChunkSize, adaptiveTargetLatencyMillis);
+        }
+        return new SimpleCompletionPolicy(chunkSize);
     }
 
     // job launcher
     @Bean
-    public JobLauncher asyncJobLauncher(JobRepository jobRepository) {
+    public JobLauncher asyncJobLauncher(
+            JobRepository jobRepository,
+            @Qualifier("jobLauncherTaskExecutor") TaskExecutor jobLauncherTaskExecutor
+    ) {
         TaskExecutorJobLauncher taskExecutorJobLauncher = new TaskExecutorJobLauncher();
         taskExecutorJobLauncher.setJobRepository(jobRepository);
-        taskExecutorJobLauncher.setTaskExecutor(new SimpleAsyncTaskExecutor());
+        taskExecutorJobLauncher.setTaskExecutor(jobLauncherTaskExecutor);
         return taskExecutorJobLauncher;
     }
 
+    @Bean
+    @Qualifier("inputFingerprint")
+    public InputFingerprint inputFingerprint() {
+        return new InputFingerprint(inDivisionResources);
+    }
+
+    @Bean
+    @Qualifier("jobSubmissionService")
+    public JobSubmissionService jobSubmissionService(
+            @Qualifier("asyncJobLauncher") JobLauncher asyncJobLauncher,
+            @Qualifier("inputFingerprint") InputFingerprint inputFingerprint,
+            @Value("${team-performance.submission.capacity:100}") int capacity,
+            @Value("${team-performance.submission.retry-after-seconds:30}") long retryAfterSeconds,
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
+    ) {
+        JobSubmissionService jobSubmissionService = new JobSubmissionService(asyncJobLauncher, inputFingerprint, capacity, retryAfterSeconds);
+        teamPerformanceMetrics.bindSubmissions(jobSubmissionService);
+        return jobSubmissionService;
+    }
+
+    @Bean
+    @Qualifier("resultCache")
+    public ResultCache resultCache(
+            @Value("${team-performance.cache.directory:calculated/cache}") String directory,
+            @Value("${team-performance.cache.max-bytes:268435456}") long maxBytes
+    ) {
+        return new ResultCache(Path.of(directory), maxBytes);
+    }
+
+    @Bean
+    @Qualifier("resultCacheDecider")
+    public ResultCacheDecider resultCacheDecider(
+            @Qualifier("resultCache") ResultCache resultCache,
+            @Qualifier("inputFingerprint") InputFingerprint inputFingerprint
+    ) {
+        return new ResultCacheDecider(resultCache, inputFingerprint, resultOutputNames(), resultSettings());
+    }
+
+    // New thread for every job, submitted jobs above the limit (if any) wait for running ones to finish
+    @Bean
+    @Qualifier("jobLauncherTaskExecutor")
+    public TaskExecutor jobLauncherTaskExecutor(
+            @Qualifier("teamPerformanceMetrics") TeamPerformanceMetrics teamPerformanceMetrics
+    ) {
+        TaskExecutor jobLauncherTaskExecutor = newJobLauncherTaskExecutor();
+        // Queue depth of jobs waiting for a running job to finish
+        teamPerformanceMetrics.bindLauncher(jobLauncherTaskExecutor);
+        return jobLauncherTaskExecutor;
+    }
+
+    private TaskExecutor newJobLauncherTaskExecutor() {
+        SimpleAsyncTaskExecutor jobExecutor = new SimpleAsyncTaskExecutor("job-launcher-");
+        if (launcherThreadMode == LauncherThreadMode.VIRTUAL) {
+            jobExecutor.setVirtualThreads(true);
+            return maxRunningJobs > 0 ? new RunningJobLimiter(jobExecutor, maxRunningJobs) : jobExecutor;
+        }
+        if (maxRunningJobs > 0) {
+            // Waiting platform threads are not cheap, so jobs above the limit are queued instead
+            ThreadPoolTaskExecutor jobPoolExecutor = new ThreadPoolTaskExecutor();
+            jobPoolExecutor.setCorePoolSize(maxRunningJobs);
+            jobPoolExecutor.setMaxPoolSize(maxRunningJobs);
+            jobPoolExecutor.setThreadNamePrefix("job-launcher-");
+            return jobPoolExecutor;
+        }
+        return jobExecutor;
+    }
+
+    // Application meter registry (Prometheus in the web app), or the global one when there is none (e.g. in tests)
+    @Bean
+    @Qualifier("teamPerformanceMetrics")
+    public TeamPerformanceMetrics teamPerformanceMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new TeamPerformanceMetrics(meterRegistry.getIfUnique(() -> Metrics.globalRegistry));
+    }
+
+    // Static, so the post processor doesn't need this configuration to be created before other beans
+    @Bean
+    public static BatchObservationPostProcessor batchObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BatchObservationPostProcessor(observationRegistry);
+    }
+
+    // Static for the same reason, job repository is decorated before any job or step gets it
+    @Bean
+    public static DurabilityJobRepositoryPostProcessor durabilityJobRepositoryPostProcessor(
+            Environment environment,
+            ObjectProvider<PlatformTransactionManager> transactionManager
+    ) {
+        return new DurabilityJobRepositoryPostProcessor(environment, transactionManager);
+    }
+
 
     @Bean
     @StepScope
@@ -297,12 +1367,29 @@ public class TeamPerformanceJobConfiguration {
         return listener;
     }
 
-    // Create new instance of file item reader: defined as a separate method to be reused,
-    // however not defined as a bean to have a separate instance per each step (executed in parallel)
-    public ItemReader<AverageScoredTeam> averageScoredTeamReader() {
+    // Reader of averages handed over by average step: step scoped to have a separate instance per each step (executed in parallel)
+    @Bean
+    @StepScope
+    @Qualifier("averageScoredTeamReader")
+    public ItemStreamReader<AverageScoredTeam> averageScoredTeamReader(
+            @Value("#{jobParameters['uuid']}") String uuid,
+            @Value("#{stepExecution.jobExecutionId}") long jobExecutionId,
+            @Qualifier("averageScoredTeamBuffers") AverageScoredTeamBuffers averageScoredTeamBuffers
+    ) {
+        if (averageHandoffMode == AverageHandoffMode.MEMORY) {
+            return new AverageScoredTeamBufferReader(averageScoredTeamBuffers, jobExecutionId);
+        }
+        if (averageHandoffMode == AverageHandoffMode.BINARY) {
+            return new BinaryAverageScoredTeamReader("averageScoredTeamReader", outputResource(uuid, AVG_BINARY_OUTPUT));
+        }
+        return averageScoredTeamFileReader("averageScoredTeamReader", outputResource(uuid, AVG_OUTPUT));
+    }
+
+    // Reader of team average output ("name,average")
+    private static FlatFileItemReader<AverageScoredTeam> averageScoredTeamFileReader(String name, Resource resource) {
         return new FlatFileItemReaderBuilder<AverageScoredTeam>()
-                .name("averageScoredTeamReader")
-                .resource(outAvgResource)
+                .name(name)
+                .resource(resource)
                 .lineTokenizer(new DelimitedLineTokenizer(","))
                 .fieldSetMapper(fieldSet -> new AverageScoredTeam(fieldSet.readString(0), fieldSet.readDouble(1)))
                 .build();
@@ -315,21 +1402,14 @@ public class TeamPerformanceJobConfiguration {
 
             @Value("#{jobExecutionContext['max.score']}") double maxScore
     ) {
-        return item -> evaluatePerformance(item, maxScore);
+        return item -> PerformanceEvaluator.evaluatePerformance(item, maxScore);
     }
 
     @Bean
     @StepScope
     @Qualifier("minRatioPerformanceProcessor")
     public ItemProcessor<AverageScoredTeam, TeamPerformance> minRatioPerformanceProcessor(@Value("#{jobExecutionContext['min.score']}") double minScore) {
-        return item -> evaluatePerformance(item, minScore);
-    }
-
-    private static TeamPerformance evaluatePerformance(AverageScoredTeam team, double baselineScore) {
-        BigDecimal performance = BigDecimal.valueOf(team.averageScore())
-                .multiply(new BigDecimal(100))
-                .divide(BigDecimal.valueOf(baselineScore), 2, RoundingMode.HALF_UP);
-        return new TeamPerformance(team.name(), performance.toString() + "%");
+        return item -> PerformanceEvaluator.evaluatePerformance(item, minScore);
     }
 
     @Bean
@@ -339,7 +1419,7 @@ public class TeamPerformanceJobConfiguration {
             @Value("#{jobExecutionContext['max.score']}") double maxScore,
             @Value("#{jobExecutionContext['max.player']}") String maxPlayerName
     ) {
-        return writer -> writerHeader(writer, maxPlayerName, maxScore);
+        return new PerformanceHeaderCallback(maxPlayerName, maxScore);
     }
 
     @Bean
@@ -347,26 +1427,74 @@ public class TeamPerformanceJobConfiguration {
     @Qualifier("minHeaderWriter")
     public FlatFileHeaderCallback minHeaderWriter(@Value("#{jobExecutionContext['min.score']}") double minScore,
                                                   @Value("#{jobExecutionContext['min.player']}") String minPlayerName) {
-        return writer -> writerHeader(writer, minPlayerName, minScore);
+        return new PerformanceHeaderCallback(minPlayerName, minScore);
     }
 
+    // Performance writers of max and min ratio steps, performances are also pushed to the stream of the job
+    @Bean
+    @StepScope
+    @Qualifier("maxRatioPerformanceWriter")
+    public ItemStreamWriter<TeamPerformance> maxRatioPerformanceWriter(
+            @Value("#{jobParameters['uuid']}") String uuid,
+            @Qualifier("maxHeaderWriter") FlatFileHeaderCallback maxHeaderWriter,
+            @Qualifier("teamPerformanceStreams") TeamPerformanceStreams teamPerformanceStreams
+    ) {
+        return new StreamingTeamPerformanceWriter(
+                FlatFileWriters.teamPerformanceWriter("teamMinRatioPerformanceWriter", partResource(uuid, PERFORMANCE_OUTPUT.formatted("max")), maxHeaderWriter),
+                teamPerformanceStreams.open(uuid), "max", null);
+    }
 
-    private static void writerHeader(Writer writer, String name, double score) {
-        try {
-            writer.write("******************************************************\n");
-            writer.write("Team performance below are calculated against " + score + " which was scored by " + name + "\n");
-            writer.write("******************************************************\n");
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    @Bean
+    @StepScope
+    @Qualifier("minRatioPerformanceWriter")
+    public ItemStreamWriter<TeamPerformance> minRatioPerformanceWriter(
+            @Value("#{jobParameters['uuid']}") String uuid,
+            @Qualifier("minHeaderWriter") FlatFileHeaderCallback minHeaderWriter,
+            @Qualifier("teamPerformanceStreams") TeamPerformanceStreams teamPerformanceStreams
+    ) {
+        return new StreamingTeamPerformanceWriter(
+                FlatFileWriters.teamPerformanceWriter("teamMinRatioPerformanceWriter", partResource(uuid, PERFORMANCE_OUTPUT.formatted("min")), minHeaderWriter),
+                teamPerformanceStreams.open(uuid), "min", null);
+    }
+
+    @Bean
+    @Qualifier("teamPerformanceStreams")
+    public TeamPerformanceStreams teamPerformanceStreams(
+            @Value("${team-performance.stream.replay-limit:100000}") int replayLimit,
+            @Value("${team-performance.stream.retained-jobs:16}") int retainedJobs
+    ) {
+        return new TeamPerformanceStreams(replayLimit, retainedJobs);
+    }
+
+
+    @Bean
+    @Qualifier("partitionTaskExecutor")
+    public TaskExecutor partitionTaskExecutor() {
+        ThreadPoolTaskExecutor threadPoolExecutor = new ThreadPoolTaskExecutor();
+        // Division partitions are CPU bound, so pool is sized by configuration (number of cores by default)
+        threadPoolExecutor.setCorePoolSize(partitionThreads);
+        threadPoolExecutor.setMaxPoolSize(partitionThreads);
+        threadPoolExecutor.setThreadNamePrefix("division-partition-");
+        return threadPoolExecutor;
     }
 
     @Bean
     @Qualifier("threadPoolTaskExecutor")
     public TaskExecutor threadPoolTaskExecutor() {
+        if (launcherThreadMode == LauncherThreadMode.VIRTUAL) {
+            // Virtual thread for every split flow, so split flows of concurrent jobs don't queue for the pool
+            SimpleAsyncTaskExecutor virtualThreadExecutor = new SimpleAsyncTaskExecutor("performance-split-");
+            virtualThreadExecutor.setVirtualThreads(true);
+            return virtualThreadExecutor;
+        }
+        if (maxRunningJobs <= 0) {
+            // Jobs are not limited, so split flows of concurrent jobs are not either (new thread for every split flow)
+            return new SimpleAsyncTaskExecutor("performance-split-");
+        }
         ThreadPoolTaskExecutor threadPoolExecutor = new ThreadPoolTaskExecutor();
-        // 2-thread size pool to execute split flow with 2 parallel steps
-        threadPoolExecutor.setCorePoolSize(2);
+        // 2 threads per running job to execute split flow with 2 parallel steps
+        threadPoolExecutor.setCorePoolSize(2 * maxRunningJobs);
+        threadPoolExecutor.setThreadNamePrefix("performance-split-");
         return threadPoolExecutor;
     }
 
@@ -378,10 +1506,13 @@ public class TeamPerformanceJobConfiguration {
     ){
         return ( contribution, chunkContext)->{
             CommandRunner commandRunner = new JvmCommandRunner();
+            // Marker next to the output directory of the job, so it's written once all outputs are
+            File outputDirectoryFile = new File(outputDirectory);
+            outputDirectoryFile.mkdirs();
             commandRunner.exec(
                     new String[]{"bash", "-l", "-c", "touch " + uuid + ".resulted"},
                     new String[]{},
-                    calculatedDirectoryResource.getFile()
+                    outputDirectoryFile
                     );
             return RepeatStatus.FINISHED;
         };
@@ -0,0 +1,36 @@
+package spring.batch.teamPerformanceJob.config;
+
+import org.springframework.batch.repeat.RepeatOperations;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import spring.batch.teamPerformanceJob.chunk.BoundedTaskExecutorRepeatTemplate;
+
+// Threads of the multi-threaded average step, processing teams of a chunk (ordered) or running whole chunks (unordered)
+@Configuration
+@ConditionalOnAverageStepMode({AverageStepMode.THREADED_ORDERED, AverageStepMode.THREADED_UNORDERED})
+public class ThreadedAverageConfiguration {
+
+    @Value("${team-performance.average.threads:1}")
+    private int averageThreads;
+
+    @Bean
+    @Qualifier("averageTaskExecutor")
+    public TaskExecutor averageTaskExecutor() {
+        ThreadPoolTaskExecutor threadPoolExecutor = new ThreadPoolTaskExecutor();
+        threadPoolExecutor.setCorePoolSize(averageThreads);
+        threadPoolExecutor.setMaxPoolSize(averageThreads);
+        threadPoolExecutor.setThreadNamePrefix("team-average-");
+        return threadPoolExecutor;
+    }
+
+    // Chunks of unordered step run on the executor, default limit of concurrent chunks (4) would leave bigger pool underused
+    @Bean
+    @Qualifier("averageStepOperations")
+    public RepeatOperations averageStepOperations(@Qualifier("averageTaskExecutor") TaskExecutor averageTaskExecutor) {
+        return new BoundedTaskExecutorRepeatTemplate(averageTaskExecutor, averageThreads);
+    }
+}
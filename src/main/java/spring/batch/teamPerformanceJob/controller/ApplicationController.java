@@ -1,39 +1,173 @@
 package spring.batch.teamPerformanceJob.controller;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import spring.batch.teamPerformanceJob.CommonConstants;
+import spring.batch.teamPerformanceJob.domain.ScoreRanks;
+import spring.batch.teamPerformanceJob.repository.RepositoryDurability;
+import spring.batch.teamPerformanceJob.stream.PerformanceRow;
+import spring.batch.teamPerformanceJob.stream.TeamPerformanceStream;
+import spring.batch.teamPerformanceJob.stream.TeamPerformanceStreams;
+import spring.batch.teamPerformanceJob.submission.JobSubmissionService;
 
-import java.util.UUID;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+@Slf4j
 @RestController
 public class ApplicationController {
 
+    // Rows sent to the client at once, and how often the client is checked for disconnect while no rows come
+    private static final int STREAM_BATCH_ROWS = 1000;
+    private static final long STREAM_POLL_MILLIS = 1000;
+
     @Autowired
-    @Qualifier("asyncJobLauncher")
-    private JobLauncher jobLauncher;
+    @Qualifier("jobSubmissionService")
+    private JobSubmissionService jobSubmissionService;
 
     @Autowired
+    @Qualifier("teamPerformanceJob")
     private Job teamPerformanceJob;
 
+    @Autowired
+    @Qualifier("multiRankTeamPerformanceJob")
+    private Job multiRankTeamPerformanceJob;
+
+    @Autowired
+    @Qualifier("teamPerformanceStreams")
+    private TeamPerformanceStreams teamPerformanceStreams;
+
+    @Value("${team-performance.stream.timeout-ms:1800000}")
+    private long streamTimeoutMillis;
+
     @PostMapping("/start")
-    public String start(@RequestParam("scoreRank") int scoreRank) throws Exception{
-        String uuid = UUID.randomUUID().toString();
-        launchJobAsynchronously(scoreRank, uuid);
-        return "Job with id "+uuid+" was submitted";
+    public String start(@RequestParam(value = "scoreRank", required = false) Integer scoreRank,
+                        // Several ranks in one pass, e.g. "0,2,5-9" or "all"
+                        @RequestParam(value = "scoreRanks", required = false) String scoreRanks,
+                        // Optional commit interval overrides, properties are used when not specified
+                        @RequestParam(value = "averageChunkSize", required = false) Integer averageChunkSize,
+                        @RequestParam(value = "maxRatioChunkSize", required = false) Integer maxRatioChunkSize,
+                        @RequestParam(value = "minRatioChunkSize", required = false) Integer minRatioChunkSize,
+                        @RequestParam(value = "ratioChunkSize", required = false) Integer ratioChunkSize,
+                        @RequestParam(value = "adaptiveChunk", required = false) Boolean adaptiveChunk,
+                        // Optional job repository durability (FULL, RELAXED or NONE), property is used when not specified
+                        @RequestParam(value = "durability", required = false) String durability) throws Exception{
+        if ((scoreRank == null) == (scoreRanks == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Exactly one of scoreRank and scoreRanks must be specified");
+        }
+        JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
+        Job job;
+        // Canonical form of requested ranks, identical requests are coalesced by it
+        String requestedRanks;
+        if (scoreRank != null) {
+            jobParametersBuilder.addLong(CommonConstants.SCORE_RANK_PARAM, (long) scoreRank);
+            job = teamPerformanceJob;
+            requestedRanks = scoreRank.toString();
+        } else {
+            try {
+                requestedRanks = ScoreRanks.parse(scoreRanks).toString();
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+            jobParametersBuilder.addString(CommonConstants.SCORE_RANKS_PARAM, scoreRanks);
+            job = multiRankTeamPerformanceJob;
+        }
+        addChunkSize(jobParametersBuilder, CommonConstants.AVERAGE_CHUNK_SIZE_PARAM, averageChunkSize);
+        addChunkSize(jobParametersBuilder, CommonConstants.MAX_RATIO_CHUNK_SIZE_PARAM, maxRatioChunkSize);
+        addChunkSize(jobParametersBuilder, CommonConstants.MIN_RATIO_CHUNK_SIZE_PARAM, minRatioChunkSize);
+        addChunkSize(jobParametersBuilder, CommonConstants.RATIO_CHUNK_SIZE_PARAM, ratioChunkSize);
+        if (adaptiveChunk != null) {
+            jobParametersBuilder.addString(CommonConstants.ADAPTIVE_CHUNK_PARAM, adaptiveChunk.toString());
+        }
+        if (durability != null) {
+            try {
+                jobParametersBuilder.addString(CommonConstants.DURABILITY_PARAM, RepositoryDurability.valueOf(durability).name());
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown durability " + durability, e);
+            }
+        }
+        // Rejected with 429 when submission queue is full
+        JobSubmissionService.JobSubmission submission = jobSubmissionService.submit(job, requestedRanks, jobParametersBuilder);
+        // Stream is available from now on, even if the job is still waiting for the launcher
+        teamPerformanceStreams.open(submission.uuid());
+        if (submission.coalesced()) {
+            return "Job with id "+submission.uuid()+" was already submitted for the same request";
+        }
+        return "Job with id "+submission.uuid()+" was submitted";
+    }
+
+    /**
+     * Pushes performance rows of the job as server-sent events as soon as ratio steps commit them: "performance" event
+     * per row (event id is the row offset), "missed" event with the number of rows dropped before they could be sent,
+     * and "end" event with the exit status of the job. Client reconnecting with "Last-Event-ID" continues after that row
+     */
+    @GetMapping(value = "/jobs/{uuid}/performances", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter performances(@PathVariable("uuid") String uuid,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        TeamPerformanceStream stream = teamPerformanceStreams.find(uuid)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job with id " + uuid + " is not known"));
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(e -> closed.set(true));
+        long offset = lastEventId != null ? lastEventId + 1 : 0;
+        // Every client waits for rows on its own (virtual) thread, so slow clients don't hold up request threads nor steps
+        Thread.ofVirtual().name("performance-stream-" + uuid).start(() -> pushRows(stream, offset, emitter, closed));
+        return emitter;
+    }
+
+    private void pushRows(TeamPerformanceStream stream, long offset, SseEmitter emitter, AtomicBoolean closed) {
+        try {
+            while (!closed.get()) {
+                TeamPerformanceStream.Rows rows = stream.await(offset, STREAM_BATCH_ROWS, STREAM_POLL_MILLIS);
+                if (rows.missed() > 0) {
+                    emitter.send(SseEmitter.event().name("missed").data(rows.missed()));
+                }
+                long rowOffset = rows.nextOffset() - rows.rows().size();
+                for (PerformanceRow row : rows.rows()) {
+                    emitter.send(SseEmitter.event().name("performance").id(Long.toString(rowOffset++)).data(row, MediaType.APPLICATION_JSON));
+                }
+                offset = rows.nextOffset();
+                if (rows.exitStatus() != null) {
+                    emitter.send(SseEmitter.event().name("end").data(rows.exitStatus()));
+                    emitter.complete();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Client is gone, emitter is completed by the container
+            log.debug("Performance stream client disconnected: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } catch (RuntimeException e) {
+            emitter.completeWithError(e);
+        }
     }
 
-    private void launchJobAsynchronously(int scoreRank, String uuid) throws Exception{
-       jobLauncher.run(teamPerformanceJob, new JobParametersBuilder()
-               .addLong(CommonConstants.SCORE_RANK_PARAM, (long) scoreRank)
-               .addString(CommonConstants.UUID_PARAM, uuid)
-               .toJobParameters());
+    private void addChunkSize(JobParametersBuilder jobParametersBuilder, String name, Integer chunkSize) {
+        if (chunkSize == null) {
+            return;
+        }
+        if (chunkSize < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, name + " must be positive, but was " + chunkSize);
+        }
+        jobParametersBuilder.addLong(name, (long) chunkSize);
     }
 
 }
@@ -0,0 +1,9 @@
+package spring.batch.teamPerformanceJob.domain;
+
+// Team average scores for several ranks at once; only ranks which are scored by every player of the team are listed
+public record MultiRankAverageScoredTeam(
+        String name,
+        int[] ranks,
+        double[] averageScores
+) {
+}
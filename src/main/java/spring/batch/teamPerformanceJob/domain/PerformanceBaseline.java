@@ -0,0 +1,9 @@
+package spring.batch.teamPerformanceJob.domain;
+
+// Score which team performance is calculated against, e.g. the best player's score (named "max")
+public record PerformanceBaseline(
+        String name,
+        double score,
+        String player
+) {
+}
@@ -0,0 +1,7 @@
+package spring.batch.teamPerformanceJob.domain;
+
+public record RankedAverageScoredTeam(
+        int rank,
+        AverageScoredTeam team
+) {
+}
@@ -0,0 +1,71 @@
+package spring.batch.teamPerformanceJob.domain;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * Set of score ranks requested for a single job run: either "all" ranks found in the input,
+ * or explicit list of ranks and rank ranges, e.g. "0,2,5-9"
+ */
+public class ScoreRanks {
+
+    public static final String ALL = "all";
+
+    // Sorted distinct ranks, null means all ranks
+    private final int[] ranks;
+
+    private ScoreRanks(int[] ranks) {
+        this.ranks = ranks;
+    }
+
+    public static ScoreRanks parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Score ranks must be specified");
+        }
+        if (ALL.equalsIgnoreCase(value.trim())) {
+            return new ScoreRanks(null);
+        }
+        TreeSet<Integer> ranks = new TreeSet<>();
+        for (String part : value.split(",")) {
+            // Empty bounds are kept, so "1-" is not taken for "1"
+            String[] bounds = part.trim().split("-", -1);
+            if (bounds.length > 2) {
+                throw new IllegalArgumentException("Invalid score rank range " + part);
+            }
+            int from = parseRank(bounds[0]);
+            int to = bounds.length == 2 ? parseRank(bounds[1]) : from;
+            if (to < from) {
+                throw new IllegalArgumentException("Invalid score rank range " + part);
+            }
+            for (int rank = from; rank <= to; rank++) {
+                ranks.add(rank);
+            }
+        }
+        return new ScoreRanks(ranks.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static int parseRank(String value) {
+        int rank = Integer.parseInt(value.trim());
+        if (rank < 0) {
+            throw new IllegalArgumentException("Score rank can not be negative: " + rank);
+        }
+        return rank;
+    }
+
+    public boolean isAll() {
+        return ranks == null;
+    }
+
+    // Explicitly requested ranks (sorted), not applicable for all ranks
+    public int[] getRanks() {
+        if (ranks == null) {
+            throw new IllegalStateException("All score ranks are requested, there is no explicit list of ranks");
+        }
+        return ranks.clone();
+    }
+
+    @Override
+    public String toString() {
+        return ranks == null ? ALL : Arrays.toString(ranks);
+    }
+}
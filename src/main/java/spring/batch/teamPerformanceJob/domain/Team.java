@@ -1,45 +1,189 @@
 package spring.batch.teamPerformanceJob.domain;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
-// Entity representing single team for team performance job; has name and list of players, each has list of scores
+// Entity representing single team for team performance job; has name and list of players, each has list of scores.
+// Scores of all players are kept in a single primitive column, player's scores are a contiguous slice of it,
+// so any score is accessible by (player, rank) in O(1) without boxing
 public class Team {
 
+    private static final int INITIAL_PLAYER_CAPACITY = 8;
+    private static final int INITIAL_SCORE_CAPACITY = 64;
+    private static final int INITIAL_PLAYER_SCORE_CAPACITY = 8;
+
     private final String name;
-    private final List<ScoredPlayer> scoredPlayers;
+    private String[] playerNames;
+    // Start of player's scores in score column; start of the next player (or score count) is the end
+    private int[] scoreStarts;
+    private double[] scores;
+    private int playerCount;
+    private int scoreCount;
+    // Position of the team in the input (set by the reader), ties between players are resolved in input order
+    private long sequence;
+    // Division the team plays in, i.e. name of the division file (set by the reader)
+    private String division;
 
     public Team(String name) {
         this.name = name;
-        this.scoredPlayers = new LinkedList<>();
+        this.playerNames = new String[INITIAL_PLAYER_CAPACITY];
+        this.scoreStarts = new int[INITIAL_PLAYER_CAPACITY];
+        this.scores = new double[INITIAL_SCORE_CAPACITY];
     }
 
     public String getName() {
         return name;
     }
 
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getDivision() {
+        return division;
+    }
+
+    public void setDivision(String division) {
+        this.division = division;
+    }
+
+    // Starts a new player, scores added afterwards belong to that player
+    public void addScoredPlayer(String playerName) {
+        if (playerCount == playerNames.length) {
+            playerNames = Arrays.copyOf(playerNames, playerCount * 2);
+            scoreStarts = Arrays.copyOf(scoreStarts, playerCount * 2);
+        }
+        playerNames[playerCount] = playerName;
+        scoreStarts[playerCount] = scoreCount;
+        playerCount++;
+    }
+
+    // Adds a score to the last added player
+    public void addScore(double score) {
+        if (playerCount == 0) {
+            throw new IllegalStateException("Score can not be added to team " + name + " without players");
+        }
+        if (scoreCount == scores.length) {
+            scores = Arrays.copyOf(scores, scoreCount * 2);
+        }
+        scores[scoreCount++] = score;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public String getPlayerName(int player) {
+        return playerNames[Objects.checkIndex(player, playerCount)];
+    }
+
+    public int getScoreCount(int player) {
+        Objects.checkIndex(player, playerCount);
+        return scoreEnd(player) - scoreStarts[player];
+    }
+
+    // Player's score by rank, IndexOutOfBoundsException if player has less scores than rank requires
+    public double getScore(int player, int rank) {
+        return scores[scoreStarts[player] + Objects.checkIndex(rank, getScoreCount(player))];
+    }
+
+    /**
+     * Compatibility view of the players: players are created on access and read scores from the team's score column.
+     * Adding a (detached) player copies its name and scores into the team
+     */
     public List<ScoredPlayer> getScoredPlayers() {
-        return scoredPlayers;
+        return new AbstractList<>() {
+            @Override
+            public ScoredPlayer get(int index) {
+                Objects.checkIndex(index, playerCount);
+                return new ScoredPlayer(playerNames[index], scores, scoreStarts[index], scoreEnd(index) - scoreStarts[index], false);
+            }
+
+            @Override
+            public int size() {
+                return playerCount;
+            }
+
+            @Override
+            public void add(int index, ScoredPlayer scoredPlayer) {
+                if (index != playerCount) {
+                    throw new UnsupportedOperationException("Players can only be appended to the team");
+                }
+                addScoredPlayer(scoredPlayer.getName());
+                for (int rank = 0; rank < scoredPlayer.scoreCount; rank++) {
+                    addScore(scoredPlayer.getScore(rank));
+                }
+                modCount++;
+            }
+        };
     }
 
-    // Auxiliary entity representing player with the list of scores
+    private int scoreEnd(int player) {
+        return player + 1 < playerCount ? scoreStarts[player + 1] : scoreCount;
+    }
+
+    // Auxiliary entity representing player with the list of scores: either a view of team's player
+    // or a detached player (created by constructor) which owns its scores until it's added to a team
     public static class ScoredPlayer {
 
         private final String name;
         // Technically scores could be in any order, but according to file format, will be in descending order
-        private final List<Double> scores;
+        private double[] scores;
+        private final int offset;
+        private int scoreCount;
+        private final boolean detached;
 
         public ScoredPlayer(String name) {
+            this(name, new double[INITIAL_PLAYER_SCORE_CAPACITY], 0, 0, true);
+        }
+
+        private ScoredPlayer(String name, double[] scores, int offset, int scoreCount, boolean detached) {
             this.name = name;
-            this.scores = new LinkedList<>();
+            this.scores = scores;
+            this.offset = offset;
+            this.scoreCount = scoreCount;
+            this.detached = detached;
         }
 
         public String getName() {
             return name;
         }
 
+        public double getScore(int rank) {
+            return scores[offset + Objects.checkIndex(rank, scoreCount)];
+        }
+
+        // Boxed view of the scores, kept for compatibility; only detached player accepts new scores
         public List<Double> getScores() {
-            return scores;
+            return new AbstractList<>() {
+                @Override
+                public Double get(int index) {
+                    return getScore(index);
+                }
+
+                @Override
+                public int size() {
+                    return scoreCount;
+                }
+
+                @Override
+                public void add(int index, Double score) {
+                    if (!detached || index != scoreCount) {
+                        throw new UnsupportedOperationException("Scores can only be appended to a detached player");
+                    }
+                    if (scoreCount == scores.length) {
+                        scores = Arrays.copyOf(scores, scoreCount * 2);
+                    }
+                    scores[scoreCount++] = score;
+                    modCount++;
+                }
+            };
         }
     }
 }
@@ -1,7 +1,26 @@
 package spring.batch.teamPerformanceJob.domain;
 
+// Performance is a percentage multiplied by 100 (2 decimals), formatted as e.g. "80.00%"
 public record TeamPerformance(
         String name,
-        String performance
+        long scaledPerformance
 ) {
+
+    public String performance() {
+        return appendPerformance(new StringBuilder(24)).toString();
+    }
+
+    // Appends formatted performance without intermediate strings
+    public StringBuilder appendPerformance(StringBuilder builder) {
+        long absolute = Math.abs(scaledPerformance);
+        if (scaledPerformance < 0) {
+            builder.append('-');
+        }
+        long fraction = absolute % 100;
+        return builder.append(absolute / 100)
+                .append('.')
+                .append((char) ('0' + fraction / 10))
+                .append((char) ('0' + fraction % 10))
+                .append('%');
+    }
 }
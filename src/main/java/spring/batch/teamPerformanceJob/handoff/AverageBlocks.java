@@ -0,0 +1,114 @@
+package spring.batch.teamPerformanceJob.handoff;
+
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Binary format of team averages: a sequence of blocks, one block per written chunk.
+ * Block is "version (byte), count (int), names length (int)", followed by the names section (every name is
+ * a varint length prefixed UTF-8 string) and the scores section (raw big-endian doubles, in the order of names).
+ * Blocks carry no file header, so partition outputs are merged by plain concatenation
+ */
+final class AverageBlocks {
+
+    static final byte VERSION = 1;
+    // Version, count and names length
+    static final int HEADER_BYTES = 1 + Integer.BYTES + Integer.BYTES;
+
+    private AverageBlocks() {
+    }
+
+    static ByteBuffer encode(List<? extends AverageScoredTeam> teams) {
+        byte[][] names = new byte[teams.size()][];
+        int namesLength = 0;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = teams.get(i).name().getBytes(StandardCharsets.UTF_8);
+            namesLength += varintBytes(names[i].length) + names[i].length;
+        }
+        ByteBuffer block = ByteBuffer.allocate(HEADER_BYTES + namesLength + names.length * Double.BYTES);
+        block.put(VERSION).putInt(names.length).putInt(namesLength);
+        for (byte[] name : names) {
+            putVarint(block, name.length);
+            block.put(name);
+        }
+        for (AverageScoredTeam team : teams) {
+            block.putDouble(team.averageScore());
+        }
+        return block.flip();
+    }
+
+    /**
+     * Reads the next block, or returns null at the end of the input
+     */
+    static Block read(DataInputStream input) throws IOException {
+        int version = input.read();
+        if (version < 0) {
+            return null;
+        }
+        if (version != VERSION) {
+            throw new IOException("Unsupported average block version " + version);
+        }
+        int count = input.readInt();
+        int namesLength = input.readInt();
+        byte[] body = new byte[namesLength + count * Double.BYTES];
+        try {
+            input.readFully(body);
+        } catch (EOFException e) {
+            throw new IOException("Average block of " + count + " teams is truncated", e);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            int length = getVarint(buffer);
+            names[i] = new String(body, buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        }
+        double[] scores = new double[count];
+        buffer.asDoubleBuffer().get(scores);
+        return new Block(names, scores, HEADER_BYTES + body.length);
+    }
+
+    record Block(String[] names, double[] scores, int bytes) {
+
+        int size() {
+            return names.length;
+        }
+
+        AverageScoredTeam get(int index) {
+            return new AverageScoredTeam(names[index], scores[index]);
+        }
+    }
+
+    private static int varintBytes(int value) {
+        int bytes = 1;
+        while ((value >>>= 7) != 0) {
+            bytes++;
+        }
+        return bytes;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
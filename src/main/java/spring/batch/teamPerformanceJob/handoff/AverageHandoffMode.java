@@ -0,0 +1,11 @@
+package spring.batch.teamPerformanceJob.handoff;
+
+// How team averages are handed over from average step to ratio steps
+public enum AverageHandoffMode {
+    // Ratio steps read average output file
+    FILE,
+    // Ratio steps read columnar buffer filled by average step (average output file is optional)
+    MEMORY,
+    // Ratio steps read binary average file, names and raw doubles written by average step (average output file is optional)
+    BINARY
+}
@@ -0,0 +1,160 @@
+package spring.batch.teamPerformanceJob.handoff;
+
+import lombok.RequiredArgsConstructor;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Columnar buffer of team averages handed over from average step to ratio steps without text formatting and parsing.
+ * Averages are kept in segments (one per partition, single one otherwise) which are read back in segment order.
+ * Every segment keeps up to spill threshold teams in memory, the rest is spilled to a binary file.
+ * Every segment is appended by a single thread, and read (by any number of cursors) only after it is sealed
+ */
+@RequiredArgsConstructor
+public class AverageScoredTeamBuffer {
+
+    private final int spillThreshold;
+    private final Path spillDirectory;
+
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // Creates empty segment with given index, replacing (and releasing) the segment written before
+    public Segment newSegment(int index) {
+        Segment previous = segments.put(index, new Segment(index));
+        if (previous != null) {
+            previous.release();
+        }
+        return segments.get(index);
+    }
+
+    public long size() {
+        return segments.values().stream().mapToLong(Segment::size).sum();
+    }
+
+    public Cursor cursor() {
+        return new Cursor(segments.values().iterator());
+    }
+
+    public void release() {
+        segments.values().forEach(Segment::release);
+        segments.clear();
+    }
+
+    public class Segment {
+
+        private final int index;
+        private String[] names = new String[64];
+        private double[] scores = new double[64];
+        private int inMemory;
+
+        private Path spillFile;
+        private DataOutputStream spillOutput;
+        private long spilled;
+
+        private Segment(int index) {
+            this.index = index;
+        }
+
+        public void append(AverageScoredTeam team) throws IOException {
+            if (inMemory < spillThreshold) {
+                if (inMemory == names.length) {
+                    int capacity = (int) Math.min((long) names.length * 2, Integer.MAX_VALUE - 8);
+                    names = Arrays.copyOf(names, capacity);
+                    scores = Arrays.copyOf(scores, capacity);
+                }
+                names[inMemory] = team.name();
+                scores[inMemory] = team.averageScore();
+                inMemory++;
+                return;
+            }
+            if (spillOutput == null) {
+                spillFile = Files.createTempFile(spillDirectory, "avg-segment" + index + "-", ".bin");
+                spillOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile)));
+            }
+            spillOutput.writeUTF(team.name());
+            spillOutput.writeDouble(team.averageScore());
+            spilled++;
+        }
+
+        // Flushes spilled teams, so segment can be read
+        public void seal() throws IOException {
+            if (spillOutput != null) {
+                spillOutput.close();
+                spillOutput = null;
+            }
+        }
+
+        public long size() {
+            return inMemory + spilled;
+        }
+
+        private void release() {
+            try {
+                seal();
+                if (spillFile != null) {
+                    Files.deleteIfExists(spillFile);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Spill file can not be released: " + spillFile, e);
+            }
+            names = null;
+            scores = null;
+        }
+    }
+
+    // Reads all segments in index order, every reader has its own cursor
+    public class Cursor implements Closeable {
+
+        private final Iterator<Segment> segmentIterator;
+        private Segment segment;
+        private int position;
+        private DataInputStream spillInput;
+        private long spillPosition;
+
+        private Cursor(Iterator<Segment> segmentIterator) {
+            this.segmentIterator = segmentIterator;
+        }
+
+        // Returns next team, or null when all segments are read
+        public AverageScoredTeam next() throws IOException {
+            while (true) {
+                if (segment != null) {
+                    if (position < segment.inMemory) {
+                        AverageScoredTeam team = new AverageScoredTeam(segment.names[position], segment.scores[position]);
+                        position++;
+                        return team;
+                    }
+                    if (spillPosition < segment.spilled) {
+                        if (spillInput == null) {
+                            spillInput = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.spillFile)));
+                        }
+                        spillPosition++;
+                        return new AverageScoredTeam(spillInput.readUTF(), spillInput.readDouble());
+                    }
+                    close();
+                }
+                if (!segmentIterator.hasNext()) {
+                    return null;
+                }
+                segment = segmentIterator.next();
+                position = 0;
+                spillPosition = 0;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (spillInput != null) {
+                spillInput.close();
+                spillInput = null;
+            }
+            segment = null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package spring.batch.teamPerformanceJob.handoff;
+
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+
+// Reader of team averages buffered by average step of the same job execution, restarts from the saved item count
+public class AverageScoredTeamBufferReader extends AbstractItemCountingItemStreamItemReader<AverageScoredTeam> {
+
+    private final AverageScoredTeamBuffers buffers;
+    private final long jobExecutionId;
+
+    private AverageScoredTeamBuffer.Cursor cursor;
+
+    public AverageScoredTeamBufferReader(AverageScoredTeamBuffers buffers, long jobExecutionId) {
+        this.buffers = buffers;
+        this.jobExecutionId = jobExecutionId;
+        setName("averageScoredTeamBufferReader");
+    }
+
+    @Override
+    protected void doOpen() {
+        cursor = buffers.get(jobExecutionId).cursor();
+    }
+
+    @Override
+    protected AverageScoredTeam doRead() throws Exception {
+        return cursor.next();
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (cursor != null) {
+            cursor.close();
+            cursor = null;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package spring.batch.teamPerformanceJob.handoff;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writer appending team averages to the segment of job's average buffer.
+ * Buffer lives only as long as the job execution, so an interrupted step can not be resumed:
+ * average step is restarted from the beginning instead (see allowStartIfComplete of average steps).
+ * Teams of a chunk are appended when its transaction commits (like blocks of the binary writer), so a rolled back
+ * chunk leaves nothing behind to be appended again by its retry
+ */
+@RequiredArgsConstructor
+public class AverageScoredTeamBufferWriter implements ItemStreamWriter<AverageScoredTeam> {
+
+    private static final String WRITTEN_KEY = "averageScoredTeamBufferWriter.written";
+
+    private final AverageScoredTeamBuffers buffers;
+    private final long jobExecutionId;
+    private final int segmentIndex;
+
+    private AverageScoredTeamBuffer.Segment segment;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        if (executionContext.getLong(WRITTEN_KEY, 0) > 0) {
+            throw new ItemStreamException("Buffered averages are lost, step with in-memory average handoff can not be resumed");
+        }
+        segment = buffers.getOrCreate(jobExecutionId).newSegment(segmentIndex);
+    }
+
+    @Override
+    public void write(Chunk<? extends AverageScoredTeam> chunk) throws Exception {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(chunk.getItems());
+            return;
+        }
+        pendingTeams().addAll(chunk.getItems());
+    }
+
+    // Teams of the current transaction, every thread of a multi-threaded step has its own
+    @SuppressWarnings("unchecked")
+    private List<AverageScoredTeam> pendingTeams() {
+        List<AverageScoredTeam> pendingTeams = (List<AverageScoredTeam>) TransactionSynchronizationManager.getResource(this);
+        if (pendingTeams == null) {
+            List<AverageScoredTeam> teams = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, teams);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    try {
+                        append(teams);
+                    } catch (IOException e) {
+                        throw new ItemStreamException("Averages can not be buffered", e);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(AverageScoredTeamBufferWriter.this);
+                }
+            });
+            pendingTeams = teams;
+        }
+        return pendingTeams;
+    }
+
+    private void append(List<? extends AverageScoredTeam> teams) throws IOException {
+        synchronized (this) {
+            for (AverageScoredTeam team : teams) {
+                segment.append(team);
+            }
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        @SuppressWarnings("unchecked")
+        List<AverageScoredTeam> pendingTeams = (List<AverageScoredTeam>) TransactionSynchronizationManager.getResource(this);
+        // Update is a part of the chunk transaction, so the teams of the chunk are counted in
+        executionContext.putLong(WRITTEN_KEY, segment.size() + (pendingTeams == null ? 0 : pendingTeams.size()));
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        try {
+            segment.seal();
+        } catch (IOException e) {
+            throw new ItemStreamException("Buffered averages can not be spilled", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package spring.batch.teamPerformanceJob.handoff;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Average buffers of running jobs (by job execution id), so concurrently running jobs don't share averages.
+ * Registered as job listener to release the buffer (and its spill files) when the job is finished
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class AverageScoredTeamBuffers implements JobExecutionListener {
+
+    private final int spillThreshold;
+    private final Path spillDirectory;
+
+    private final Map<Long, AverageScoredTeamBuffer> buffers = new ConcurrentHashMap<>();
+
+    public AverageScoredTeamBuffer getOrCreate(long jobExecutionId) {
+        return buffers.computeIfAbsent(jobExecutionId, id -> new AverageScoredTeamBuffer(spillThreshold, spillDirectory));
+    }
+
+    public AverageScoredTeamBuffer get(long jobExecutionId) {
+        AverageScoredTeamBuffer buffer = buffers.get(jobExecutionId);
+        if (buffer == null) {
+            throw new IllegalStateException("No averages were buffered by job execution " + jobExecutionId);
+        }
+        return buffer;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        AverageScoredTeamBuffer buffer = buffers.remove(jobExecution.getId());
+        if (buffer != null) {
+            log.debug("Releasing {} buffered averages of job execution {}", buffer.size(), jobExecution.getId());
+            buffer.release();
+        }
+    }
+}
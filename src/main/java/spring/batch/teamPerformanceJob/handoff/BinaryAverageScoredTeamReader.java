@@ -0,0 +1,88 @@
+package spring.batch.teamPerformanceJob.handoff;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.core.io.Resource;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader of team averages in the binary block format (see {@link AverageBlocks}), read sequentially through a buffer.
+ * Restart state is the offset of the current block and the count of its teams already read,
+ * so a restarted step seeks right to its block instead of re-reading the file
+ */
+public class BinaryAverageScoredTeamReader extends ItemStreamSupport implements ItemStreamReader<AverageScoredTeam> {
+
+    private static final String BLOCK_OFFSET_KEY = "block.offset";
+    private static final String BLOCK_READ_KEY = "block.read";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Resource resource;
+
+    private FileChannel channel;
+    private DataInputStream input;
+    private AverageBlocks.Block block;
+    private long blockOffset;
+    private int blockRead;
+
+    public BinaryAverageScoredTeamReader(String name, Resource resource) {
+        this.resource = resource;
+        setName(name);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        blockOffset = executionContext.getLong(getExecutionContextKey(BLOCK_OFFSET_KEY), 0);
+        int restartRead = executionContext.getInt(getExecutionContextKey(BLOCK_READ_KEY), 0);
+        try {
+            channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+            channel.position(blockOffset);
+            input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+            block = AverageBlocks.read(input);
+            blockRead = block == null ? 0 : Math.min(restartRead, block.size());
+        } catch (IOException e) {
+            throw new ItemStreamException("Average file " + resource + " can not be opened", e);
+        }
+    }
+
+    @Override
+    public AverageScoredTeam read() throws Exception {
+        while (block != null && blockRead == block.size()) {
+            blockOffset += block.bytes();
+            blockRead = 0;
+            block = AverageBlocks.read(input);
+        }
+        return block == null ? null : block.get(blockRead++);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(getExecutionContextKey(BLOCK_OFFSET_KEY), blockOffset);
+        executionContext.putInt(getExecutionContextKey(BLOCK_READ_KEY), blockRead);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            // Closes the channel as well
+            input.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Average file " + resource + " can not be closed", e);
+        } finally {
+            channel = null;
+            input = null;
+            block = null;
+        }
+    }
+}
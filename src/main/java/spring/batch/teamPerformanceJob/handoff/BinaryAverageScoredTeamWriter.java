@@ -0,0 +1,149 @@
+package spring.batch.teamPerformanceJob.handoff;
+
+import lombok.Setter;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.core.io.WritableResource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writer of team averages in the binary block format (see {@link AverageBlocks}), one block per chunk.
+ * Like a transactional flat file writer, blocks are appended to the file when the chunk transaction commits (before
+ * the commit, so a failed append rolls the chunk back and fails the step), and the saved offset (appended plus
+ * pending bytes) is where a restarted step truncates the file and continues
+ */
+public class BinaryAverageScoredTeamWriter extends ItemStreamSupport implements ItemStreamWriter<AverageScoredTeam> {
+
+    private static final String OFFSET_KEY = "offset";
+
+    private final WritableResource resource;
+
+    // Offset is not saved when the step has no state to restart from, the file is rewritten instead
+    @Setter
+    private boolean saveState = true;
+
+    private FileChannel channel;
+
+    public BinaryAverageScoredTeamWriter(String name, WritableResource resource) {
+        this.resource = resource;
+        setName(name);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        String offsetKey = getExecutionContextKey(OFFSET_KEY);
+        try {
+            Path path = resource.getFile().toPath();
+            Files.createDirectories(path.getParent());
+            if (saveState && executionContext.containsKey(offsetKey)) {
+                long offset = executionContext.getLong(offsetKey);
+                channel = FileChannel.open(path, StandardOpenOption.WRITE);
+                if (channel.size() < offset) {
+                    throw new ItemStreamException("Average file " + path + " is shorter (" + channel.size()
+                            + " bytes) than the restart offset " + offset);
+                }
+                // Blocks written after the last committed chunk are dropped
+                channel.truncate(offset);
+                channel.position(offset);
+            } else {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Average file " + resource + " can not be opened", e);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends AverageScoredTeam> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        ByteBuffer block = AverageBlocks.encode(chunk.getItems());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(List.of(block));
+            return;
+        }
+        pendingBlocks().add(block);
+    }
+
+    // Blocks of the current transaction, every thread of a multi-threaded step has its own
+    @SuppressWarnings("unchecked")
+    private List<ByteBuffer> pendingBlocks() {
+        List<ByteBuffer> pendingBlocks = (List<ByteBuffer>) TransactionSynchronizationManager.getResource(this);
+        if (pendingBlocks == null) {
+            List<ByteBuffer> blocks = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, blocks);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    try {
+                        append(blocks);
+                    } catch (IOException e) {
+                        throw new ItemStreamException("Averages can not be appended to " + resource, e);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(BinaryAverageScoredTeamWriter.this);
+                }
+            });
+            pendingBlocks = blocks;
+        }
+        return pendingBlocks;
+    }
+
+    private void append(List<ByteBuffer> blocks) throws IOException {
+        synchronized (this) {
+            for (ByteBuffer block : blocks) {
+                while (block.hasRemaining()) {
+                    channel.write(block);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (!saveState) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<ByteBuffer> pendingBlocks = (List<ByteBuffer>) TransactionSynchronizationManager.getResource(this);
+        long pendingBytes = pendingBlocks == null ? 0 : pendingBlocks.stream().mapToLong(ByteBuffer::remaining).sum();
+        try {
+            // Update is a part of the chunk transaction, so the blocks of the chunk are counted in
+            executionContext.putLong(getExecutionContextKey(OFFSET_KEY), channel.position() + pendingBytes);
+        } catch (IOException e) {
+            throw new ItemStreamException("Offset of average file " + resource + " can not be determined", e);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Average file " + resource + " can not be closed", e);
+        } finally {
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package spring.batch.teamPerformanceJob.launcher;
+
+// Threads running launched jobs and their split flows
+public enum LauncherThreadMode {
+    // Platform thread per job, split flows share a small pool
+    PLATFORM,
+    // Virtual thread per job and per split flow (jobs waiting for the running jobs limit don't hold OS threads)
+    VIRTUAL
+}
@@ -0,0 +1,56 @@
+package spring.batch.teamPerformanceJob.launcher;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Task executor limiting the number of simultaneously running tasks (jobs of the launcher): every task is
+ * submitted to the delegate at once, and waits in its own thread until one of the permits is free (in submission order).
+ * Meant for virtual thread delegate, where waiting tasks are cheap, so any number of jobs can be submitted,
+ * while only a limited number of them use database connections and CPU at a time
+ */
+@Slf4j
+public class RunningJobLimiter implements TaskExecutor {
+
+    private final TaskExecutor delegate;
+    private final Semaphore permits;
+
+    public RunningJobLimiter(TaskExecutor delegate, int maxRunningJobs) {
+        if (maxRunningJobs < 1) {
+            throw new IllegalArgumentException("Max running jobs must be positive, but was " + maxRunningJobs);
+        }
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxRunningJobs, true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                // Job execution is already created, so it is run anyway (above the limit) to be completed or failed
+                // in the job repository, and to release what it holds (submission slot, performance stream);
+                // interrupted job would fail to update the repository and be left STARTED forever
+                log.warn("Interrupted while waiting for a running job to finish, job is started above the limit");
+                try {
+                    task.run();
+                } finally {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    public int getWaitingJobCount() {
+        return permits.getQueueLength();
+    }
+}
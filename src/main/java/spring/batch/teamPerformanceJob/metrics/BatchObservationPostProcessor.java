@@ -0,0 +1,30 @@
+package spring.batch.teamPerformanceJob.metrics;
+
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.batch.core.job.AbstractJob;
+import org.springframework.batch.core.step.AbstractStep;
+import org.springframework.lang.NonNull;
+
+/**
+ * Hands the application observation registry to every job and step bean, so job and step executions are observed
+ * ("spring.batch.job" and "spring.batch.step" timers, and spans when a tracing bridge is on the classpath).
+ * Jobs and steps are left with the no-op registry when there is no registry bean (e.g. outside of the web app)
+ */
+@RequiredArgsConstructor
+public class BatchObservationPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (bean instanceof AbstractStep step) {
+            observationRegistry.ifUnique(step::setObservationRegistry);
+        } else if (bean instanceof AbstractJob job) {
+            observationRegistry.ifUnique(job::setObservationRegistry);
+        }
+        return bean;
+    }
+}
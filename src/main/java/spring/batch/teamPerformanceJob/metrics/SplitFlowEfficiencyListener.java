@@ -0,0 +1,58 @@
+package spring.batch.teamPerformanceJob.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+/**
+ * Records parallel efficiency of a split flow once the job is finished: time spent by its steps divided by
+ * the number of steps times the wall time of the split (first step start to last step end).
+ * Efficiency is 1 when the steps fully overlap, and 1 / number of steps when they run one after another
+ */
+public class SplitFlowEfficiencyListener implements JobExecutionListener {
+
+    private final Set<String> stepNames;
+    private final DistributionSummary efficiency;
+
+    SplitFlowEfficiencyListener(MeterRegistry meterRegistry, String splitName, Set<String> stepNames) {
+        this.stepNames = stepNames;
+        this.efficiency = DistributionSummary.builder(TeamPerformanceMetrics.SPLIT_EFFICIENCY)
+                .description("Parallel efficiency of split flow steps (1 for fully parallel steps)")
+                .tag("split", splitName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        List<StepExecution> stepExecutions = jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepNames.contains(stepExecution.getStepName()))
+                .filter(stepExecution -> stepExecution.getStartTime() != null && stepExecution.getEndTime() != null)
+                .toList();
+        // Split was skipped (cached results) or not finished
+        if (stepExecutions.size() != stepNames.size()) {
+            return;
+        }
+        efficiency(stepExecutions).ifPresent(efficiency::record);
+    }
+
+    static OptionalDouble efficiency(List<StepExecution> stepExecutions) {
+        LocalDateTime start = stepExecutions.stream().map(StepExecution::getStartTime).min(LocalDateTime::compareTo).orElseThrow();
+        LocalDateTime end = stepExecutions.stream().map(StepExecution::getEndTime).max(LocalDateTime::compareTo).orElseThrow();
+        long wallNanos = Duration.between(start, end).toNanos();
+        if (wallNanos <= 0) {
+            return OptionalDouble.empty();
+        }
+        long busyNanos = stepExecutions.stream()
+                .mapToLong(stepExecution -> Duration.between(stepExecution.getStartTime(), stepExecution.getEndTime()).toNanos())
+                .sum();
+        return OptionalDouble.of((double) busyNanos / ((double) wallNanos * stepExecutions.size()));
+    }
+}
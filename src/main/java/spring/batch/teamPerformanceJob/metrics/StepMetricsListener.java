@@ -0,0 +1,111 @@
+package spring.batch.teamPerformanceJob.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.lang.NonNull;
+import spring.batch.teamPerformanceJob.domain.Team;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of a chunk-oriented step, tagged by the step name: teams read (and players of the read teams),
+ * chunk latency from the chunk start until its commit or rollback, and skips by phase and exception type.
+ * Listener is shared by concurrent executions of the step (partitions, threads), every meter is thread-safe
+ */
+public class StepMetricsListener implements ItemReadListener<Object>, ChunkListener, SkipListener<Object, Object> {
+
+    private static final String CHUNK_START = "metrics.chunk.start";
+
+    private final MeterRegistry meterRegistry;
+    private final String stepName;
+    private final Counter teams;
+    private final Counter players;
+    private final Timer committedChunks;
+    private final Timer rolledBackChunks;
+
+    StepMetricsListener(MeterRegistry meterRegistry, String stepName) {
+        this.meterRegistry = meterRegistry;
+        this.stepName = stepName;
+        this.teams = Counter.builder(TeamPerformanceMetrics.TEAMS)
+                .description("Teams (or team averages) read by the step")
+                .tag(TeamPerformanceMetrics.STEP_TAG, stepName)
+                .register(meterRegistry);
+        this.players = Counter.builder(TeamPerformanceMetrics.PLAYERS)
+                .description("Players of the teams read by the step")
+                .tag(TeamPerformanceMetrics.STEP_TAG, stepName)
+                .register(meterRegistry);
+        this.committedChunks = chunkTimer("committed");
+        this.rolledBackChunks = chunkTimer("rolled_back");
+    }
+
+    private Timer chunkTimer(String outcome) {
+        return Timer.builder(TeamPerformanceMetrics.CHUNK_COMMIT)
+                .description("Latency of chunks from the chunk start until the transaction is completed")
+                .tag(TeamPerformanceMetrics.STEP_TAG, stepName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterRead(@NonNull Object item) {
+        teams.increment();
+        if (item instanceof Team team) {
+            players.increment(team.getPlayerCount());
+        }
+    }
+
+    // Start is kept by the chunk context, as chunks of a multi-threaded step run concurrently
+    @Override
+    public void beforeChunk(@NonNull ChunkContext context) {
+        context.setAttribute(CHUNK_START, System.nanoTime());
+    }
+
+    @Override
+    public void afterChunk(@NonNull ChunkContext context) {
+        record(context, committedChunks);
+    }
+
+    @Override
+    public void afterChunkError(@NonNull ChunkContext context) {
+        record(context, rolledBackChunks);
+    }
+
+    private static void record(ChunkContext context, Timer timer) {
+        if (context.getAttribute(CHUNK_START) instanceof Long start) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            context.removeAttribute(CHUNK_START);
+        }
+    }
+
+    @Override
+    public void onSkipInRead(@NonNull Throwable t) {
+        countSkip("read", t);
+    }
+
+    @Override
+    public void onSkipInProcess(@NonNull Object item, @NonNull Throwable t) {
+        countSkip("process", t);
+    }
+
+    @Override
+    public void onSkipInWrite(@NonNull Object item, @NonNull Throwable t) {
+        countSkip("write", t);
+    }
+
+    // Skips are rare, so the counter is looked up by its tags every time
+    private void countSkip(String phase, Throwable t) {
+        Counter.builder(TeamPerformanceMetrics.SKIPS)
+                .description("Items skipped by the step")
+                .tag(TeamPerformanceMetrics.STEP_TAG, stepName)
+                .tag("phase", phase)
+                .tag("exception", t.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,72 @@
+package spring.batch.teamPerformanceJob.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import spring.batch.teamPerformanceJob.launcher.RunningJobLimiter;
+import spring.batch.teamPerformanceJob.reader.DivisionReaderMode;
+import spring.batch.teamPerformanceJob.submission.JobSubmissionService;
+
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Factory of team performance meters (in addition to Spring Batch job, step, chunk and item meters):
+ * per-step listeners, reader bytes, split flow efficiency, and gauges of submitted and waiting jobs
+ */
+@RequiredArgsConstructor
+public class TeamPerformanceMetrics {
+
+    static final String TEAMS = "team.performance.teams";
+    static final String PLAYERS = "team.performance.players";
+    static final String CHUNK_COMMIT = "team.performance.chunk.commit";
+    static final String SKIPS = "team.performance.skips";
+    static final String SPLIT_EFFICIENCY = "team.performance.split.efficiency";
+    static final String READER_BYTES = "team.performance.reader.bytes";
+    static final String LAUNCHER_WAITING = "team.performance.launcher.waiting";
+    static final String SUBMISSIONS = "team.performance.submissions";
+    static final String STEP_TAG = "step";
+
+    private final MeterRegistry meterRegistry;
+
+    // Listener of a chunk-oriented step, to be registered as item read, chunk and (for fault-tolerant steps) skip listener
+    public StepMetricsListener stepListener(String stepName) {
+        return new StepMetricsListener(meterRegistry, stepName);
+    }
+
+    public SplitFlowEfficiencyListener splitFlowEfficiencyListener(String splitName, Set<String> stepNames) {
+        return new SplitFlowEfficiencyListener(meterRegistry, splitName, stepNames);
+    }
+
+    // Bytes read from division files by the readers of the mode (counter is shared by all readers)
+    public LongConsumer readerBytes(DivisionReaderMode readerMode) {
+        Counter counter = Counter.builder(READER_BYTES)
+                .description("Bytes of division files consumed by division readers")
+                .baseUnit("bytes")
+                .tag("reader", readerMode.name())
+                .register(meterRegistry);
+        return counter::increment;
+    }
+
+    // Jobs waiting for a free running slot of the job launcher executor (none without running jobs limit)
+    public void bindLauncher(TaskExecutor jobLauncherTaskExecutor) {
+        if (jobLauncherTaskExecutor instanceof RunningJobLimiter runningJobLimiter) {
+            Gauge.builder(LAUNCHER_WAITING, runningJobLimiter, RunningJobLimiter::getWaitingJobCount)
+                    .description("Launched jobs waiting for a running job to finish")
+                    .register(meterRegistry);
+        } else if (jobLauncherTaskExecutor instanceof ThreadPoolTaskExecutor threadPoolTaskExecutor) {
+            Gauge.builder(LAUNCHER_WAITING, threadPoolTaskExecutor, ThreadPoolTaskExecutor::getQueueSize)
+                    .description("Launched jobs waiting for a running job to finish")
+                    .register(meterRegistry);
+        }
+    }
+
+    public void bindSubmissions(JobSubmissionService jobSubmissionService) {
+        Gauge.builder(SUBMISSIONS, jobSubmissionService, JobSubmissionService::getSubmittedJobCount)
+                .description("Submitted jobs, waiting or running")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,85 @@
+package spring.batch.teamPerformanceJob.partition;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+import spring.batch.teamPerformanceJob.reader.DivisionCompression;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static spring.batch.teamPerformanceJob.CommonConstants.*;
+
+/**
+ * Partitioner creating one partition per division file, grid size is ignored.
+ * Division files bigger than max range size are additionally split into byte ranges aligned on team records,
+ * one partition per range (so a single huge file is processed by several workers), unless they are compressed.
+ * Partitions are indexed in the same order as {@link org.springframework.batch.item.file.MultiResourceItemReader}
+ * reads resources (by file name), so merged results are identical to sequential processing
+ */
+@RequiredArgsConstructor
+public class DivisionFilePartitioner implements Partitioner {
+
+    private final Resource[] divisionResources;
+    // Format of the partition output location, partition index is the only argument
+    private final String outputLocationFormat;
+    // Format of the partition binary output location, null when averages are not handed over in binary files
+    private final String binaryOutputLocationFormat;
+    // Files bigger than this are split into byte ranges, non-positive value disables splitting
+    private final long maxRangeBytes;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Resource[] sortedResources = Arrays.copyOf(divisionResources, divisionResources.length);
+        Arrays.sort(sortedResources, Comparator.comparing(Resource::getFilename));
+
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        for (Resource resource : sortedResources) {
+            if (shouldSplit(resource)) {
+                for (DivisionFileSplitter.ByteRange range : DivisionFileSplitter.split(resource, maxRangeBytes)) {
+                    ExecutionContext context = partitionContext(partitions.size(), resource);
+                    context.putLong(RANGE_START, range.start());
+                    context.putLong(RANGE_END, range.end());
+                    partitions.put("partition" + partitions.size(), context);
+                }
+            } else {
+                partitions.put("partition" + partitions.size(), partitionContext(partitions.size(), resource));
+            }
+        }
+        return partitions;
+    }
+
+    private ExecutionContext partitionContext(int index, Resource resource) {
+        ExecutionContext context = new ExecutionContext();
+        context.putInt(PARTITION_INDEX, index);
+        context.putString(PARTITION_RESOURCE, resourceUrl(resource));
+        context.putString(PARTITION_OUTPUT, outputLocationFormat.formatted(index));
+        if (binaryOutputLocationFormat != null) {
+            context.putString(PARTITION_BINARY_OUTPUT, binaryOutputLocationFormat.formatted(index));
+        }
+        return context;
+    }
+
+    private boolean shouldSplit(Resource resource) {
+        try {
+            // Compressed files can not be read from the middle, so they are never split
+            return maxRangeBytes > 0 && resource.isFile() && DivisionCompression.of(resource) == DivisionCompression.NONE
+                    && resource.contentLength() > maxRangeBytes;
+        } catch (IOException e) {
+            throw new ItemStreamException("Size of division resource " + resource + " can not be determined", e);
+        }
+    }
+
+    private static String resourceUrl(Resource resource) {
+        try {
+            return resource.getURL().toExternalForm();
+        } catch (IOException e) {
+            throw new ItemStreamException("Division resource " + resource + " can not be partitioned", e);
+        }
+    }
+}
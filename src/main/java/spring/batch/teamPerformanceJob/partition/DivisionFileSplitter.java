@@ -0,0 +1,101 @@
+package spring.batch.teamPerformanceJob.partition;
+
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a division file into byte ranges, every range starts at the first line of a team record
+ * (i.e. right after blank line(s) which {@link spring.batch.teamPerformanceJob.reader.DivisionFileReader}
+ * treats as the end of team), so ranges can be read independently of each other.
+ * Ranges end at the first blank line which does not end a team (a blank line at the start of file or after another
+ * blank line), as the sequential reader ends the file there and never reads the teams after it
+ */
+public class DivisionFileSplitter {
+
+    public record ByteRange(long start, long end) {
+    }
+
+    private DivisionFileSplitter() {
+    }
+
+    /**
+     * @param resource      division file, must be resolvable as a file
+     * @param maxRangeBytes approximate size of a single range
+     * @return ordered non-overlapping ranges covering the file up to the end of its teams
+     */
+    public static List<ByteRange> split(Resource resource, long maxRangeBytes) {
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            long size = teamsEnd(channel, channel.size());
+            List<ByteRange> ranges = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                long end = start + maxRangeBytes >= size ? size : nextRecordStart(channel, start + maxRangeBytes, size);
+                ranges.add(new ByteRange(start, end));
+                start = end;
+            }
+            return ranges;
+        } catch (IOException e) {
+            throw new ItemStreamException("Division resource " + resource + " can not be split into byte ranges", e);
+        }
+    }
+
+    // Position of the first blank line that starts the file or follows a blank line, the file size if there is none
+    private static long teamsEnd(FileChannel channel, long size) throws IOException {
+        InputStream input = new BufferedInputStream(Channels.newInputStream(channel.position(0)), 64 * 1024);
+        long position = 0;
+        long lineStart = 0;
+        boolean blankLine = true;
+        boolean afterBlankLine = true;
+        int b;
+        while ((b = input.read()) != -1) {
+            if (b == '\n') {
+                if (blankLine && afterBlankLine) {
+                    return lineStart;
+                }
+                afterBlankLine = blankLine;
+                blankLine = true;
+                lineStart = position + 1;
+            } else if (b > ' ') {
+                blankLine = false;
+            }
+            position++;
+        }
+        return size;
+    }
+
+    // Position of the first non-blank line that follows a blank line, searching from the given position
+    private static long nextRecordStart(FileChannel channel, long from, long size) throws IOException {
+        InputStream input = new BufferedInputStream(Channels.newInputStream(channel.position(from)), 64 * 1024);
+        long position = from;
+        long lineStart = from;
+        // Line containing split position is skipped, as it's not known where it starts
+        boolean firstLine = true;
+        boolean blankLine = true;
+        boolean afterBlankLine = false;
+        int b;
+        while (position < size && (b = input.read()) != -1) {
+            if (b == '\n') {
+                afterBlankLine = !firstLine && blankLine;
+                firstLine = false;
+                blankLine = true;
+                lineStart = position + 1;
+            } else if (b > ' ') { // Same as String.trim(): anything up to space is a whitespace
+                if (afterBlankLine) {
+                    return lineStart;
+                }
+                blankLine = false;
+            }
+            position++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,142 @@
+package spring.batch.teamPerformanceJob.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static spring.batch.teamPerformanceJob.CommonConstants.*;
+
+/**
+ * Store of partial aggregates of average step partitions: team averages of the partition (in input order)
+ * and its best/worst player (and team ranking, if gathered). Partial is stored under "slot/content" key, where slot is the score rank and the
+ * division file (byte range) of the partition, and content is the fingerprint of the division file,
+ * so a partial is reused only while its division file is unchanged. Only the latest partial of every slot is kept.
+ * Partial is written to a pending directory of the job instance (so a failed worker is resumed) and committed
+ * by renaming it when the worker is completed
+ */
+@Slf4j
+public class DivisionPartials {
+
+    private static final String AVERAGES_FILE = "averages.txt";
+    private static final String EXTREMES_FILE = "extremes.properties";
+    private static final String PENDING_SUFFIX = ".pending";
+
+    private final Path directory;
+
+    public DivisionPartials(Path directory) {
+        this.directory = directory;
+    }
+
+    public static String key(long scoreRank, String divisionLocation, long rangeStart, long rangeEnd, String divisionFingerprint) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((scoreRank + "\n" + divisionLocation + "\n" + rangeStart + "\n" + rangeEnd).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest()) + "/" + divisionFingerprint;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    public boolean contains(String key) {
+        return Files.isRegularFile(directory.resolve(key).resolve(EXTREMES_FILE));
+    }
+
+    public Path averagesFile(String key) {
+        return directory.resolve(key).resolve(AVERAGES_FILE);
+    }
+
+    // Averages file written by the worker calculating the partial (the same for every execution of the job instance)
+    public Path pendingAveragesFile(String key, long jobInstanceId) {
+        return pendingDirectory(key, jobInstanceId).resolve(AVERAGES_FILE);
+    }
+
+    // Best/worst player of the partial are put into the partition context, as if the worker calculated them
+    public void restoreExtremes(String key, ExecutionContext partitionContext) {
+        Properties extremes = new Properties();
+        try (InputStream inputStream = Files.newInputStream(directory.resolve(key).resolve(EXTREMES_FILE))) {
+            extremes.load(inputStream);
+        } catch (IOException e) {
+            throw new ItemStreamException("Partial " + key + " can not be read", e);
+        }
+        if (extremes.containsKey(MAX_SCORE)) {
+            partitionContext.putDouble(MAX_SCORE, Double.parseDouble(extremes.getProperty(MAX_SCORE)));
+            partitionContext.putString(MAX_PLAYER, extremes.getProperty(MAX_PLAYER));
+        }
+        if (extremes.containsKey(MIN_SCORE)) {
+            partitionContext.putDouble(MIN_SCORE, Double.parseDouble(extremes.getProperty(MIN_SCORE)));
+            partitionContext.putString(MIN_PLAYER, extremes.getProperty(MIN_PLAYER));
+        }
+        if (extremes.containsKey(TEAM_RANKING)) {
+            partitionContext.putString(TEAM_RANKING, extremes.getProperty(TEAM_RANKING));
+        }
+    }
+
+    // Commits averages written by the completed worker, together with best/worst player of its partition context
+    public void commit(String key, long jobInstanceId, ExecutionContext partitionContext) {
+        Path pending = pendingDirectory(key, jobInstanceId);
+        Path partial = directory.resolve(key);
+        Properties extremes = new Properties();
+        if (partitionContext.containsKey(MAX_SCORE)) {
+            extremes.setProperty(MAX_SCORE, String.valueOf(partitionContext.getDouble(MAX_SCORE)));
+            extremes.setProperty(MAX_PLAYER, partitionContext.getString(MAX_PLAYER));
+        }
+        if (partitionContext.containsKey(MIN_SCORE)) {
+            extremes.setProperty(MIN_SCORE, String.valueOf(partitionContext.getDouble(MIN_SCORE)));
+            extremes.setProperty(MIN_PLAYER, partitionContext.getString(MIN_PLAYER));
+        }
+        if (partitionContext.containsKey(TEAM_RANKING)) {
+            extremes.setProperty(TEAM_RANKING, partitionContext.getString(TEAM_RANKING));
+        }
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(pending.resolve(EXTREMES_FILE))) {
+                extremes.store(outputStream, null);
+            }
+            if (Files.exists(partial)) {
+                // Same partial was committed by a concurrent job
+                deleteRecursively(pending);
+            } else {
+                Files.move(pending, partial, StandardCopyOption.ATOMIC_MOVE);
+            }
+            // Partials of previous contents of the division file won't be used anymore
+            try (Stream<Path> slotEntries = Files.list(partial.getParent())) {
+                slotEntries.filter(entry -> !entry.equals(partial) && !entry.getFileName().toString().endsWith(PENDING_SUFFIX))
+                        .forEach(DivisionPartials::deleteRecursively);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Partial " + key + " can not be committed", e);
+        }
+        log.debug("Partial {} is committed", key);
+    }
+
+    private Path pendingDirectory(String key, long jobInstanceId) {
+        Path pending = directory.resolve(key + "." + jobInstanceId + PENDING_SUFFIX);
+        try {
+            Files.createDirectories(pending);
+        } catch (IOException e) {
+            throw new ItemStreamException("Partial directory " + pending + " can not be created", e);
+        }
+        return pending;
+    }
+
+    private static void deleteRecursively(Path path) {
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Can not delete {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package spring.batch.teamPerformanceJob.partition;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import spring.batch.teamPerformanceJob.submission.InputFingerprint;
+
+import static spring.batch.teamPerformanceJob.CommonConstants.*;
+
+/**
+ * Worker step of incremental average calculation: partition of unchanged division file is not parsed again,
+ * averages and best/worst player are restored from its partial instead (by the restoring step), while partition of
+ * a new or changed division file is calculated (by the calculating step, which also stores the partial).
+ * Either way the partition ends with the same output and context, so partitions are merged just as in full calculation
+ */
+@RequiredArgsConstructor
+public class IncrementalAverageWorkerStep implements Step {
+
+    private static final ResourceLoader RESOURCE_LOADER = new DefaultResourceLoader();
+
+    private final Step calculatingStep;
+    private final Step restoringStep;
+    private final DivisionPartials divisionPartials;
+    private final InputFingerprint inputFingerprint;
+
+    @Override
+    public String getName() {
+        return calculatingStep.getName();
+    }
+
+    @Override
+    public boolean isAllowStartIfComplete() {
+        return calculatingStep.isAllowStartIfComplete();
+    }
+
+    @Override
+    public int getStartLimit() {
+        return calculatingStep.getStartLimit();
+    }
+
+    @Override
+    public void execute(StepExecution stepExecution) throws JobInterruptedException {
+        ExecutionContext partitionContext = stepExecution.getExecutionContext();
+        String divisionLocation = partitionContext.getString(PARTITION_RESOURCE);
+        String key = DivisionPartials.key(
+                stepExecution.getJobParameters().getLong(SCORE_RANK_PARAM),
+                divisionLocation,
+                partitionContext.getLong(RANGE_START, 0),
+                partitionContext.getLong(RANGE_END, Long.MAX_VALUE),
+                inputFingerprint.fingerprint(RESOURCE_LOADER.getResource(divisionLocation)));
+        partitionContext.putString(PARTIAL_KEY, key);
+        if (divisionPartials.contains(key)) {
+            restoringStep.execute(stepExecution);
+        } else {
+            calculatingStep.execute(stepExecution);
+        }
+    }
+}
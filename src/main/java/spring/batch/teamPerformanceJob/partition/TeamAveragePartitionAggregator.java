@@ -0,0 +1,136 @@
+package spring.batch.teamPerformanceJob.partition;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.DefaultStepExecutionAggregator;
+import org.springframework.batch.core.partition.support.StepExecutionAggregator;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.WritableResource;
+import spring.batch.teamPerformanceJob.ranking.TeamRanking;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import static spring.batch.teamPerformanceJob.CommonConstants.*;
+
+/**
+ * Aggregator for partitioned average step. Besides default counters aggregation:
+ * - merges max/min player of every partition into the manager step execution context
+ * - merges team ranking of every partition (if gathered) into the manager step execution context
+ * - concatenates partition outputs into the single average output (and removes partition outputs)
+ * Both are done in partition order, so the first best/worst player wins exactly as in sequential processing.
+ * Merged output resource is null when partitions don't write outputs (averages are handed over in memory),
+ * merged binary output resource is null unless averages are handed over in binary files
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TeamAveragePartitionAggregator implements StepExecutionAggregator {
+
+    private final StepExecutionAggregator delegate = new DefaultStepExecutionAggregator();
+    private final WritableResource mergedOutputResource;
+    private final WritableResource mergedBinaryOutputResource;
+
+    @Override
+    public void aggregate(StepExecution result, Collection<StepExecution> executions) {
+        delegate.aggregate(result, executions);
+
+        List<StepExecution> orderedExecutions = executions.stream()
+                .sorted(Comparator.comparingInt(execution -> execution.getExecutionContext().getInt(PARTITION_INDEX)))
+                .toList();
+        mergeExtremes(result.getExecutionContext(), orderedExecutions);
+        mergeRankings(result.getExecutionContext(), orderedExecutions);
+
+        // Outputs of failed partitions are kept for restart, nothing is merged until every partition is completed
+        if (orderedExecutions.stream().allMatch(execution -> execution.getStatus() == BatchStatus.COMPLETED)) {
+            if (mergedOutputResource != null) {
+                mergeOutputs(orderedExecutions, PARTITION_OUTPUT, mergedOutputResource);
+            }
+            // Binary blocks have no file header, so they are concatenated just as text lines
+            if (mergedBinaryOutputResource != null) {
+                mergeOutputs(orderedExecutions, PARTITION_BINARY_OUTPUT, mergedBinaryOutputResource);
+            }
+        }
+    }
+
+    private static void mergeExtremes(ExecutionContext target, List<StepExecution> orderedExecutions) {
+        for (StepExecution execution : orderedExecutions) {
+            ExecutionContext partitionContext = execution.getExecutionContext();
+            if (partitionContext.containsKey(MAX_SCORE) && (!target.containsKey(MAX_SCORE)
+                    || partitionContext.getDouble(MAX_SCORE) > target.getDouble(MAX_SCORE))) {
+                target.putDouble(MAX_SCORE, partitionContext.getDouble(MAX_SCORE));
+                target.putString(MAX_PLAYER, partitionContext.getString(MAX_PLAYER));
+            }
+            if (partitionContext.containsKey(MIN_SCORE) && (!target.containsKey(MIN_SCORE)
+                    || partitionContext.getDouble(MIN_SCORE) < target.getDouble(MIN_SCORE))) {
+                target.putDouble(MIN_SCORE, partitionContext.getDouble(MIN_SCORE));
+                target.putString(MIN_PLAYER, partitionContext.getString(MIN_PLAYER));
+            }
+        }
+    }
+
+    // Rankings are merged in partition order, so teams of earlier partitions win ties
+    private static void mergeRankings(ExecutionContext target, List<StepExecution> orderedExecutions) {
+        TeamRanking merged = null;
+        for (StepExecution execution : orderedExecutions) {
+            TeamRanking partitionRanking = TeamRanking.fromContext(execution.getExecutionContext());
+            if (partitionRanking == null) {
+                continue;
+            }
+            if (merged == null) {
+                merged = partitionRanking;
+            } else {
+                merged.merge(partitionRanking);
+            }
+        }
+        if (merged != null) {
+            merged.publish(target);
+        }
+    }
+
+    private static void mergeOutputs(List<StepExecution> orderedExecutions, String partitionOutputKey, WritableResource mergedOutputResource) {
+        DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+        try {
+            File mergedFile = mergedOutputResource.getFile();
+            // Merged into a part file renamed once complete, so the merged output is never seen half-written
+            Path mergedPart = mergedFile.toPath().resolveSibling(mergedFile.getName() + ".part");
+            List<Path> partitionOutputs = new ArrayList<>();
+            try (FileChannel target = FileChannel.open(mergedPart,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (StepExecution execution : orderedExecutions) {
+                    Path partitionOutput = resourceLoader
+                            .getResource(execution.getExecutionContext().getString(partitionOutputKey))
+                            .getFile().toPath();
+                    try (FileChannel source = FileChannel.open(partitionOutput, StandardOpenOption.READ)) {
+                        long size = source.size();
+                        long transferred = 0;
+                        while (transferred < size) {
+                            transferred += source.transferTo(transferred, size - transferred, target);
+                        }
+                    }
+                    partitionOutputs.add(partitionOutput);
+                }
+            }
+            Files.move(mergedPart, mergedFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // Partition outputs are kept until merged output is in place, so merging can be repeated
+            for (Path partitionOutput : partitionOutputs) {
+                Files.delete(partitionOutput);
+            }
+            log.debug("{} partition outputs merged into {}", orderedExecutions.size(), mergedFile);
+        } catch (IOException e) {
+            throw new ItemStreamException("Partition outputs can not be merged into " + mergedOutputResource, e);
+        }
+    }
+}
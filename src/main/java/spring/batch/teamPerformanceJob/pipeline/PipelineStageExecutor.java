@@ -0,0 +1,54 @@
+package spring.batch.teamPerformanceJob.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * Task executor of a single pipeline stage: tasks are run one by one, in submission order, by the stage's own thread,
+ * handed over through a ring buffer. Tasks must be submitted by a single thread (e.g. the step thread)
+ */
+@Slf4j
+public class PipelineStageExecutor implements TaskExecutor {
+
+    // Stops the stage thread once the tasks submitted before it are run
+    private static final Runnable STOP = () -> {};
+
+    private final SpscRingBuffer<Runnable> tasks;
+    private final Thread stage;
+
+    public PipelineStageExecutor(String name, int capacity) {
+        this.tasks = new SpscRingBuffer<>(capacity);
+        this.stage = Thread.ofPlatform().name("pipeline-" + name).daemon().start(this::run);
+    }
+
+    private void run() {
+        try {
+            for (Runnable task = tasks.take(); task != STOP; task = tasks.take()) {
+                task.run();
+            }
+        } catch (InterruptedException e) {
+            log.warn("Pipeline stage {} interrupted", stage.getName());
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        try {
+            tasks.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskRejectedException("Interrupted while handing the task to pipeline stage " + stage.getName(), e);
+        }
+    }
+
+    // Called by the submitting thread once no more tasks are submitted (e.g. destruction of step scoped bean)
+    public void shutdown() {
+        execute(STOP);
+        try {
+            stage.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
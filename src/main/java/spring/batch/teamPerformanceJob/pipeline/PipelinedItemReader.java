@@ -0,0 +1,124 @@
+package spring.batch.teamPerformanceJob.pipeline;
+
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.util.Map;
+
+/**
+ * Reader stage of a pipelined step: the delegate is read ahead by the stage's own thread (e.g. parsing of division
+ * files), items are handed over to the step thread through a ring buffer. Every item comes with the delegate state
+ * right after it was read, and the state of the last item taken by the step is the one saved on chunk commit,
+ * so the step restarts right after the last committed item, however far ahead the stage has read.
+ * Failure of the delegate is rethrown by the step thread when it reaches the failed read, and the stage reads on,
+ * so a skipped read failure does not end the input (only the end of input, a null item, does)
+ */
+public class PipelinedItemReader<T> implements ItemStreamReader<T> {
+
+    // Item read by the stage (null at the end of input), or failure of the read, with the delegate state after the read
+    private record Entry<T>(T item, ExecutionContext state, Exception failure) {
+    }
+
+    private final ItemStreamReader<T> delegate;
+    private final String name;
+    private final int capacity;
+
+    private SpscRingBuffer<Entry<T>> entries;
+    private Thread stage;
+    private volatile boolean running;
+    private ExecutionContext state;
+    private boolean exhausted;
+
+    public PipelinedItemReader(ItemStreamReader<T> delegate, String name, int capacity) {
+        this.delegate = delegate;
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+        state = snapshot();
+        exhausted = false;
+        entries = new SpscRingBuffer<>(capacity);
+        // Step scoped delegate is resolved in the step context, so it is registered in the stage thread too
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        running = true;
+        stage = Thread.ofPlatform().name("pipeline-" + name).daemon().start(() -> run(stepContext));
+    }
+
+    private void run(StepContext stepContext) {
+        if (stepContext != null) {
+            StepSynchronizationManager.register(stepContext.getStepExecution());
+        }
+        try {
+            while (running) {
+                T item;
+                try {
+                    item = delegate.read();
+                } catch (Exception e) {
+                    // Failure may be skipped by the step, so reading goes on like the step would read on
+                    entries.put(new Entry<>(null, snapshot(), e));
+                    continue;
+                }
+                entries.put(new Entry<>(item, snapshot(), null));
+                if (item == null) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed by the step, nobody takes items anymore
+        } finally {
+            if (stepContext != null) {
+                // Only unregisters the context, release would also destroy step scoped beans still used by the step
+                StepSynchronizationManager.close();
+            }
+        }
+    }
+
+    private ExecutionContext snapshot() {
+        ExecutionContext snapshot = new ExecutionContext();
+        delegate.update(snapshot);
+        return snapshot;
+    }
+
+    @Override
+    public T read() throws Exception {
+        if (exhausted) {
+            return null;
+        }
+        Entry<T> entry = entries.take();
+        state = entry.state();
+        if (entry.failure() != null) {
+            throw entry.failure();
+        }
+        exhausted = entry.item() == null;
+        return entry.item();
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        for (Map.Entry<String, Object> entry : state.entrySet()) {
+            executionContext.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        running = false;
+        if (stage != null) {
+            stage.interrupt();
+            try {
+                // Delegate is closed only once the stage thread is done with it
+                stage.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stage = null;
+        }
+        delegate.close();
+    }
+}
@@ -0,0 +1,93 @@
+package spring.batch.teamPerformanceJob.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded single-producer single-consumer ring buffer: the producer only advances the tail and the consumer
+ * only the head, so an element is handed over without locks or CAS. A side finding the buffer full (producer)
+ * or empty (consumer) spins briefly, then parks until the other side makes progress.
+ * Exactly one thread may put and exactly one (other) thread may take
+ */
+public class SpscRingBuffer<E> {
+
+    private static final int SPINS = 100;
+
+    private final Object[] elements;
+    private final int mask;
+    // Next position to take, written by the consumer only
+    private final AtomicLong head = new AtomicLong();
+    // Next position to put, written by the producer only
+    private final AtomicLong tail = new AtomicLong();
+
+    private volatile Thread parkedProducer;
+    private volatile Thread parkedConsumer;
+
+    // Capacity is rounded up to a power of two, so positions are mapped to slots by a mask
+    public SpscRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive, but was " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        size = size < capacity ? size << 1 : size;
+        this.elements = new Object[size];
+        this.mask = size - 1;
+    }
+
+    public void put(E element) throws InterruptedException {
+        long position = tail.get();
+        int spins = 0;
+        while (position - head.get() == elements.length) {
+            if (spins++ < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                parkedProducer = Thread.currentThread();
+                // Checked again once parked thread is published, so a take in between can not be missed
+                if (position - head.get() == elements.length) {
+                    park();
+                }
+                parkedProducer = null;
+            }
+        }
+        elements[(int) position & mask] = element;
+        tail.set(position + 1);
+        Thread consumer = parkedConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E take() throws InterruptedException {
+        long position = head.get();
+        int spins = 0;
+        while (tail.get() == position) {
+            if (spins++ < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                parkedConsumer = Thread.currentThread();
+                if (tail.get() == position) {
+                    park();
+                }
+                parkedConsumer = null;
+            }
+        }
+        int slot = (int) position & mask;
+        E element = (E) elements[slot];
+        // Slot is cleared, so the buffer doesn't keep taken elements reachable
+        elements[slot] = null;
+        head.set(position + 1);
+        Thread producer = parkedProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+        return element;
+    }
+
+    private void park() throws InterruptedException {
+        LockSupport.park(this);
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+}
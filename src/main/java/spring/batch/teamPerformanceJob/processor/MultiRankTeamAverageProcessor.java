@@ -0,0 +1,101 @@
+package spring.batch.teamPerformanceJob.processor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.lang.NonNull;
+import spring.batch.teamPerformanceJob.domain.MultiRankAverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.ScoreRanks;
+import spring.batch.teamPerformanceJob.domain.Team;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+import static spring.batch.teamPerformanceJob.CommonConstants.*;
+
+/**
+ * Processor for calculating average scores for a team by several score ranks in a single pass.
+ * For every rank it behaves as {@link TeamAverageProcessor} does: players are visited in order until the first
+ * player without the rank, their scores update best and worst player of the rank (published to a step-specific
+ * execution context on every chunk commit, keys are suffixed by rank), and team average is produced only if every
+ * player has the rank. Unlike single rank step, a team missing some rank is not skipped as a whole, it's just left
+ * out of that rank. Processor is thread-safe, so it can be used by a multi-threaded step
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MultiRankTeamAverageProcessor implements ItemProcessor<Team, MultiRankAverageScoredTeam>, ItemStream {
+
+    private final ScoreRanks scoreRanks;
+
+    // Extremes of every rank processed so far (ranks nobody scored included)
+    private final Map<Integer, ScoreExtremes> rankExtremes = new ConcurrentSkipListMap<>();
+
+    @Override
+    public MultiRankAverageScoredTeam process(@NonNull Team team) throws Exception {
+        int[] ranks = scoreRanks.isAll() ? allRanks(team) : scoreRanks.getRanks();
+
+        int[] averagedRanks = new int[ranks.length];
+        double[] averageScores = new double[ranks.length];
+        int averagedCount = 0;
+        for (int rank : ranks) {
+            ScoreExtremes scoreExtremes = rankExtremes.computeIfAbsent(rank, newRank -> new ScoreExtremes());
+            double sum = 0;
+            int player = 0;
+            for (; player < team.getPlayerCount() && rank < team.getScoreCount(player); player++) {
+                double score = team.getScore(player, rank);
+                scoreExtremes.accept(score, team.getPlayerName(player), team.getSequence(), player);
+                sum += score;
+            }
+            if (player == team.getPlayerCount()) {
+                averagedRanks[averagedCount] = rank;
+                averageScores[averagedCount++] = sum / player;
+            } else {
+                log.debug("Team {} is left out of rank {}, player {} has no score of that rank", team.getName(), rank, team.getPlayerName(player));
+            }
+        }
+        return new MultiRankAverageScoredTeam(team.getName(),
+                Arrays.copyOf(averagedRanks, averagedCount), Arrays.copyOf(averageScores, averagedCount));
+    }
+
+    // Every rank scored by at least one player of the team
+    private static int[] allRanks(Team team) {
+        int maxScoreCount = 0;
+        for (int player = 0; player < team.getPlayerCount(); player++) {
+            maxScoreCount = Math.max(maxScoreCount, team.getScoreCount(player));
+        }
+        int[] ranks = new int[maxScoreCount];
+        Arrays.setAll(ranks, rank -> rank);
+        return ranks;
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        rankExtremes.clear();
+        // On restart ranks processed before are already in the context
+        if (executionContext.containsKey(SCORE_RANKS) && !executionContext.getString(SCORE_RANKS).isEmpty()) {
+            Arrays.stream(executionContext.getString(SCORE_RANKS).split(","))
+                    .mapToInt(Integer::parseInt)
+                    .forEach(rank -> {
+                        ScoreExtremes scoreExtremes = new ScoreExtremes();
+                        scoreExtremes.restore(executionContext, key -> rankKey(key, rank));
+                        rankExtremes.put(rank, scoreExtremes);
+                    });
+        }
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        rankExtremes.forEach((rank, scoreExtremes) -> scoreExtremes.publish(executionContext, key -> rankKey(key, rank)));
+        String ranks = rankExtremes.keySet().stream()
+                .map(Object::toString)
+                .collect(Collectors.joining(","));
+        if (!ranks.equals(executionContext.get(SCORE_RANKS))) {
+            executionContext.putString(SCORE_RANKS, ranks);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package spring.batch.teamPerformanceJob.processor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.lang.NonNull;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Processor of the items of a chunk in parallel: every item is submitted to the task executor as soon as it is read
+ * (the processor is the step's read listener too), and process waits for the result of the item in chunk order.
+ * Processing failures are rethrown by process as they are, so the step skips them in process, with the item,
+ * the same as the sequential processor. Reading and processing run on a single step thread (or reader stage)
+ */
+@RequiredArgsConstructor
+public class OrderedParallelItemProcessor<I, O> implements ItemProcessor<I, O>, ItemReadListener<I>, ItemStream {
+
+    private final ItemProcessor<I, O> delegate;
+    private final TaskExecutor taskExecutor;
+
+    // Items read and not processed yet (by identity, equal teams may be read twice)
+    private final Map<I, Future<O>> submitted = new IdentityHashMap<>();
+
+    @Override
+    public void afterRead(@NonNull I item) {
+        submitted.computeIfAbsent(item, this::submit);
+    }
+
+    private Future<O> submit(I item) {
+        // Step scoped delegates are resolved in the step context, so it is registered in the executing thread too
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        FutureTask<O> task = new FutureTask<>(() -> {
+            if (stepContext == null) {
+                return delegate.process(item);
+            }
+            StepSynchronizationManager.register(stepContext.getStepExecution());
+            try {
+                return delegate.process(item);
+            } finally {
+                // Only unregisters the context, release would also destroy step scoped beans still used by the step
+                StepSynchronizationManager.close();
+            }
+        });
+        taskExecutor.execute(task);
+        return task;
+    }
+
+    @Override
+    public O process(@NonNull I item) throws Exception {
+        Future<O> result = submitted.remove(item);
+        if (result == null) {
+            // Not read through the listener, or processed again by a retried chunk
+            return delegate.process(item);
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        submitted.clear();
+        if (delegate instanceof ItemStream stream) {
+            stream.open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        // Results of a failed chunk are not waited for
+        submitted.clear();
+        if (delegate instanceof ItemStream stream) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package spring.batch.teamPerformanceJob.processor;
+
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.TeamPerformance;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Team performance is a percentage of team average score against the baseline score (rounded to 2 decimals, HALF_UP).
+ * Both scores are taken as the decimals printed by Double.toString (as BigDecimal.valueOf does), and the percentage
+ * is calculated exactly in long arithmetic, scaled by 100. Decimals not fitting into long arithmetic (e.g. 17-digit
+ * averages) are divided as doubles, which is exact enough unless the percentage is close to a rounding tie.
+ * BigDecimal is used only for such near-ties, zero baselines and huge percentages
+ */
+public class PerformanceEvaluator {
+
+    // Format of the calculated performance, to be changed whenever the calculation gives different output
+    public static final String FORMAT = "percent,scale=2,HALF_UP";
+
+    private static final long[] LONG_POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+    // Powers of ten exactly representable as double
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Integers up to 2^53 are exactly representable as double
+    private static final long MAX_EXACT_UNSCALED = 1L << 53;
+    // Shortest decimal is encoded as unscaled * SCALE_RADIX + scale
+    private static final int SCALE_RADIX = 32;
+    private static final long NO_DECIMAL = -1;
+    // Double division error is within a few ulps, anything closer to a rounding tie is left to BigDecimal
+    private static final double TIE_MARGIN = 1e-12;
+    private static final double MAX_APPROXIMATE = 1e12;
+
+    private PerformanceEvaluator() {
+    }
+
+    public static TeamPerformance evaluatePerformance(AverageScoredTeam team, double baselineScore) {
+        return new TeamPerformance(team.name(), scaledPerformance(team.averageScore(), baselineScore));
+    }
+
+    // Percentage multiplied by 100, e.g. 8000 for "80.00%"
+    public static long scaledPerformance(double score, double baselineScore) {
+        long scoreDecimal = shortestDecimal(Math.abs(score));
+        long baselineDecimal = shortestDecimal(Math.abs(baselineScore));
+        if (baselineDecimal == 0) {
+            return exactScaledPerformance(score, baselineScore);
+        }
+        if (scoreDecimal == NO_DECIMAL || baselineDecimal == NO_DECIMAL) {
+            return approximateScaledPerformance(score, baselineScore);
+        }
+        long numerator = scoreDecimal / SCALE_RADIX;
+        long denominator = baselineDecimal / SCALE_RADIX;
+        // score * 100 (percents) * 100 (2 decimals) / baseline = numerator * 10^(4 + baselineScale - scoreScale) / denominator
+        int exponent = 4 + (int) (baselineDecimal % SCALE_RADIX) - (int) (scoreDecimal % SCALE_RADIX);
+        if (Math.abs(exponent) >= LONG_POWERS_OF_TEN.length) {
+            return exactScaledPerformance(score, baselineScore);
+        }
+        try {
+            if (exponent >= 0) {
+                numerator = Math.multiplyExact(numerator, LONG_POWERS_OF_TEN[exponent]);
+            } else {
+                denominator = Math.multiplyExact(denominator, LONG_POWERS_OF_TEN[-exponent]);
+            }
+        } catch (ArithmeticException e) {
+            return exactScaledPerformance(score, baselineScore);
+        }
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        // HALF_UP: remainder of at least half of denominator rounds away from zero
+        if (remainder >= denominator - remainder) {
+            quotient++;
+        }
+        return (score < 0) != (baselineScore < 0) ? -quotient : quotient;
+    }
+
+    private static long approximateScaledPerformance(double score, double baselineScore) {
+        double absolute = Math.abs(score * 10_000 / baselineScore);
+        // Also false for NaN and infinity
+        if (!(absolute < MAX_APPROXIMATE)) {
+            return exactScaledPerformance(score, baselineScore);
+        }
+        double floor = Math.floor(absolute);
+        double fraction = absolute - floor;
+        if (Math.abs(fraction - 0.5) <= Math.max(absolute, 1) * TIE_MARGIN) {
+            return exactScaledPerformance(score, baselineScore);
+        }
+        long quotient = (long) floor + (fraction > 0.5 ? 1 : 0);
+        return (score < 0) != (baselineScore < 0) ? -quotient : quotient;
+    }
+
+    // Reference BigDecimal calculation (throws ArithmeticException for zero baseline and for percentages not fitting into long)
+    static long exactScaledPerformance(double score, double baselineScore) {
+        return BigDecimal.valueOf(score)
+                .multiply(new BigDecimal(100))
+                .divide(BigDecimal.valueOf(baselineScore), 2, RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    /**
+     * Decimal of Double.toString for non-negative value, encoded as unscaled * SCALE_RADIX + scale.
+     * It is the decimal with the fewest digits rounding to the value: found by trying scales from 0 upwards,
+     * where "candidate / 10^scale" is a correctly rounded division of exact doubles. Returns NO_DECIMAL when
+     * the decimal needs more than 53 bits or 22 scale digits, or when several decimals of the same length
+     * round to the value (Double.toString picks the closest one, which is left to BigDecimal)
+     */
+    private static long shortestDecimal(double value) {
+        if (value == 0) {
+            return 0;
+        }
+        if (!Double.isFinite(value)) {
+            return NO_DECIMAL;
+        }
+        for (int scale = 0; scale < DOUBLE_POWERS_OF_TEN.length; scale++) {
+            double scaled = value * DOUBLE_POWERS_OF_TEN[scale];
+            if (scaled >= MAX_EXACT_UNSCALED) {
+                return NO_DECIMAL;
+            }
+            // Product is not exact, so the closest decimal may be a neighbour of the rounded product
+            long rounded = Math.round(scaled);
+            long match = NO_DECIMAL;
+            for (long candidate = Math.max(rounded - 1, 0); candidate <= Math.min(rounded + 1, MAX_EXACT_UNSCALED); candidate++) {
+                if (candidate / DOUBLE_POWERS_OF_TEN[scale] == value) {
+                    if (match != NO_DECIMAL) {
+                        return NO_DECIMAL;
+                    }
+                    match = candidate;
+                }
+            }
+            if (match != NO_DECIMAL) {
+                return match * SCALE_RADIX + scale;
+            }
+        }
+        return NO_DECIMAL;
+    }
+}
@@ -0,0 +1,79 @@
+package spring.batch.teamPerformanceJob.processor;
+
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import static spring.batch.teamPerformanceJob.CommonConstants.*;
+
+/**
+ * Thread-safe tracker of the best and worst player's score, updated with compare-and-set (allocates only on change).
+ * The first player in input order (team sequence, then player index) wins on equal scores, whatever thread
+ * processes the team; players restored from execution context precede any player processed afterwards.
+ * Execution context is written only when extremes are published, and only if they changed since the last publish
+ */
+public class ScoreExtremes {
+
+    private record ScoredPlayer(double score, String player, long teamSequence, int playerIndex) {
+
+        boolean precedes(long otherTeamSequence, int otherPlayerIndex) {
+            return teamSequence < otherTeamSequence || teamSequence == otherTeamSequence && playerIndex <= otherPlayerIndex;
+        }
+    }
+
+    private final AtomicReference<ScoredPlayer> max = new AtomicReference<>();
+    private final AtomicReference<ScoredPlayer> min = new AtomicReference<>();
+
+    private ScoredPlayer publishedMax;
+    private ScoredPlayer publishedMin;
+
+    public void accept(double score, String player, long teamSequence, int playerIndex) {
+        ScoredPlayer currentMax = max.get();
+        while (currentMax == null || score > currentMax.score()
+                || score == currentMax.score() && !currentMax.precedes(teamSequence, playerIndex)) {
+            if (max.compareAndSet(currentMax, new ScoredPlayer(score, player, teamSequence, playerIndex))) {
+                break;
+            }
+            currentMax = max.get();
+        }
+        ScoredPlayer currentMin = min.get();
+        while (currentMin == null || score < currentMin.score()
+                || score == currentMin.score() && !currentMin.precedes(teamSequence, playerIndex)) {
+            if (min.compareAndSet(currentMin, new ScoredPlayer(score, player, teamSequence, playerIndex))) {
+                break;
+            }
+            currentMin = min.get();
+        }
+    }
+
+    // Publishes under "max.score", "max.player", "min.score" and "min.player" keys, mapped by the given key mapper
+    public synchronized void publish(ExecutionContext executionContext, UnaryOperator<String> keyMapper) {
+        ScoredPlayer currentMax = max.get();
+        if (currentMax != null && currentMax != publishedMax) {
+            executionContext.putDouble(keyMapper.apply(MAX_SCORE), currentMax.score());
+            executionContext.putString(keyMapper.apply(MAX_PLAYER), currentMax.player());
+            publishedMax = currentMax;
+        }
+        ScoredPlayer currentMin = min.get();
+        if (currentMin != null && currentMin != publishedMin) {
+            executionContext.putDouble(keyMapper.apply(MIN_SCORE), currentMin.score());
+            executionContext.putString(keyMapper.apply(MIN_PLAYER), currentMin.player());
+            publishedMin = currentMin;
+        }
+    }
+
+    // Restores extremes published before (on restart), or resets them if nothing was published
+    public synchronized void restore(ExecutionContext executionContext, UnaryOperator<String> keyMapper) {
+        publishedMax = executionContext.containsKey(keyMapper.apply(MAX_SCORE))
+                ? new ScoredPlayer(executionContext.getDouble(keyMapper.apply(MAX_SCORE)), executionContext.getString(keyMapper.apply(MAX_PLAYER)),
+                Long.MIN_VALUE, 0)
+                : null;
+        publishedMin = executionContext.containsKey(keyMapper.apply(MIN_SCORE))
+                ? new ScoredPlayer(executionContext.getDouble(keyMapper.apply(MIN_SCORE)), executionContext.getString(keyMapper.apply(MIN_PLAYER)),
+                Long.MIN_VALUE, 0)
+                : null;
+        max.set(publishedMax);
+        min.set(publishedMin);
+    }
+}
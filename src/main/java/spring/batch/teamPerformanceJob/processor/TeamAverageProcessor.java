@@ -2,52 +2,47 @@ package spring.batch.teamPerformanceJob.processor;
 
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
-import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.lang.NonNull;
 import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
 import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.ranking.TeamRanking;
+
+import java.util.function.UnaryOperator;
 
-import static spring.batch.teamPerformanceJob.CommonConstants.*;
 /**
  * Processor for calculating average score for a team by the specified score rank.
- * As a side effect, puts best and worst player's score and name (in the specified score rank)
- * in a step-specific execution context
+ * As a side effect, tracks best and worst player's score and name (in the specified score rank),
+ * which are put in a step-specific execution context on every chunk commit (as an item stream of the step).
+ * Optional team ranking is gathered in the same pass: the team (once averaged) and scores of its players (the same
+ * players as for extremes). Ranking is not idempotent, so processing must not be repeated on chunk retry.
+ * Processor is thread-safe, so it can be used by a multi-threaded step
  */
 @RequiredArgsConstructor
-public class TeamAverageProcessor implements ItemProcessor<Team, AverageScoredTeam> {
+public class TeamAverageProcessor implements ItemProcessor<Team, AverageScoredTeam>, ItemStream {
 
     private final int scoreRank;
 
+    private final ScoreExtremes scoreExtremes = new ScoreExtremes();
+
     @Setter
-    private StepExecution stepExecution;
+    private TeamRanking teamRanking;
 
     @Override
     public AverageScoredTeam process(@NonNull Team team) throws Exception {
-        if (stepExecution == null) {
-            throw new RuntimeException("Team average processor can not execute without step execution set");
+        if (teamRanking != null) {
+            return processRanked(team);
         }
-        ExecutionContext stepExecutionContext = stepExecution.getExecutionContext();
-        Double maxScore =  stepExecutionContext.containsKey(MAX_SCORE)?stepExecutionContext.getDouble(MAX_SCORE):null;
-        Double minScore = stepExecutionContext.containsKey(MIN_SCORE) ? stepExecutionContext.getDouble(MIN_SCORE) : null;
-
         double sum = 0;
         double count = 0;
 
-        for(Team.ScoredPlayer scoredPlayer : team.getScoredPlayers())
+        for (int player = 0; player < team.getPlayerCount(); player++)
         {
-            Double score = scoredPlayer.getScores().get(scoreRank);
-            if(maxScore==null || score> maxScore){
-                stepExecutionContext.putDouble(MAX_SCORE, score);
-                stepExecutionContext.putString(MAX_PLAYER, scoredPlayer.getName());
-                maxScore = score;
-            }
-            if (minScore == null || score < minScore) {
-                stepExecutionContext.putDouble(MIN_SCORE, score);
-                stepExecutionContext.putString(MIN_PLAYER, scoredPlayer.getName());
-                minScore = score;
-            }
+            double score = team.getScore(player, scoreRank);
+            scoreExtremes.accept(score, team.getPlayerName(player), team.getSequence(), player);
 
             sum += score;
             count++;
@@ -55,4 +50,42 @@ public class TeamAverageProcessor implements ItemProcessor<Team, AverageScoredTe
         return new AverageScoredTeam(team.getName(), sum/count);
 
     }
+
+    // Same as above, scores are also collected for the ranking (including players before the one missing the rank)
+    private AverageScoredTeam processRanked(Team team) {
+        double[] scores = new double[team.getPlayerCount()];
+        int count = 0;
+        try {
+            for (int player = 0; player < team.getPlayerCount(); player++) {
+                double score = team.getScore(player, scoreRank);
+                scoreExtremes.accept(score, team.getPlayerName(player), team.getSequence(), player);
+                scores[count++] = score;
+            }
+        } finally {
+            teamRanking.acceptScores(scores, count);
+        }
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += scores[i];
+        }
+        double averageScore = sum / count;
+        teamRanking.acceptTeam(team.getDivision(), team.getName(), team.getSequence(), averageScore);
+        return new AverageScoredTeam(team.getName(), averageScore);
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        scoreExtremes.restore(executionContext, UnaryOperator.identity());
+        if (teamRanking != null) {
+            teamRanking.restore(executionContext);
+        }
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        scoreExtremes.publish(executionContext, UnaryOperator.identity());
+        if (teamRanking != null) {
+            teamRanking.publish(executionContext);
+        }
+    }
 }
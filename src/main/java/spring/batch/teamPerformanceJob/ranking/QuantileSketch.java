@@ -0,0 +1,193 @@
+package spring.batch.teamPerformanceJob.ranking;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * KLL-style quantile sketch of scores: a stack of compactors, items of level h stand for 2^h scores.
+ * A full level is sorted and every other item (alternating between odd and even ones, so results are reproducible)
+ * is promoted to the next level, the rest is dropped. Levels shrink geometrically from the top one (capacity k),
+ * so memory is O(k log(n/k)) whatever the number of scores, and rank error stays around 1/k of the score count.
+ * Up to k scores the sketch is exact. Sketches are merged level by level (e.g. partition sketches).
+ * Not thread-safe, guarded by the owning {@link TeamRanking}
+ */
+public class QuantileSketch {
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 8;
+
+    private final int k;
+    private double[][] levels = {new double[MIN_CAPACITY]};
+    private int[] sizes = {0};
+    private boolean compactOdd;
+    private long count;
+
+    public QuantileSketch(int k) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("Sketch size must be at least " + MIN_CAPACITY + ", but was " + k);
+        }
+        this.k = k;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void add(double score) {
+        append(0, score);
+        count++;
+        compress();
+    }
+
+    public void merge(QuantileSketch other) {
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        compress();
+    }
+
+    public void clear() {
+        levels = new double[][]{new double[MIN_CAPACITY]};
+        sizes = new int[]{0};
+        compactOdd = false;
+        count = 0;
+    }
+
+    /**
+     * Score of the given quantile (0..1) by nearest rank: the smallest score with at least quantile of scores
+     * less or equal to it. NaN if the sketch is empty
+     */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        int retained = Arrays.stream(sizes).sum();
+        double[] scores = new double[retained];
+        long[] weights = new long[retained];
+        Integer[] order = new Integer[retained];
+        int index = 0;
+        for (int level = 0; level < levels.length; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                scores[index] = levels[level][i];
+                weights[index] = 1L << level;
+                order[index] = index;
+                index++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[a], scores[b]));
+        long totalWeight = Arrays.stream(weights).sum();
+        double targetWeight = Math.max(1, Math.ceil(quantile * totalWeight));
+        long cumulativeWeight = 0;
+        for (int i : order) {
+            cumulativeWeight += weights[i];
+            if (cumulativeWeight >= targetWeight) {
+                return scores[i];
+            }
+        }
+        return scores[order[retained - 1]];
+    }
+
+    private void append(int level, double score) {
+        if (level == levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            levels[level] = new double[MIN_CAPACITY];
+            sizes = Arrays.copyOf(sizes, level + 1);
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], sizes[level] * 2);
+        }
+        levels[level][sizes[level]++] = score;
+    }
+
+    // Compacts lazily, only once the sketch holds more than all levels together may: the lowest full level goes first,
+    // so small lower levels are not compacted on every score (that would multiply the error of the lowest levels)
+    private void compress() {
+        while (retained() > totalCapacity()) {
+            for (int level = 0; level < levels.length; level++) {
+                if (sizes[level] >= capacity(level)) {
+                    compact(level);
+                    break;
+                }
+            }
+        }
+    }
+
+    private int retained() {
+        int retained = 0;
+        for (int size : sizes) {
+            retained += size;
+        }
+        return retained;
+    }
+
+    private int totalCapacity() {
+        int totalCapacity = 0;
+        for (int level = 0; level < levels.length; level++) {
+            totalCapacity += capacity(level);
+        }
+        return totalCapacity;
+    }
+
+    // Capacity decreases from k of the top level down to the lowest levels
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void compact(int level) {
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        // Odd item is left at its level, so the weight of the sketch is kept exactly
+        int compacted = size - size % 2;
+        int first = compactOdd ? 1 : 0;
+        compactOdd = !compactOdd;
+        for (int i = first; i < compacted; i += 2) {
+            append(level + 1, items[i]);
+        }
+        if (compacted < size) {
+            items[0] = items[size - 1];
+        }
+        sizes[level] = size - compacted;
+    }
+
+    void write(DataOutputStream output) throws IOException {
+        output.writeInt(k);
+        output.writeLong(count);
+        output.writeBoolean(compactOdd);
+        output.writeInt(levels.length);
+        for (int level = 0; level < levels.length; level++) {
+            output.writeInt(sizes[level]);
+            for (int i = 0; i < sizes[level]; i++) {
+                output.writeDouble(levels[level][i]);
+            }
+        }
+    }
+
+    static QuantileSketch read(DataInputStream input) throws IOException {
+        QuantileSketch sketch = new QuantileSketch(input.readInt());
+        sketch.count = input.readLong();
+        sketch.compactOdd = input.readBoolean();
+        int levelCount = input.readInt();
+        sketch.levels = new double[levelCount][];
+        sketch.sizes = new int[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            int size = input.readInt();
+            sketch.levels[level] = new double[Math.max(MIN_CAPACITY, size)];
+            for (int i = 0; i < size; i++) {
+                sketch.levels[level][i] = input.readDouble();
+            }
+            sketch.sizes[level] = size;
+        }
+        return sketch;
+    }
+}
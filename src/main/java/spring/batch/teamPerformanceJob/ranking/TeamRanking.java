@@ -0,0 +1,201 @@
+package spring.batch.teamPerformanceJob.ranking;
+
+import lombok.Setter;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static spring.batch.teamPerformanceJob.CommonConstants.TEAM_RANKING;
+
+/**
+ * Ranking of teams gathered in the same pass as team averages: top k teams, top k teams of every division
+ * (leaderboards) and a quantile sketch of player scores at the score rank. Memory is bounded by k teams per division
+ * and by the sketch size, however big the input is. Ranking is thread-safe, its state is published to execution
+ * context (encoded under "team.ranking") on every chunk commit, and rankings of partitions are merged in partition order
+ */
+public class TeamRanking {
+
+    private static final byte VERSION = 1;
+
+    private final int topK;
+    private final TopTeams top;
+    private final Map<String, TopTeams> leaderboards = new TreeMap<>();
+    private final QuantileSketch scores;
+    // Teams merged from another ranking are placed after teams of this one, so they lose ties just as later input does
+    private long sequenceEnd;
+
+    // Restored state is ignored when the step has no state to restart from (it starts from the beginning)
+    @Setter
+    private boolean saveState = true;
+
+    private long changes;
+    private long publishedChanges;
+
+    public TeamRanking(int topK, int sketchSize) {
+        this.topK = topK;
+        this.top = new TopTeams(topK);
+        this.scores = new QuantileSketch(sketchSize);
+    }
+
+    public synchronized void acceptTeam(String division, String name, long sequence, double averageScore) {
+        offer(new TopTeam(division, name, averageScore, sequence));
+        sequenceEnd = Math.max(sequenceEnd, sequence + 1);
+        changes++;
+    }
+
+    // Player scores of a team, several at once to take the lock once per team
+    public synchronized void acceptScores(double[] playerScores, int count) {
+        for (int i = 0; i < count; i++) {
+            scores.add(playerScores[i]);
+        }
+        changes++;
+    }
+
+    public synchronized void merge(TeamRanking other) {
+        long sequenceOffset = sequenceEnd;
+        for (TopTeam team : other.top.sorted()) {
+            top.offer(new TopTeam(team.division(), team.name(), team.averageScore(), team.sequence() + sequenceOffset));
+        }
+        for (Map.Entry<String, TopTeams> leaderboard : other.leaderboards.entrySet()) {
+            TopTeams divisionTop = leaderboards.computeIfAbsent(leaderboard.getKey(), division -> new TopTeams(topK));
+            for (TopTeam team : leaderboard.getValue().sorted()) {
+                divisionTop.offer(new TopTeam(team.division(), team.name(), team.averageScore(), team.sequence() + sequenceOffset));
+            }
+        }
+        scores.merge(other.scores);
+        sequenceEnd += other.sequenceEnd;
+        changes++;
+    }
+
+    private void offer(TopTeam team) {
+        top.offer(team);
+        if (team.division() != null) {
+            leaderboards.computeIfAbsent(team.division(), division -> new TopTeams(topK)).offer(team);
+        }
+    }
+
+    // Best team first
+    public synchronized List<TopTeam> topTeams() {
+        return top.sorted();
+    }
+
+    // Division leaderboards ordered by division name, best team first
+    public synchronized Map<String, List<TopTeam>> leaderboards() {
+        Map<String, List<TopTeam>> sorted = new LinkedHashMap<>();
+        leaderboards.forEach((division, divisionTop) -> sorted.put(division, divisionTop.sorted()));
+        return sorted;
+    }
+
+    // Player score of the given percentile (0..100), NaN if no score was accepted
+    public synchronized double percentile(double percent) {
+        return scores.quantile(percent / 100);
+    }
+
+    public synchronized long scoreCount() {
+        return scores.getCount();
+    }
+
+    // Publishes encoded ranking, only if it changed since the last publish
+    public synchronized void publish(ExecutionContext executionContext) {
+        if (changes != publishedChanges || !executionContext.containsKey(TEAM_RANKING)) {
+            executionContext.putString(TEAM_RANKING, encode());
+            publishedChanges = changes;
+        }
+    }
+
+    // Restores ranking published before (on restart), or resets it if nothing was published
+    public synchronized void restore(ExecutionContext executionContext) {
+        TeamRanking restored = saveState ? fromContext(executionContext) : null;
+        top.clear();
+        leaderboards.clear();
+        scores.clear();
+        sequenceEnd = 0;
+        if (restored != null) {
+            merge(restored);
+        }
+        publishedChanges = changes;
+    }
+
+    // Ranking published to the context (e.g. merged from partitions), null if there is none
+    public static TeamRanking fromContext(ExecutionContext executionContext) {
+        return executionContext.containsKey(TEAM_RANKING) ? decode(executionContext.getString(TEAM_RANKING)) : null;
+    }
+
+    private String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(VERSION);
+            output.writeInt(topK);
+            output.writeLong(sequenceEnd);
+            writeTeams(output, top.sorted());
+            output.writeInt(leaderboards.size());
+            for (Map.Entry<String, TopTeams> leaderboard : leaderboards.entrySet()) {
+                output.writeUTF(leaderboard.getKey());
+                writeTeams(output, leaderboard.getValue().sorted());
+            }
+            scores.write(output);
+        } catch (IOException e) {
+            throw new ItemStreamException("Team ranking can not be encoded", e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    private static TeamRanking decode(String encoded) {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(encoded)))) {
+            byte version = input.readByte();
+            if (version != VERSION) {
+                throw new ItemStreamException("Unsupported team ranking version " + version);
+            }
+            int topK = input.readInt();
+            long sequenceEnd = input.readLong();
+            List<TopTeam> topTeams = readTeams(input);
+            Map<String, List<TopTeam>> leaderboards = new TreeMap<>();
+            int divisions = input.readInt();
+            for (int i = 0; i < divisions; i++) {
+                String division = input.readUTF();
+                leaderboards.put(division, readTeams(input));
+            }
+            QuantileSketch scores = QuantileSketch.read(input);
+
+            TeamRanking ranking = new TeamRanking(topK, scores.getK());
+            topTeams.forEach(ranking.top::offer);
+            leaderboards.forEach((division, teams) -> teams.forEach(
+                    ranking.leaderboards.computeIfAbsent(division, key -> new TopTeams(topK))::offer));
+            ranking.scores.merge(scores);
+            ranking.sequenceEnd = sequenceEnd;
+            return ranking;
+        } catch (IOException e) {
+            throw new ItemStreamException("Team ranking can not be decoded", e);
+        }
+    }
+
+    private static void writeTeams(DataOutputStream output, List<TopTeam> teams) throws IOException {
+        output.writeInt(teams.size());
+        for (TopTeam team : teams) {
+            output.writeUTF(team.division() == null ? "" : team.division());
+            output.writeUTF(team.name());
+            output.writeDouble(team.averageScore());
+            output.writeLong(team.sequence());
+        }
+    }
+
+    private static List<TopTeam> readTeams(DataInputStream input) throws IOException {
+        int size = input.readInt();
+        TopTeam[] teams = new TopTeam[size];
+        for (int i = 0; i < size; i++) {
+            String division = input.readUTF();
+            teams[i] = new TopTeam(division.isEmpty() ? null : division, input.readUTF(), input.readDouble(), input.readLong());
+        }
+        return List.of(teams);
+    }
+}
@@ -0,0 +1,120 @@
+package spring.batch.teamPerformanceJob.ranking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import spring.batch.teamPerformanceJob.CommonConstants;
+import spring.batch.teamPerformanceJob.writer.OutputCommitListener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Writes team ranking of the completed average step to the job output directory:
+ * "top.txt" (rank,team,average), "leaderboards.txt" (division,rank,team,average) and "percentiles.txt" (name,score).
+ * Every percentile also becomes a ratio baseline in job context ("p50.score" and "p50.player"), so it can be listed
+ * among fused ratio step baselines. Ranking is taken from the step (shared with its processor), or from step context
+ * when merged there from partitions
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TeamRankingListener implements StepExecutionListener {
+
+    public static final String TOP_OUTPUT = "top.txt";
+    public static final String LEADERBOARDS_OUTPUT = "leaderboards.txt";
+    public static final String PERCENTILES_OUTPUT = "percentiles.txt";
+
+    // Ranking gathered by the processor of the step, null for partitioned step
+    private final TeamRanking teamRanking;
+    // Output directory of the job by job uuid
+    private final Function<String, Path> jobOutputDirectory;
+    // Percentiles (0..100) of player scores
+    private final double[] percentiles;
+
+    // Baseline name of the percentile, e.g. "p50" or "p99.9"
+    private static String percentileName(double percent) {
+        return "p" + (percent == Math.rint(percent) ? String.valueOf((long) percent) : String.valueOf(percent));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (stepExecution.getStatus() != BatchStatus.COMPLETED) {
+            return null;
+        }
+        TeamRanking ranking = teamRanking != null ? teamRanking : TeamRanking.fromContext(stepExecution.getExecutionContext());
+        Path directory = jobOutputDirectory.apply(stepExecution.getJobParameters().getString(CommonConstants.UUID_PARAM));
+        try {
+            Files.createDirectories(directory);
+            // No ranking at all when nothing was processed, outputs are empty then
+            writeTop(directory.resolve(TOP_OUTPUT), ranking == null ? List.of() : ranking.topTeams());
+            writeLeaderboards(directory.resolve(LEADERBOARDS_OUTPUT), ranking == null ? Map.of() : ranking.leaderboards());
+            writePercentiles(directory.resolve(PERCENTILES_OUTPUT), ranking, stepExecution.getJobExecution().getExecutionContext());
+            return null;
+        } catch (IOException e) {
+            // Exceptions of listeners are only logged, so the step is failed explicitly
+            stepExecution.setStatus(BatchStatus.FAILED);
+            stepExecution.addFailureException(e);
+            return ExitStatus.FAILED.addExitDescription(e);
+        }
+    }
+
+    private static void writeTop(Path output, List<TopTeam> teams) throws IOException {
+        write(output, writer -> {
+            for (int rank = 0; rank < teams.size(); rank++) {
+                writer.write((rank + 1) + "," + teams.get(rank).name() + "," + teams.get(rank).averageScore() + "\n");
+            }
+        });
+    }
+
+    private static void writeLeaderboards(Path output, Map<String, List<TopTeam>> leaderboards) throws IOException {
+        write(output, writer -> {
+            for (Map.Entry<String, List<TopTeam>> leaderboard : leaderboards.entrySet()) {
+                List<TopTeam> teams = leaderboard.getValue();
+                for (int rank = 0; rank < teams.size(); rank++) {
+                    writer.write(leaderboard.getKey() + "," + (rank + 1) + "," + teams.get(rank).name() + "," + teams.get(rank).averageScore() + "\n");
+                }
+            }
+        });
+    }
+
+    private void writePercentiles(Path output, TeamRanking ranking, ExecutionContext jobContext) throws IOException {
+        write(output, writer -> {
+            if (ranking == null || ranking.scoreCount() == 0) {
+                return;
+            }
+            long scoreCount = ranking.scoreCount();
+            for (double percent : percentiles) {
+                double score = ranking.percentile(percent);
+                String name = percentileName(percent);
+                writer.write(name + "," + score + "\n");
+                jobContext.putDouble(name + ".score", score);
+                jobContext.putString(name + ".player", name + " of " + scoreCount + " players");
+            }
+        });
+    }
+
+    private interface LinesWriter {
+        void write(BufferedWriter writer) throws IOException;
+    }
+
+    // Written to a part file renamed once complete, so the output is never seen half-written
+    private static void write(Path output, LinesWriter lines) throws IOException {
+        Path part = output.resolveSibling(OutputCommitListener.partName(output.getFileName().toString()));
+        try (BufferedWriter writer = Files.newBufferedWriter(part, StandardCharsets.UTF_8)) {
+            lines.write(writer);
+        }
+        Files.move(part, output, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.debug("Team ranking written to {}", output);
+    }
+}
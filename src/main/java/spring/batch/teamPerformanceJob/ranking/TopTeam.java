@@ -0,0 +1,16 @@
+package spring.batch.teamPerformanceJob.ranking;
+
+// Team of a top list: teams with higher average come first, teams earlier in the input win on equal averages
+public record TopTeam(
+        String division,
+        String name,
+        double averageScore,
+        long sequence
+) implements Comparable<TopTeam> {
+
+    @Override
+    public int compareTo(TopTeam other) {
+        int byAverage = Double.compare(other.averageScore, averageScore);
+        return byAverage != 0 ? byAverage : Long.compare(sequence, other.sequence);
+    }
+}
@@ -0,0 +1,38 @@
+package spring.batch.teamPerformanceJob.ranking;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Bounded heap of the best k teams, the worst of them on top, so a team is offered in O(log k) without sorting the input
+class TopTeams {
+
+    private final int k;
+    private final PriorityQueue<TopTeam> heap;
+
+    TopTeams(int k) {
+        this.k = k;
+        this.heap = new PriorityQueue<>(k + 1, Collections.reverseOrder());
+    }
+
+    void offer(TopTeam team) {
+        if (heap.size() < k) {
+            heap.add(team);
+        } else if (team.compareTo(heap.peek()) < 0) {
+            heap.poll();
+            heap.add(team);
+        }
+    }
+
+    void clear() {
+        heap.clear();
+    }
+
+    // Best team first
+    List<TopTeam> sorted() {
+        List<TopTeam> teams = new ArrayList<>(heap);
+        Collections.sort(teams);
+        return teams;
+    }
+}
@@ -0,0 +1,91 @@
+package spring.batch.teamPerformanceJob.reader;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.file.BufferedReaderFactory;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Buffered reader factory exposing only [start, end) byte range of the resource,
+ * so {@link org.springframework.batch.item.file.FlatFileItemReader} reads lines of that range only
+ * (and its restart state, which is a count of read lines, becomes relative to the range start)
+ */
+@RequiredArgsConstructor
+public class ByteRangeBufferedReaderFactory implements BufferedReaderFactory {
+
+    private final long start;
+    private final long end;
+
+    @Override
+    public BufferedReader create(Resource resource, String encoding) throws IOException {
+        InputStream input;
+        if (resource.isFile()) {
+            FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+            input = Channels.newInputStream(channel.position(start));
+        } else {
+            input = resource.getInputStream();
+            input.skipNBytes(start);
+        }
+        return new BufferedReader(new InputStreamReader(new RangeInputStream(input, end - start), encoding));
+    }
+
+    // Input stream returning EOF once range length is consumed
+    private static class RangeInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        RangeInputStream(InputStream input, long length) {
+            super(input);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (count > 0) {
+                remaining -= count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package spring.batch.teamPerformanceJob.reader;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.file.BufferedReaderFactory;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * Buffered reader factory decoding compressed division files (see {@link DivisionCompression}) on a pipeline thread,
+ * so decompression of the file runs ahead of (and in parallel with) line parsing; plain files are read through
+ * the delegate factory (e.g. only a byte range of them). Compressed files are always read as a whole
+ */
+@RequiredArgsConstructor
+public class DecompressingBufferedReaderFactory implements BufferedReaderFactory {
+
+    // Decoded bytes buffered ahead of the parser: 4 x 64K
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BUFFERS = 4;
+
+    private final BufferedReaderFactory delegate;
+
+    @Override
+    public BufferedReader create(Resource resource, String encoding) throws IOException {
+        DivisionCompression compression = DivisionCompression.of(resource);
+        if (compression == DivisionCompression.NONE) {
+            return delegate.create(resource, encoding);
+        }
+        InputStream input = resource.getInputStream();
+        InputStream decoded;
+        try {
+            decoded = compression.decompress(input);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+        return new BufferedReader(new InputStreamReader(
+                new PipelinedInputStream(decoded, resource.getFilename(), BUFFER_SIZE, BUFFERS), encoding));
+    }
+}
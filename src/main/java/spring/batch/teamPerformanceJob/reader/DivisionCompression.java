@@ -0,0 +1,55 @@
+package spring.batch.teamPerformanceJob.reader;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compression of a division file, recognized by the file extension ("div1.txt.gz", "div1.txt.zst").
+ * Gzip files may consist of several members (e.g. concatenated archives) and zstd files of several frames,
+ * both are decoded as a single stream
+ */
+public enum DivisionCompression {
+
+    NONE(""),
+    GZIP(".gz"),
+    ZSTD(".zst");
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final String extension;
+
+    DivisionCompression(String extension) {
+        this.extension = extension;
+    }
+
+    public static DivisionCompression of(Resource resource) {
+        String filename = resource.getFilename();
+        if (filename != null) {
+            for (DivisionCompression compression : values()) {
+                if (compression != NONE && filename.endsWith(compression.extension)) {
+                    return compression;
+                }
+            }
+        }
+        return NONE;
+    }
+
+    // Division name of the file, i.e. file name without the compression extension
+    public static String divisionName(Resource resource) {
+        String filename = resource.getFilename();
+        DivisionCompression compression = of(resource);
+        return compression == NONE ? filename : filename.substring(0, filename.length() - compression.extension.length());
+    }
+
+    public InputStream decompress(InputStream input) throws IOException {
+        return switch (this) {
+            case NONE -> input;
+            case GZIP -> new GZIPInputStream(input, GZIP_BUFFER_SIZE);
+            case ZSTD -> new ZstdInputStream(input);
+        };
+    }
+}
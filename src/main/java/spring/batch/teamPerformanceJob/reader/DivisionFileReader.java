@@ -1,6 +1,7 @@
 package spring.batch.teamPerformanceJob.reader;
 
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import org.springframework.batch.item.*;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
@@ -8,12 +9,20 @@ import org.springframework.core.io.Resource;
 import spring.batch.teamPerformanceJob.domain.Team;
 
 import java.util.Optional;
+import java.util.function.LongConsumer;
 
 @RequiredArgsConstructor
 public class DivisionFileReader implements ResourceAwareItemReaderItemStream<Team> {
 
     private final FlatFileItemReader<String> delegateReader;
 
+    // Characters of the lines of every read team (plus a line separator each), i.e. bytes of ASCII input
+    @Setter
+    private LongConsumer readBytesConsumer = bytes -> {};
+
+    // Name of the division file (without compression extension), every read team plays in that division
+    private String division;
+
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
         // Make sure that resource specific calls are propagated to the delegate
@@ -21,6 +30,12 @@ public class DivisionFileReader implements ResourceAwareItemReaderItemStream<Tea
     }
 
 
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        // Make sure that line reader state is saved, otherwise restart would begin from the first line
+        delegateReader.update(executionContext);
+    }
+
     @Override
     public void close() throws ItemStreamException {
         // Make sure that resource specific calls are propagated to the delegate
@@ -31,6 +46,7 @@ public class DivisionFileReader implements ResourceAwareItemReaderItemStream<Tea
     public void setResource(Resource resource) {
         // Make sure that resource specific calls are propagated to the delegate
         delegateReader.setResource(resource);
+        division = DivisionCompression.divisionName(resource);
     }
 
 
@@ -39,33 +55,40 @@ public class DivisionFileReader implements ResourceAwareItemReaderItemStream<Tea
         // Create reference to the team (as optional), such that it's shared across line reads
         Optional<Team> maybeTeam = Optional.empty();
         String line;
+        long readBytes = 0;
 
         // Iterate over lines until team record is completed or EOF reached
         while ((line = delegateReader.read()) != null) {
+            readBytes += line.length() + 1;
             line = line.trim(); // Removing spaces left and right
             if (line.isEmpty()) { // Empty line designate end-of-record
+                readBytesConsumer.accept(readBytes);
                 return maybeTeam.orElse(null);
             } else if (!line.contains(":")) { // No colon means that team name is listed
-                maybeTeam = Optional.of(new Team(line));
+                Team team = new Team(line);
+                team.setDivision(division);
+                maybeTeam = Optional.of(team);
             } else { // Otherwise, we have a colon, and it's a sign that it's player's description
                 final String[] nameAndScores = line.split(":");
-                maybeTeam.ifPresent(team -> team.getScoredPlayers().add(parseScoredPlayer(nameAndScores)));
+                maybeTeam.ifPresent(team -> addScoredPlayer(team, nameAndScores));
             }
         }
 
         // It's possible that we've already accumulated an item, so EOF should not lose the progress
         // and team entity should be returned. This will cause DivisionFileReader.read() to be called again
         // and return null (in this case, team reference will be null), which is perfectly valid
+        if (readBytes > 0) {
+            readBytesConsumer.accept(readBytes);
+        }
         return maybeTeam.orElse(null);
     }
 
-    private Team.ScoredPlayer parseScoredPlayer(String[] nameAndScores){
+    private void addScoredPlayer(Team team, String[] nameAndScores){
         String name = nameAndScores[0];
         String[] scores = nameAndScores[1].split(",");
-        Team.ScoredPlayer scoredPlayer = new Team.ScoredPlayer(name);
+        team.addScoredPlayer(name);
         for (String score: scores){
-            scoredPlayer.getScores().add(Double.parseDouble(score));
+            team.addScore(Double.parseDouble(score));
         }
-        return scoredPlayer;
     }
 }
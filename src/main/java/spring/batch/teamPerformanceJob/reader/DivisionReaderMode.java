@@ -0,0 +1,7 @@
+package spring.batch.teamPerformanceJob.reader;
+
+// How division files are read: line by line through flat file reader or parsed from memory-mapped bytes
+public enum DivisionReaderMode {
+    FLAT,
+    MAPPED
+}
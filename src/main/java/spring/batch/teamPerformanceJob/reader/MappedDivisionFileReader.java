@@ -0,0 +1,290 @@
+package spring.batch.teamPerformanceJob.reader;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import spring.batch.teamPerformanceJob.domain.Team;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+/**
+ * Division file reader which memory-maps the file and parses team records straight from the mapped bytes,
+ * producing the same teams as {@link DivisionFileReader} over a line reader, but without line strings,
+ * split arrays and {@link Double#parseDouble} for plain fixed-point scores.
+ * Restart state is the byte offset of the next team record; optionally only [start, end) byte range is read
+ * (range boundaries are expected to be aligned on team records)
+ */
+public class MappedDivisionFileReader extends ItemStreamSupport implements ResourceAwareItemReaderItemStream<Team> {
+
+    private static final String POSITION_KEY = "position";
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    // Powers of ten which are exact doubles, so mantissa / 10^n is correctly rounded as Double.parseDouble is
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final long rangeStart;
+    private final long rangeEnd;
+
+    private Resource resource;
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+    private long end;
+    // File offset where the next team record starts
+    private long position;
+    // Scratch buffer for decoding names
+    private byte[] nameBytes = new byte[64];
+    // Bytes of every read team record
+    private LongConsumer readBytesConsumer = bytes -> {};
+
+    public MappedDivisionFileReader() {
+        this(0, Long.MAX_VALUE);
+    }
+
+    public MappedDivisionFileReader(long rangeStart, long rangeEnd) {
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        setName("mappedDivisionReader");
+    }
+
+    public void setWindowSize(int windowSize) {
+        Assert.isTrue(windowSize > 0, "Window size must be positive");
+        this.windowSize = windowSize;
+    }
+
+    public void setReadBytesConsumer(LongConsumer readBytesConsumer) {
+        this.readBytesConsumer = readBytesConsumer;
+    }
+
+    @Override
+    public void setResource(Resource resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        Assert.state(resource != null, "Resource must be set before division reader is opened");
+        if (DivisionCompression.of(resource) != DivisionCompression.NONE) {
+            throw new ItemStreamException("Compressed division resource " + resource + " can not be memory-mapped, it is read in FLAT reader mode only");
+        }
+        try {
+            channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+            end = Math.min(rangeEnd, channel.size());
+        } catch (IOException e) {
+            throw new ItemStreamException("Division resource " + resource + " can not be memory-mapped", e);
+        }
+        String positionKey = getExecutionContextKey(POSITION_KEY);
+        position = executionContext.containsKey(positionKey) ? executionContext.getLong(positionKey) : rangeStart;
+        window = null;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(getExecutionContextKey(POSITION_KEY), position);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        window = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new ItemStreamException("Division resource " + resource + " can not be closed", e);
+            } finally {
+                channel = null;
+            }
+        }
+    }
+
+    @Override
+    public Team read() throws Exception {
+        long recordStart = position;
+        Team team = readRecord();
+        if (position > recordStart) {
+            readBytesConsumer.accept(position - recordStart);
+        }
+        return team;
+    }
+
+    private Team readRecord() throws IOException {
+        while (position < end) {
+            if (window == null || position < windowStart || position >= windowEnd) {
+                map(position, windowSize);
+            }
+            Team team = parseRecord();
+            if (team != null || position >= end) {
+                return team;
+            }
+            // Record doesn't fit into the window: map it from its start into a bigger window and parse again
+            if (windowEnd - windowStart >= Integer.MAX_VALUE) {
+                throw new ItemStreamException("Team record at offset " + position + " of " + resource + " is too big");
+            }
+            map(position, (int) Math.min(Integer.MAX_VALUE, 2L * (windowEnd - windowStart)));
+        }
+        return null;
+    }
+
+    private void map(long from, int size) throws IOException {
+        long length = Math.min(size, end - from);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        windowStart = from;
+        windowEnd = from + length;
+    }
+
+    // Parses record at the current position; returns null (without moving position) if window ends before record does
+    private Team parseRecord() {
+        boolean lastWindow = windowEnd >= end;
+        int limit = window.limit();
+        int index = (int) (position - windowStart);
+        Team team = null;
+        while (index < limit) {
+            int lineEnd = indexOf((byte) '\n', index, limit);
+            if (lineEnd < 0 && !lastWindow) {
+                return null;
+            }
+            int next = lineEnd < 0 ? limit : lineEnd + 1;
+            // Same as String.trim(): anything up to space is a whitespace
+            int start = index;
+            int stop = lineEnd < 0 ? limit : lineEnd;
+            while (start < stop && window.get(start) <= ' ') {
+                start++;
+            }
+            while (stop > start && window.get(stop - 1) <= ' ') {
+                stop--;
+            }
+            if (start == stop) { // Empty line designate end-of-record
+                position = windowStart + next;
+                if (team == null) {
+                    // Same as line based reader: blank line without team ends the file
+                    position = end;
+                }
+                return team;
+            }
+            int colon = indexOf((byte) ':', start, stop);
+            if (colon < 0) { // No colon means that team name is listed
+                team = new Team(decode(start, stop));
+                team.setDivision(DivisionCompression.divisionName(resource));
+            } else if (team != null) { // Otherwise, it's player's description
+                addScoredPlayer(team, start, colon, stop);
+            }
+            index = next;
+        }
+        if (!lastWindow) {
+            return null;
+        }
+        // EOF should not lose the progress, accumulated team is returned
+        position = end;
+        return team;
+    }
+
+    // Same as split(":") and split(",") of the line reader: trailing empty scores are dropped, other empty scores fail
+    // (NumberFormatException), and so does a player with nothing but colons after the name (ArrayIndexOutOfBoundsException)
+    private void addScoredPlayer(Team team, int start, int colon, int stop) {
+        if (indexOfOtherThan((byte) ':', colon + 1, stop) < 0) {
+            throw new ArrayIndexOutOfBoundsException("Player " + decode(start, colon) + " has no scores");
+        }
+        team.addScoredPlayer(decode(start, colon));
+        // Scores are listed up to the next colon, if any
+        int scoresEnd = indexOf((byte) ':', colon + 1, stop);
+        if (scoresEnd < 0) {
+            scoresEnd = stop;
+        }
+        if (indexOf((byte) ',', colon + 1, scoresEnd) < 0) {
+            // Single score, even an empty one
+            team.addScore(parseScore(colon + 1, scoresEnd));
+            return;
+        }
+        while (scoresEnd > colon + 1 && window.get(scoresEnd - 1) == ',') {
+            scoresEnd--;
+        }
+        int tokenStart = colon + 1;
+        while (tokenStart < scoresEnd) {
+            int tokenEnd = indexOf((byte) ',', tokenStart, scoresEnd);
+            if (tokenEnd < 0) {
+                tokenEnd = scoresEnd;
+            }
+            team.addScore(parseScore(tokenStart, tokenEnd));
+            tokenStart = tokenEnd + 1;
+        }
+    }
+
+    private double parseScore(int start, int stop) {
+        int index = start;
+        while (index < stop && window.get(index) <= ' ') {
+            index++;
+        }
+        int last = stop;
+        while (last > index && window.get(last - 1) <= ' ') {
+            last--;
+        }
+        boolean negative = false;
+        if (index < last && (window.get(index) == '-' || window.get(index) == '+')) {
+            negative = window.get(index) == '-';
+            index++;
+        }
+        long mantissa = 0;
+        int fractionDigits = -1;
+        int digits = 0;
+        for (; index < last; index++) {
+            byte b = window.get(index);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (index < last || digits == 0 || digits > 18 || mantissa > MAX_EXACT_MANTISSA) {
+            // Not a plain fixed-point number (exponent, too many digits, etc.), leave it to the JDK
+            return Double.parseDouble(decode(start, stop));
+        }
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private int indexOf(byte value, int from, int to) {
+        for (int index = from; index < to; index++) {
+            if (window.get(index) == value) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOfOtherThan(byte value, int from, int to) {
+        for (int index = from; index < to; index++) {
+            if (window.get(index) != value) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private String decode(int start, int stop) {
+        int length = stop - start;
+        if (nameBytes.length < length) {
+            nameBytes = new byte[Math.max(length, 2 * nameBytes.length)];
+        }
+        window.get(start, nameBytes, 0, length);
+        return new String(nameBytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+package spring.batch.teamPerformanceJob.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Input stream read ahead by a pipeline thread: the thread reads the source (e.g. a decompressing stream) into
+ * a few recycled buffers handed over through a bounded queue, so decoding of the next buffers overlaps with parsing
+ * of the current one. Failure of the source is rethrown once the buffers read before it are consumed.
+ * Not thread-safe (single reader), closing stops the pipeline thread and closes the source
+ */
+public class PipelinedInputStream extends InputStream {
+
+    // Filled part of a buffer, or the end of the source (length -1) with its failure (if any)
+    private record Block(byte[] buffer, int length, IOException failure) {
+    }
+
+    private final InputStream source;
+    private final BlockingQueue<byte[]> free;
+    private final BlockingQueue<Block> filled;
+    private final Thread pipeline;
+
+    private Block current;
+    private int position;
+    private boolean closed;
+
+    public PipelinedInputStream(InputStream source, String name, int bufferSize, int buffers) {
+        this.source = source;
+        this.free = new ArrayBlockingQueue<>(buffers);
+        this.filled = new ArrayBlockingQueue<>(buffers + 1);
+        for (int i = 0; i < buffers; i++) {
+            free.add(new byte[bufferSize]);
+        }
+        this.pipeline = Thread.ofPlatform().name("pipeline-" + name).daemon().start(this::fill);
+    }
+
+    private void fill() {
+        IOException failure = null;
+        try {
+            while (true) {
+                byte[] buffer = free.take();
+                int length = source.readNBytes(buffer, 0, buffer.length);
+                if (length > 0) {
+                    filled.put(new Block(buffer, length, null));
+                }
+                if (length < buffer.length) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            // Closed by the reader, nobody waits for the end
+            return;
+        }
+        // Queue has room for the end, as it holds at most every buffer once
+        filled.add(new Block(null, -1, failure));
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        return current.buffer()[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        int count = Math.min(length, current.length() - position);
+        System.arraycopy(current.buffer(), position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    // Makes the next block current once the current one is consumed, false at the end of the source
+    private boolean ensureAvailable() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (current == null || current.length() >= 0 && position == current.length()) {
+            if (current != null) {
+                free.add(current.buffer());
+            }
+            try {
+                current = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the pipeline");
+            }
+            position = 0;
+        }
+        if (current.length() < 0) {
+            if (current.failure() != null) {
+                throw current.failure();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pipeline.interrupt();
+        try {
+            // Source is closed only once the pipeline thread is done with it
+            pipeline.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            source.close();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package spring.batch.teamPerformanceJob.reader;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.core.io.Resource;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.RankedAverageScoredTeam;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Reader of a single per-rank average file, which tags every team average with the rank of the file
+ * (rank is resolved from the resource, when it's set by multi resource reader)
+ */
+@RequiredArgsConstructor
+public class RankedAverageFileReader implements ResourceAwareItemReaderItemStream<RankedAverageScoredTeam> {
+
+    private final FlatFileItemReader<AverageScoredTeam> delegateReader;
+    private final ToIntFunction<Resource> resourceRank;
+
+    private int rank;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        // Make sure that resource specific calls are propagated to the delegate
+        delegateReader.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        delegateReader.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        delegateReader.close();
+    }
+
+    @Override
+    public void setResource(Resource resource) {
+        delegateReader.setResource(resource);
+        rank = resourceRank.applyAsInt(resource);
+    }
+
+    @Override
+    public RankedAverageScoredTeam read() throws Exception {
+        AverageScoredTeam team = delegateReader.read();
+        return team == null ? null : new RankedAverageScoredTeam(rank, team);
+    }
+}
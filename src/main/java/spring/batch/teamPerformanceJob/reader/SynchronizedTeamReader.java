@@ -0,0 +1,55 @@
+package spring.batch.teamPerformanceJob.reader;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import spring.batch.teamPerformanceJob.domain.Team;
+
+/**
+ * Front end of team readers: hands out whole teams (assembled from several lines by the delegate) to any number
+ * of threads, and numbers them in read order, so players can be ordered by input position whatever thread
+ * processes them. Sequence is saved with the delegate state, unless state is not saved at all
+ * (e.g. in multi-threaded step, which can only be restarted from the beginning)
+ */
+@RequiredArgsConstructor
+public class SynchronizedTeamReader implements ItemStreamReader<Team> {
+
+    private static final String SEQUENCE_KEY = "synchronizedTeamReader.sequence";
+
+    private final ItemStreamReader<Team> delegate;
+
+    @Setter
+    private boolean saveState = true;
+
+    private long sequence;
+
+    @Override
+    public synchronized Team read() throws Exception {
+        Team team = delegate.read();
+        if (team != null) {
+            team.setSequence(sequence++);
+        }
+        return team;
+    }
+
+    @Override
+    public synchronized void open(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+        sequence = saveState ? executionContext.getLong(SEQUENCE_KEY, 0) : 0;
+    }
+
+    @Override
+    public synchronized void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (saveState) {
+            delegate.update(executionContext);
+            executionContext.putLong(SEQUENCE_KEY, sequence);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws ItemStreamException {
+        delegate.close();
+    }
+}
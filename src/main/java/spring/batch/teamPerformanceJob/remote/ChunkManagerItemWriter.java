@@ -0,0 +1,163 @@
+package spring.batch.teamPerformanceJob.remote;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.processor.ScoreExtremes;
+
+import java.util.ArrayList;
+import java.util.function.UnaryOperator;
+
+import static spring.batch.teamPerformanceJob.CommonConstants.*;
+
+/**
+ * Manager side of remote chunking: "writes" a chunk of teams by sending it to the workers, without waiting for them,
+ * so reading goes on while workers process and write averages. Responses are collected as they come, and all of them
+ * are awaited at the end of input (before the last chunk commit), so the step completes only once every chunk is
+ * written. Best and worst player of the chunks are merged (earlier chunk wins on equal scores, as in sequential
+ * processing) and put in step context just like the processor does; skips of workers are added to the step execution.
+ * Order in which workers write averages is not defined, so the step can only be restarted from the beginning.
+ * Same as ChunkMessageChannelItemWriter of spring-batch-integration, without the dependency
+ */
+@Slf4j
+public class ChunkManagerItemWriter implements ItemStreamWriter<Team> {
+
+    private final ChunkTransport transport;
+    private final int skipLimit;
+    private final long replyTimeoutMillis;
+
+    private final ScoreExtremes scoreExtremes = new ScoreExtremes();
+
+    private long sent;
+    private long received;
+    private int skipCount;
+    private volatile boolean endOfInput;
+
+    public ChunkManagerItemWriter(ChunkTransport transport, int skipLimit, long replyTimeoutMillis) {
+        this.transport = transport;
+        this.skipLimit = skipLimit;
+        this.replyTimeoutMillis = replyTimeoutMillis;
+    }
+
+    // Reader of the manager step, the end of its input is the signal to await all responses
+    public ItemStreamReader<Team> endOfInputSignalling(ItemStreamReader<Team> reader) {
+        return new ItemStreamReader<>() {
+            @Override
+            public Team read() throws Exception {
+                Team team = reader.read();
+                if (team == null) {
+                    endOfInput = true;
+                }
+                return team;
+            }
+
+            @Override
+            public void open(ExecutionContext executionContext) throws ItemStreamException {
+                reader.open(executionContext);
+            }
+
+            @Override
+            public void update(ExecutionContext executionContext) throws ItemStreamException {
+                reader.update(executionContext);
+            }
+
+            @Override
+            public void close() throws ItemStreamException {
+                reader.close();
+            }
+        };
+    }
+
+    @Override
+    public void write(Chunk<? extends Team> chunk) throws Exception {
+        collect(0);
+        transport.send(new ChunkRequest(sent, new ArrayList<>(chunk.getItems())));
+        sent++;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        scoreExtremes.restore(executionContext, UnaryOperator.identity());
+        sent = 0;
+        received = 0;
+        skipCount = 0;
+        endOfInput = false;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            if (endOfInput) {
+                while (received < sent) {
+                    if (!collect(replyTimeoutMillis)) {
+                        throw new ItemStreamException("No reply of chunk workers within " + replyTimeoutMillis + " ms, "
+                                + (sent - received) + " chunks are not written");
+                    }
+                }
+            } else {
+                collect(0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ItemStreamException("Interrupted while waiting for chunk workers", e);
+        }
+        scoreExtremes.publish(executionContext, UnaryOperator.identity());
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (received < sent) {
+            log.warn("{} chunks sent to workers were left without reply", sent - received);
+        }
+    }
+
+    // Handles responses received so far (waiting up to the timeout for the first one), false if there was none
+    private boolean collect(long timeoutMillis) throws InterruptedException {
+        ChunkResponse response = transport.receive(timeoutMillis);
+        if (response == null) {
+            return false;
+        }
+        while (response != null) {
+            handle(response);
+            response = transport.receive(0);
+        }
+        return true;
+    }
+
+    private void handle(ChunkResponse response) {
+        received++;
+        if (response.failure() != null) {
+            throw new ItemStreamException("Chunk " + response.sequence() + " failed in worker", response.failure());
+        }
+        ExecutionContext extremes = response.extremes();
+        // Chunk sequence stands for team sequence, as every chunk holds the teams read after those of earlier chunks
+        if (extremes.containsKey(MAX_SCORE)) {
+            scoreExtremes.accept(extremes.getDouble(MAX_SCORE), extremes.getString(MAX_PLAYER), response.sequence(), 0);
+        }
+        if (extremes.containsKey(MIN_SCORE)) {
+            scoreExtremes.accept(extremes.getDouble(MIN_SCORE), extremes.getString(MIN_PLAYER), response.sequence(), 0);
+        }
+        if (response.skipCount() > 0) {
+            skipCount += response.skipCount();
+            // Skipped teams were counted as written by the manager, now they are counted as skipped in process
+            StepContext stepContext = StepSynchronizationManager.getContext();
+            if (stepContext != null) {
+                StepExecution stepExecution = stepContext.getStepExecution();
+                stepExecution.setProcessSkipCount(stepExecution.getProcessSkipCount() + response.skipCount());
+                stepExecution.setWriteCount(stepExecution.getWriteCount() - response.skipCount());
+            }
+            if (skipCount > skipLimit) {
+                throw new SkipLimitExceededException(skipLimit, new IndexOutOfBoundsException(
+                        skipCount + " teams without the score rank were skipped by chunk workers"));
+            }
+        }
+    }
+}
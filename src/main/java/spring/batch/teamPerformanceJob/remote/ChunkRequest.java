@@ -0,0 +1,12 @@
+package spring.batch.teamPerformanceJob.remote;
+
+import spring.batch.teamPerformanceJob.domain.Team;
+
+import java.util.List;
+
+// Chunk of teams sent by the manager to a worker, numbered in read order
+public record ChunkRequest(
+        long sequence,
+        List<Team> teams
+) {
+}
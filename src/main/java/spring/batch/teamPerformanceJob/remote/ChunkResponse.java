@@ -0,0 +1,20 @@
+package spring.batch.teamPerformanceJob.remote;
+
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Reply of a worker to the chunk request: number of teams skipped for a player without the score rank,
+ * best and worst player of the chunk (as published by the processor, under "max.*" and "min.*" keys),
+ * or the failure of the chunk, which is then not written at all
+ */
+public record ChunkResponse(
+        long sequence,
+        int skipCount,
+        ExecutionContext extremes,
+        Exception failure
+) {
+
+    static ChunkResponse failed(long sequence, Exception failure) {
+        return new ChunkResponse(sequence, 0, new ExecutionContext(), failure);
+    }
+}
@@ -0,0 +1,20 @@
+package spring.batch.teamPerformanceJob.remote;
+
+/**
+ * Channel between the manager of remote chunking and its workers. Manager sends chunk requests and receives responses,
+ * workers take requests and reply to them. Sending blocks while the transport is full, so the reader never runs far
+ * ahead of the workers. Implementations are thread-safe
+ */
+public interface ChunkTransport {
+
+    // Manager side
+    void send(ChunkRequest request) throws InterruptedException;
+
+    // Next response of any worker, null if there is none within the timeout
+    ChunkResponse receive(long timeoutMillis) throws InterruptedException;
+
+    // Worker side: next request, null if there is none within the timeout
+    ChunkRequest nextRequest(long timeoutMillis) throws InterruptedException;
+
+    void reply(ChunkResponse response);
+}
@@ -0,0 +1,58 @@
+package spring.batch.teamPerformanceJob.remote;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.WriteFailedException;
+import org.springframework.transaction.support.TransactionTemplate;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.processor.TeamAverageProcessor;
+
+/**
+ * Worker side of remote chunking: processes teams of the chunk request and writes their averages in one transaction.
+ * Teams with a player not having the score rank are skipped and counted, the manager applies the skip limit to all
+ * chunks. Best and worst player of the chunk are sent back to be merged by the manager, so every chunk is processed
+ * by a fresh processor. Any other failure fails the whole chunk, nothing of it is written then
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ChunkWorker {
+
+    private final int scoreRank;
+    // Thread-safe, shared by all workers of the step
+    private final ItemWriter<AverageScoredTeam> writer;
+    private final TransactionTemplate transactionTemplate;
+
+    public ChunkResponse handle(ChunkRequest request) {
+        TeamAverageProcessor processor = new TeamAverageProcessor(scoreRank);
+        processor.open(new ExecutionContext());
+        Chunk<AverageScoredTeam> averages = new Chunk<>();
+        int skipCount = 0;
+        try {
+            for (Team team : request.teams()) {
+                try {
+                    averages.add(processor.process(team));
+                } catch (IndexOutOfBoundsException e) {
+                    log.info("Error while processing team {}, item is skipped", team.getName());
+                    log.info("Reason: {} -> {}", e.getClass().getName(), e.getLocalizedMessage());
+                    skipCount++;
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    writer.write(averages);
+                } catch (Exception e) {
+                    throw new WriteFailedException("Averages of chunk " + request.sequence() + " can not be written", e);
+                }
+            });
+        } catch (Exception e) {
+            return ChunkResponse.failed(request.sequence(), e);
+        }
+        ExecutionContext extremes = new ExecutionContext();
+        processor.update(extremes);
+        return new ChunkResponse(request.sequence(), skipCount, extremes, null);
+    }
+}
@@ -0,0 +1,90 @@
+package spring.batch.teamPerformanceJob.remote;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Workers of remote chunking running in the manager's JVM, one executor thread each, for as long as the step is open.
+ * Workers own the stream of their writer: it is opened before they start and closed once they stopped (requests
+ * still queued by a failed step are dropped). Separate worker processes would run the same {@link ChunkWorker}
+ * over a transport of their own
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class LocalChunkWorkers implements ItemStream {
+
+    // How often an idle worker checks whether it should stop
+    private static final long POLL_MILLIS = 100;
+
+    private final ChunkTransport transport;
+    private final ChunkWorker worker;
+    private final ItemStream writerStream;
+    private final TaskExecutor taskExecutor;
+    private final int workers;
+
+    private volatile boolean running;
+    private CountDownLatch stopped;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        writerStream.open(executionContext);
+        // Step scoped writer is resolved in the step context, so it is registered in worker threads too
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        running = true;
+        stopped = new CountDownLatch(workers);
+        for (int i = 0; i < workers; i++) {
+            taskExecutor.execute(() -> run(stepContext));
+        }
+    }
+
+    private void run(StepContext stepContext) {
+        if (stepContext != null) {
+            StepSynchronizationManager.register(stepContext.getStepExecution());
+        }
+        try {
+            while (running) {
+                ChunkRequest request = transport.nextRequest(POLL_MILLIS);
+                if (request != null) {
+                    transport.reply(worker.handle(request));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (stepContext != null) {
+                // Only unregisters the context, release would also destroy step scoped beans still used by the step
+                StepSynchronizationManager.close();
+            }
+            stopped.countDown();
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        writerStream.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        running = false;
+        try {
+            // Chunks being written are completed before the writer is closed
+            if (stopped != null) {
+                stopped.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for chunk workers to stop");
+        } finally {
+            writerStream.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package spring.batch.teamPerformanceJob.remote;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process transport: requests wait in a bounded queue for the first idle worker, responses are queued back
+ * to the manager. Stands in for a message broker when manager and workers run in the same JVM
+ */
+public class QueueChunkTransport implements ChunkTransport {
+
+    private final BlockingQueue<ChunkRequest> requests;
+    // Not bounded, as there are never more responses than requests sent and not received yet
+    private final BlockingQueue<ChunkResponse> responses = new LinkedBlockingQueue<>();
+
+    public QueueChunkTransport(int capacity) {
+        this.requests = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void send(ChunkRequest request) throws InterruptedException {
+        requests.put(request);
+    }
+
+    @Override
+    public ChunkResponse receive(long timeoutMillis) throws InterruptedException {
+        return responses.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public ChunkRequest nextRequest(long timeoutMillis) throws InterruptedException {
+        return requests.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void reply(ChunkResponse response) {
+        responses.add(response);
+    }
+}
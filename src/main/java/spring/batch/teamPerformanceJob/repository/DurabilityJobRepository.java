@@ -0,0 +1,293 @@
+package spring.batch.teamPerformanceJob.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.transaction.support.TransactionOperations;
+import spring.batch.teamPerformanceJob.CommonConstants;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Job repository decorator applying durability of the job (see {@link RepositoryDurability}):
+ * FULL jobs go straight to the delegate, NONE jobs are kept by an in-memory repository (recognized by negative ids),
+ * and updates of running steps of RELAXED jobs are buffered. Buffered update is a snapshot of the step execution
+ * and its context taken by the step thread, so it is consistent with the chunk just committed; only the latest
+ * snapshot of every step execution is flushed (all of them in one transaction) by the flusher thread.
+ * Any other update of a buffered step execution (e.g. when the step is finished) discards its pending snapshot
+ * and is written at once, with the version of the last flushed snapshot
+ */
+@Slf4j
+public class DurabilityJobRepository implements JobRepository {
+
+    private record PendingUpdate(StepExecution stepExecution, StepExecution snapshot) {
+    }
+
+    private final JobRepository delegate;
+    private final InMemoryJobRepository inMemoryJobRepository = new InMemoryJobRepository();
+    private final RepositoryDurability defaultDurability;
+    private final Supplier<TransactionOperations> flushTransaction;
+    private final ScheduledExecutorService flusher;
+
+    // Latest snapshot of every buffered step execution by its id
+    private final Map<Long, PendingUpdate> pendingUpdates = new ConcurrentHashMap<>();
+    // Versions of flushed snapshots (step execution itself is left with the version it had when buffering started)
+    private final Map<Long, Integer> flushedVersions = new ConcurrentHashMap<>();
+    // Flush and synchronous update of a buffered step execution don't interleave
+    private final Object flushLock = new Object();
+    private volatile boolean closed;
+
+    public DurabilityJobRepository(JobRepository delegate, RepositoryDurability defaultDurability,
+                                   Supplier<TransactionOperations> flushTransaction, long flushIntervalMillis) {
+        this.delegate = delegate;
+        this.defaultDurability = defaultDurability;
+        this.flushTransaction = flushTransaction;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "job-repository-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public RepositoryDurability durability(JobParameters jobParameters) {
+        String durability = jobParameters.getString(CommonConstants.DURABILITY_PARAM);
+        return durability != null ? RepositoryDurability.valueOf(durability) : defaultDurability;
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+            throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+        if (durability(jobParameters) == RepositoryDurability.NONE) {
+            return inMemoryJobRepository.createJobExecution(jobName, jobParameters);
+        }
+        return delegate.createJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void update(JobExecution jobExecution) {
+        repository(jobExecution).update(jobExecution);
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        repository(jobExecution).updateExecutionContext(jobExecution);
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        repository(stepExecution.getJobExecution()).add(stepExecution);
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        if (!stepExecutions.isEmpty()) {
+            repository(stepExecutions.iterator().next().getJobExecution()).addAll(stepExecutions);
+        }
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        if (InMemoryJobRepository.isInMemory(stepExecution.getJobExecutionId())) {
+            inMemoryJobRepository.update(stepExecution);
+        } else if (isBuffered(stepExecution)) {
+            buffer(stepExecution);
+        } else {
+            writeThrough(stepExecution, () -> delegate.update(stepExecution));
+        }
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        if (InMemoryJobRepository.isInMemory(stepExecution.getJobExecutionId())) {
+            inMemoryJobRepository.updateExecutionContext(stepExecution);
+        } else if (isBuffered(stepExecution)) {
+            buffer(stepExecution);
+        } else {
+            writeThrough(stepExecution, () -> delegate.updateExecutionContext(stepExecution));
+        }
+    }
+
+    // Only chunk updates of running steps are buffered, start and end of every step are written at once
+    private boolean isBuffered(StepExecution stepExecution) {
+        return !closed
+                && stepExecution.getStatus() == BatchStatus.STARTED
+                && durability(stepExecution.getJobExecution().getJobParameters()) == RepositoryDurability.RELAXED;
+    }
+
+    private void buffer(StepExecution stepExecution) {
+        pendingUpdates.put(stepExecution.getId(), new PendingUpdate(stepExecution, snapshot(stepExecution)));
+    }
+
+    private void writeThrough(StepExecution stepExecution, Runnable update) {
+        // Step execution of a relaxed job may be being flushed (its snapshot is neither pending nor flushed yet),
+        // so the update waits for the flush and takes the version it wrote
+        if (durability(stepExecution.getJobExecution().getJobParameters()) != RepositoryDurability.RELAXED) {
+            update.run();
+            return;
+        }
+        synchronized (flushLock) {
+            pendingUpdates.remove(stepExecution.getId());
+            Integer flushedVersion = flushedVersions.remove(stepExecution.getId());
+            if (flushedVersion != null) {
+                stepExecution.setVersion(flushedVersion);
+            }
+            update.run();
+        }
+    }
+
+    // Writes the latest snapshot of every buffered step execution in a single transaction
+    public void flush() {
+        synchronized (flushLock) {
+            if (pendingUpdates.isEmpty()) {
+                return;
+            }
+            List<PendingUpdate> updates = new ArrayList<>(pendingUpdates.values());
+            updates.forEach(update -> pendingUpdates.remove(update.stepExecution().getId(), update));
+            Map<Long, Integer> versions = new HashMap<>();
+            try {
+                flushTransaction.get().executeWithoutResult(status -> updates.forEach(update -> {
+                    StepExecution snapshot = update.snapshot();
+                    Integer flushedVersion = flushedVersions.get(snapshot.getId());
+                    if (flushedVersion != null) {
+                        snapshot.setVersion(flushedVersion);
+                    }
+                    delegate.updateExecutionContext(snapshot);
+                    delegate.update(snapshot);
+                    versions.put(snapshot.getId(), snapshot.getVersion());
+                }));
+            } catch (RuntimeException e) {
+                // Snapshots are superseded by the next chunk or by the end of the step, versions are left as flushed
+                log.warn("Buffered step execution updates could not be flushed", e);
+                return;
+            }
+            flushedVersions.putAll(versions);
+            for (PendingUpdate update : updates) {
+                // Job stop requested by operator is noticed on flush instead of every chunk commit
+                if (update.snapshot().isTerminateOnly()) {
+                    update.stepExecution().setTerminateOnly();
+                }
+            }
+        }
+    }
+
+    // Pending updates are flushed, and later updates of running steps are written at once
+    public void close() {
+        closed = true;
+        flusher.shutdown();
+        flush();
+    }
+
+    // Copy of the step execution state, with a copy of the job execution, so the delegate doesn't change live executions
+    private static StepExecution snapshot(StepExecution stepExecution) {
+        JobExecution jobExecution = stepExecution.getJobExecution();
+        JobExecution jobExecutionSnapshot = new JobExecution(jobExecution.getJobInstance(), jobExecution.getId(), jobExecution.getJobParameters());
+        jobExecutionSnapshot.setVersion(jobExecution.getVersion());
+        jobExecutionSnapshot.setStatus(jobExecution.getStatus());
+        StepExecution snapshot = new StepExecution(stepExecution.getStepName(), jobExecutionSnapshot, stepExecution.getId());
+        snapshot.setVersion(stepExecution.getVersion());
+        snapshot.setStatus(stepExecution.getStatus());
+        snapshot.setExitStatus(stepExecution.getExitStatus());
+        snapshot.setReadCount(stepExecution.getReadCount());
+        snapshot.setWriteCount(stepExecution.getWriteCount());
+        snapshot.setFilterCount(stepExecution.getFilterCount());
+        snapshot.setCommitCount(stepExecution.getCommitCount());
+        snapshot.setRollbackCount(stepExecution.getRollbackCount());
+        snapshot.setReadSkipCount(stepExecution.getReadSkipCount());
+        snapshot.setProcessSkipCount(stepExecution.getProcessSkipCount());
+        snapshot.setWriteSkipCount(stepExecution.getWriteSkipCount());
+        snapshot.setCreateTime(stepExecution.getCreateTime());
+        snapshot.setStartTime(stepExecution.getStartTime());
+        snapshot.setEndTime(stepExecution.getEndTime());
+        snapshot.setLastUpdated(stepExecution.getLastUpdated());
+        snapshot.setExecutionContext(new ExecutionContext(stepExecution.getExecutionContext()));
+        return snapshot;
+    }
+
+    private JobRepository repository(JobExecution jobExecution) {
+        return InMemoryJobRepository.isInMemory(jobExecution.getId()) ? inMemoryJobRepository : delegate;
+    }
+
+    private JobRepository repository(JobInstance jobInstance) {
+        return InMemoryJobRepository.isInMemory(jobInstance.getInstanceId()) ? inMemoryJobRepository : delegate;
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return repository(jobInstance).getLastStepExecution(jobInstance, stepName);
+    }
+
+    @Override
+    public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return repository(jobInstance).getStepExecutionCount(jobInstance, stepName);
+    }
+
+    @Override
+    public List<JobExecution> findJobExecutions(JobInstance jobInstance) {
+        return repository(jobInstance).findJobExecutions(jobInstance);
+    }
+
+    @Override
+    public void deleteStepExecution(StepExecution stepExecution) {
+        repository(stepExecution.getJobExecution()).deleteStepExecution(stepExecution);
+    }
+
+    @Override
+    public void deleteJobExecution(JobExecution jobExecution) {
+        repository(jobExecution).deleteJobExecution(jobExecution);
+    }
+
+    @Override
+    public void deleteJobInstance(JobInstance jobInstance) {
+        repository(jobInstance).deleteJobInstance(jobInstance);
+    }
+
+    // Job instances are looked up in the database only, in-memory jobs are never restarted
+
+    @Override
+    public List<String> getJobNames() {
+        return delegate.getJobNames();
+    }
+
+    @Override
+    public List<JobInstance> findJobInstancesByName(String jobName, int start, int count) {
+        return delegate.findJobInstancesByName(jobName, start, count);
+    }
+
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return delegate.isJobInstanceExists(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        return delegate.createJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance getJobInstance(String jobName, JobParameters jobParameters) {
+        return delegate.getJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        return delegate.getLastJobExecution(jobName, jobParameters);
+    }
+}
@@ -0,0 +1,51 @@
+package spring.batch.teamPerformanceJob.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Decorates job repository beans with {@link DurabilityJobRepository}, so every job is persisted by its durability.
+ * Properties are read from the environment, as post processor is created before the configuration is.
+ * Buffered updates are flushed when the context is closed (before the data source is)
+ */
+@RequiredArgsConstructor
+public class DurabilityJobRepositoryPostProcessor implements BeanPostProcessor, ApplicationListener<ContextClosedEvent> {
+
+    private final Environment environment;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    private final List<DurabilityJobRepository> repositories = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (!(bean instanceof JobRepository jobRepository) || bean instanceof DurabilityJobRepository) {
+            return bean;
+        }
+        DurabilityJobRepository repository = new DurabilityJobRepository(jobRepository,
+                environment.getProperty("team-performance.repository.durability", RepositoryDurability.class, RepositoryDurability.FULL),
+                // Flushed without transaction when there is no transaction manager (every statement commits on its own)
+                () -> transactionManager.getIfUnique() instanceof PlatformTransactionManager manager
+                        ? new TransactionTemplate(manager)
+                        : TransactionOperations.withoutTransaction(),
+                environment.getProperty("team-performance.repository.flush-interval-ms", Long.class, 1000L));
+        repositories.add(repository);
+        return repository;
+    }
+
+    @Override
+    public void onApplicationEvent(@NonNull ContextClosedEvent event) {
+        repositories.forEach(DurabilityJobRepository::close);
+    }
+}
@@ -0,0 +1,130 @@
+package spring.batch.teamPerformanceJob.repository;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Job repository keeping job and step executions in memory only, while the job is running.
+ * Ids are negative, so they never collide with ids of the database repository running next to it.
+ * Executions are live objects, so execution context updates don't need to be saved
+ */
+class InMemoryJobRepository implements JobRepository {
+
+    private final AtomicLong lastId = new AtomicLong();
+    // Running job executions by job instance id (every job instance has a single execution)
+    private final Map<Long, JobExecution> jobExecutions = new ConcurrentHashMap<>();
+
+    static boolean isInMemory(Long id) {
+        return id != null && id < 0;
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters) {
+        JobInstance jobInstance = new JobInstance(nextId(), jobName);
+        jobInstance.incrementVersion();
+        JobExecution jobExecution = new JobExecution(jobInstance, nextId(), jobParameters);
+        jobExecution.setExecutionContext(new ExecutionContext());
+        jobExecution.setLastUpdated(LocalDateTime.now());
+        jobExecution.incrementVersion();
+        jobExecutions.put(jobInstance.getInstanceId(), jobExecution);
+        return jobExecution;
+    }
+
+    // Job execution is dropped with its final update
+    @Override
+    public void update(JobExecution jobExecution) {
+        jobExecution.setLastUpdated(LocalDateTime.now());
+        jobExecution.incrementVersion();
+        if (jobExecution.getEndTime() != null && !jobExecution.isRunning()) {
+            jobExecutions.remove(jobExecution.getJobInstance().getInstanceId());
+        }
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        stepExecution.setId(nextId());
+        stepExecution.setLastUpdated(LocalDateTime.now());
+        stepExecution.incrementVersion();
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        stepExecutions.forEach(this::add);
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        stepExecution.setLastUpdated(LocalDateTime.now());
+        stepExecution.incrementVersion();
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        // Ids are negative, so the last added step execution has the lowest id
+        return stepExecutions(jobInstance, stepName)
+                .min(Comparator.comparing(StepExecution::getId))
+                .orElse(null);
+    }
+
+    @Override
+    public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return stepExecutions(jobInstance, stepName).count();
+    }
+
+    // Only saved (added) step executions count, as in the database repository
+    private Stream<StepExecution> stepExecutions(JobInstance jobInstance, String stepName) {
+        JobExecution jobExecution = jobExecutions.get(jobInstance.getInstanceId());
+        if (jobExecution == null) {
+            return Stream.empty();
+        }
+        return List.copyOf(jobExecution.getStepExecutions()).stream()
+                .filter(stepExecution -> stepExecution.getId() != null && stepExecution.getStepName().equals(stepName));
+    }
+
+    @Override
+    public List<JobExecution> findJobExecutions(JobInstance jobInstance) {
+        JobExecution jobExecution = jobExecutions.get(jobInstance.getInstanceId());
+        return jobExecution != null ? List.of(jobExecution) : List.of();
+    }
+
+    // In-memory job instances are never looked up by parameters (they can't be restarted)
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return false;
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        throw new UnsupportedOperationException("Job instances are created along with job executions");
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        return null;
+    }
+
+    private long nextId() {
+        return -lastId.incrementAndGet();
+    }
+}
@@ -0,0 +1,12 @@
+package spring.batch.teamPerformanceJob.repository;
+
+// How job repository persists step executions of a job (job parameter "durability", property default otherwise)
+public enum RepositoryDurability {
+    // Every step execution and context update is written in the chunk transaction (Spring Batch default)
+    FULL,
+    // Updates of running steps are coalesced and flushed periodically in one transaction, start and end of every step
+    // are written at once; restart resumes from the last flushed chunk instead of the last committed one
+    RELAXED,
+    // Job metadata is kept in memory only and dropped when the job is finished, so the job can't be restarted
+    NONE
+}
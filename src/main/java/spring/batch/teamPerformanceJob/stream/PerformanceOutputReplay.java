@@ -0,0 +1,44 @@
+package spring.batch.teamPerformanceJob.stream;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes rows of a performance output file to the job stream, for outputs which are not written by ratio steps
+ * (restored from the result cache), so stream clients get the same rows as if the performances were calculated
+ */
+public final class PerformanceOutputReplay {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private PerformanceOutputReplay() {
+    }
+
+    // Output is the header, an empty line and "name,performance" lines (see FlatFileWriters.teamPerformanceWriter)
+    public static void publish(Path output, String baseline, TeamPerformanceStream stream) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(output, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                // Header
+            }
+            List<PerformanceRow> rows = new ArrayList<>(BATCH_SIZE);
+            while ((line = reader.readLine()) != null) {
+                // Performance has no comma, team name may have one
+                int separator = line.lastIndexOf(',');
+                rows.add(new PerformanceRow(baseline, null, line.substring(0, separator), line.substring(separator + 1)));
+                if (rows.size() == BATCH_SIZE) {
+                    stream.publish(rows);
+                    rows = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!rows.isEmpty()) {
+                stream.publish(rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package spring.batch.teamPerformanceJob.stream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Team performance against a baseline as pushed to stream clients, rank is present only for multi-rank jobs
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PerformanceRow(
+        String baseline,
+        Integer rank,
+        String team,
+        String performance
+) {
+}
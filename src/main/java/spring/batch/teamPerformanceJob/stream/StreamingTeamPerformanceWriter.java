@@ -0,0 +1,61 @@
+package spring.batch.teamPerformanceJob.stream;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import spring.batch.teamPerformanceJob.domain.TeamPerformance;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writer publishing performances written by the delegate to the job stream once the chunk is committed,
+ * so clients never get rows of a rolled back chunk (nor the same row twice when the chunk is scanned for skips)
+ */
+@RequiredArgsConstructor
+public class StreamingTeamPerformanceWriter implements ItemStreamWriter<TeamPerformance> {
+
+    private final ItemStreamWriter<TeamPerformance> delegate;
+    private final TeamPerformanceStream stream;
+    private final String baseline;
+    // Null for single rank jobs
+    private final Integer rank;
+
+    @Override
+    public void write(Chunk<? extends TeamPerformance> chunk) throws Exception {
+        delegate.write(chunk);
+        List<PerformanceRow> rows = new ArrayList<>(chunk.size());
+        for (TeamPerformance performance : chunk) {
+            rows.add(new PerformanceRow(baseline, rank, performance.name(), performance.performance()));
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stream.publish(rows);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stream.publish(rows);
+            }
+        });
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,71 @@
+package spring.batch.teamPerformanceJob.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Performance rows of a single job, in the order they were committed by ratio steps.
+ * Rows are kept for replay, so a client connecting late (or reconnecting) gets rows from any offset it asks for,
+ * unless they were already dropped: at least replay limit of the latest rows is kept.
+ * Clients wait for new rows on their own threads, so a slow client never holds up the steps
+ */
+public class TeamPerformanceStream {
+
+    /**
+     * Rows from the requested offset, offset of the row following them, and number of rows dropped before they could
+     * be read. Exit status of the job is present only once the job is finished and there are no more rows to read
+     */
+    public record Rows(List<PerformanceRow> rows, long nextOffset, long missed, String exitStatus) {
+    }
+
+    private final int replayLimit;
+
+    // Guarded by this
+    private final List<PerformanceRow> rows = new ArrayList<>();
+    private long firstOffset;
+    private String exitStatus;
+
+    public TeamPerformanceStream(int replayLimit) {
+        this.replayLimit = replayLimit;
+    }
+
+    public synchronized void publish(List<PerformanceRow> publishedRows) {
+        rows.addAll(publishedRows);
+        // Oldest rows are dropped in bulk, so rows are not shifted on every publish
+        if (rows.size() >= 2 * replayLimit) {
+            int dropped = rows.size() - replayLimit;
+            rows.subList(0, dropped).clear();
+            firstOffset += dropped;
+        }
+        notifyAll();
+    }
+
+    public synchronized void complete(String exitStatus) {
+        this.exitStatus = exitStatus;
+        notifyAll();
+    }
+
+    public synchronized boolean isCompleted() {
+        return exitStatus != null;
+    }
+
+    // Waits until there are rows from the offset (at most max rows are returned), the job is finished, or timeout elapses
+    public synchronized Rows await(long offset, int maxRows, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (offset >= endOffset() && exitStatus == null && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        long start = Math.max(offset, firstOffset);
+        int from = (int) (start - firstOffset);
+        int to = (int) Math.min(rows.size(), (long) from + maxRows);
+        List<PerformanceRow> result = List.copyOf(rows.subList(Math.min(from, to), to));
+        long nextOffset = start + result.size();
+        return new Rows(result, nextOffset, start - offset, nextOffset >= endOffset() ? exitStatus : null);
+    }
+
+    private long endOffset() {
+        return firstOffset + rows.size();
+    }
+}
@@ -0,0 +1,60 @@
+package spring.batch.teamPerformanceJob.stream;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import spring.batch.teamPerformanceJob.CommonConstants;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Performance streams of jobs by job uuid. Stream is opened when the job is submitted (or started, whichever
+ * comes first), so clients can subscribe to a job still waiting for the launcher. Registered as job listener
+ * to complete the stream when the job is finished; streams of the latest finished jobs are retained for late clients
+ */
+@RequiredArgsConstructor
+public class TeamPerformanceStreams implements JobExecutionListener {
+
+    private final int replayLimit;
+    private final int retainedStreams;
+
+    private final Map<String, TeamPerformanceStream> streams = new ConcurrentHashMap<>();
+    // Guarded by this
+    private final Deque<String> completedUuids = new ArrayDeque<>();
+
+    public TeamPerformanceStream open(String uuid) {
+        return streams.computeIfAbsent(uuid, key -> new TeamPerformanceStream(replayLimit));
+    }
+
+    public Optional<TeamPerformanceStream> find(String uuid) {
+        return Optional.ofNullable(streams.get(uuid));
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        String uuid = jobExecution.getJobParameters().getString(CommonConstants.UUID_PARAM);
+        if (uuid != null) {
+            open(uuid);
+        }
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        String uuid = jobExecution.getJobParameters().getString(CommonConstants.UUID_PARAM);
+        if (uuid == null) {
+            return;
+        }
+        open(uuid).complete(jobExecution.getExitStatus().getExitCode());
+        synchronized (this) {
+            completedUuids.remove(uuid);
+            completedUuids.addLast(uuid);
+            while (completedUuids.size() > retainedStreams) {
+                streams.remove(completedUuids.removeFirst());
+            }
+        }
+    }
+}
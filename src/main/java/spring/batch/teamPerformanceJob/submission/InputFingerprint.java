@@ -0,0 +1,85 @@
+package spring.batch.teamPerformanceJob.submission;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SHA-256 fingerprint of the input files (names and contents), identifying the data a job would be run on
+ * (or of a single input file, identifying the data of its partition).
+ * Digest of every file is cached by its length and modification time, so the files are read again only when changed
+ */
+public class InputFingerprint {
+
+    private record FileDigest(long length, long lastModified, byte[] digest) {
+    }
+
+    private final Resource[] resources;
+
+    private final Map<String, FileDigest> fileDigests = new ConcurrentHashMap<>();
+
+    public InputFingerprint(Resource[] resources) {
+        this.resources = resources.clone();
+        // Fingerprint doesn't depend on the resolution order of the resources
+        Arrays.sort(this.resources, Comparator.comparing(Resource::getFilename, Comparator.nullsFirst(Comparator.naturalOrder())));
+    }
+
+    public String fingerprint() {
+        MessageDigest inputDigest = sha256();
+        for (Resource resource : resources) {
+            inputDigest.update(String.valueOf(resource.getFilename()).getBytes());
+            inputDigest.update((byte) 0);
+            inputDigest.update(fileDigest(resource));
+        }
+        return HexFormat.of().formatHex(inputDigest.digest());
+    }
+
+    // Fingerprint of a single file (content only)
+    public String fingerprint(Resource resource) {
+        return HexFormat.of().formatHex(fileDigest(resource));
+    }
+
+    private byte[] fileDigest(Resource resource) {
+        try {
+            String location = resource.getURI().toString();
+            long length = resource.contentLength();
+            long lastModified = resource.lastModified();
+            FileDigest fileDigest = fileDigests.get(location);
+            if (fileDigest == null || fileDigest.length() != length || fileDigest.lastModified() != lastModified) {
+                fileDigest = new FileDigest(length, lastModified, contentDigest(resource));
+                fileDigests.put(location, fileDigest);
+            }
+            return fileDigest.digest();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not fingerprint input " + resource, e);
+        }
+    }
+
+    private static byte[] contentDigest(Resource resource) throws IOException {
+        MessageDigest contentDigest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream inputStream = resource.getInputStream()) {
+            for (int read = inputStream.read(buffer); read >= 0; read = inputStream.read(buffer)) {
+                contentDigest.update(buffer, 0, read);
+            }
+        }
+        return contentDigest.digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
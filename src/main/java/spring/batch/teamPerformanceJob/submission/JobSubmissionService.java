@@ -0,0 +1,98 @@
+package spring.batch.teamPerformanceJob.submission;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import spring.batch.teamPerformanceJob.CommonConstants;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded queue of submitted jobs (waiting or running): a submission above the capacity is rejected.
+ * Submissions of the same job with the same parameters (score ranks, chunk sizes, durability...) over the same input
+ * (by fingerprint) are coalesced while the job is not finished: callers get the id of the job already submitted, and share its result.
+ * Registered as job listener to free the slot when the job is finished
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JobSubmissionService implements JobExecutionListener {
+
+    // Identical submissions produce identical results, parameters are those of the job except the uuid
+    private record SubmissionKey(String jobName, String scoreRanks, Map<String, JobParameter<?>> parameters, String inputFingerprint) {
+    }
+
+    public record JobSubmission(String uuid, boolean coalesced) {
+    }
+
+    private final JobLauncher jobLauncher;
+    private final InputFingerprint inputFingerprint;
+    private final int capacity;
+    private final long retryAfterSeconds;
+
+    // Guarded by this
+    private final Map<SubmissionKey, String> submittedUuids = new HashMap<>();
+    private final Map<String, SubmissionKey> submittedKeys = new HashMap<>();
+
+    /**
+     * Launches the job with a new uuid, unless the same job is already submitted with the same parameters and input.
+     * Score ranks must be in a canonical form, as they are compared as strings (instead of the requested ranks parameter)
+     */
+    public JobSubmission submit(Job job, String scoreRanks, JobParametersBuilder jobParametersBuilder) throws Exception {
+        Map<String, JobParameter<?>> parameters = new HashMap<>(jobParametersBuilder.toJobParameters().getParameters());
+        parameters.remove(CommonConstants.UUID_PARAM);
+        parameters.remove(CommonConstants.SCORE_RANKS_PARAM);
+        // Fingerprint is calculated outside of the lock, file digests are read only when files changed
+        SubmissionKey key = new SubmissionKey(job.getName(), scoreRanks, parameters, inputFingerprint.fingerprint());
+        String uuid;
+        synchronized (this) {
+            String submittedUuid = submittedUuids.get(key);
+            if (submittedUuid != null) {
+                log.info("Job {} for score ranks {} is already submitted with uuid = {}", job.getName(), scoreRanks, submittedUuid);
+                return new JobSubmission(submittedUuid, true);
+            }
+            if (submittedKeys.size() >= capacity) {
+                throw new SubmissionRejectedException(capacity, retryAfterSeconds);
+            }
+            uuid = UUID.randomUUID().toString();
+            submittedUuids.put(key, uuid);
+            submittedKeys.put(uuid, key);
+        }
+        // Job repository is updated outside of the lock, job may even finish before the launcher returns
+        try {
+            jobLauncher.run(job, jobParametersBuilder
+                    .addString(CommonConstants.UUID_PARAM, uuid)
+                    .toJobParameters());
+        } catch (Exception e) {
+            release(uuid);
+            throw e;
+        }
+        return new JobSubmission(uuid, false);
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        String uuid = jobExecution.getJobParameters().getString(CommonConstants.UUID_PARAM);
+        if (uuid != null) {
+            release(uuid);
+        }
+    }
+
+    // Jobs submitted and not finished yet (waiting or running)
+    public synchronized int getSubmittedJobCount() {
+        return submittedKeys.size();
+    }
+
+    private synchronized void release(String uuid) {
+        SubmissionKey key = submittedKeys.remove(uuid);
+        if (key != null) {
+            submittedUuids.remove(key);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package spring.batch.teamPerformanceJob.submission;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// Submission queue is full, request is answered with 429 and Retry-After
+public class SubmissionRejectedException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public SubmissionRejectedException(int capacity, long retryAfterSeconds) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "All " + capacity + " job slots are taken, retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,51 @@
+package spring.batch.teamPerformanceJob.writer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.PerformanceBaseline;
+import spring.batch.teamPerformanceJob.domain.TeamPerformance;
+import spring.batch.teamPerformanceJob.processor.PerformanceEvaluator;
+
+import java.util.Map;
+
+/**
+ * Writer evaluating every team average against several baselines at once, performances against
+ * each baseline are written to the writer of that baseline (so team averages are read only once)
+ */
+@RequiredArgsConstructor
+public class BaselinePerformanceWriter implements ItemStreamWriter<AverageScoredTeam> {
+
+    // Iteration order defines order of writes
+    private final Map<PerformanceBaseline, ItemStreamWriter<TeamPerformance>> baselineWriters;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        baselineWriters.values().forEach(writer -> writer.open(executionContext));
+    }
+
+    @Override
+    public void write(Chunk<? extends AverageScoredTeam> chunk) throws Exception {
+        for (Map.Entry<PerformanceBaseline, ItemStreamWriter<TeamPerformance>> baselineWriter : baselineWriters.entrySet()) {
+            double baselineScore = baselineWriter.getKey().score();
+            Chunk<TeamPerformance> performances = new Chunk<>();
+            for (AverageScoredTeam team : chunk) {
+                performances.add(PerformanceEvaluator.evaluatePerformance(team, baselineScore));
+            }
+            baselineWriter.getValue().write(performances);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        baselineWriters.values().forEach(writer -> writer.update(executionContext));
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        baselineWriters.values().forEach(ItemStreamWriter::close);
+    }
+}
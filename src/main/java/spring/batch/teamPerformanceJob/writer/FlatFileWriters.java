@@ -0,0 +1,37 @@
+package spring.batch.teamPerformanceJob.writer;
+
+import org.springframework.batch.item.file.FlatFileHeaderCallback;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.core.io.WritableResource;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.TeamPerformance;
+
+// Factory methods for text outputs of the job, so every step writes the same format
+public class FlatFileWriters {
+
+    private FlatFileWriters() {
+    }
+
+    // Team average output: "name,average"
+    public static FlatFileItemWriter<AverageScoredTeam> averageScoredTeamWriter(String name, WritableResource resource) {
+        return new FlatFileItemWriterBuilder<AverageScoredTeam>()
+                .name(name)
+                .resource(resource)
+                .delimited()
+                .delimiter(",")
+                .fieldExtractor(avgScoredTeam -> new Object[]{avgScoredTeam.name(), avgScoredTeam.averageScore()})
+                .build();
+    }
+
+    // Team performance output: header and "name,performance"
+    public static FlatFileItemWriter<TeamPerformance> teamPerformanceWriter(String name, WritableResource resource,
+                                                                            FlatFileHeaderCallback headerCallback) {
+        return new FlatFileItemWriterBuilder<TeamPerformance>()
+                .name(name)
+                .resource(resource)
+                .lineAggregator(new TeamPerformanceLineAggregator())
+                .headerCallback(headerCallback)
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package spring.batch.teamPerformanceJob.writer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import spring.batch.teamPerformanceJob.CommonConstants;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Function;
+
+/**
+ * Step outputs are written to "&lt;name&gt;.part" files, and renamed to their final names (atomically) once the step
+ * is completed: final output is never seen half-written (by next steps, result cache or clients), and a failed step
+ * leaves only its part files, which are continued by the restarted step.
+ * Only part files matching the glob are renamed, as steps running in parallel write to the same job output directory
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class OutputCommitListener implements StepExecutionListener {
+
+    public static final String PART_SUFFIX = ".part";
+
+    // Output directory of the job by job uuid
+    private final Function<String, Path> jobOutputDirectory;
+    // Final names of the outputs of the step, e.g. "{max,min}.txt"
+    private final String outputGlob;
+
+    public static String partName(String outputName) {
+        return outputName + PART_SUFFIX;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (stepExecution.getStatus() != BatchStatus.COMPLETED) {
+            return null;
+        }
+        Path directory = jobOutputDirectory.apply(stepExecution.getJobParameters().getString(CommonConstants.UUID_PARAM));
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(directory, partName(outputGlob))) {
+            for (Path part : parts) {
+                String partName = part.getFileName().toString();
+                Path output = part.resolveSibling(partName.substring(0, partName.length() - PART_SUFFIX.length()));
+                Files.move(part, output, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                log.debug("Output {} of step {} is committed", output, stepExecution.getStepName());
+            }
+            return null;
+        } catch (NoSuchFileException e) {
+            // Step wrote nothing (e.g. averages handed over in memory only)
+            return null;
+        } catch (IOException e) {
+            // Exceptions of listeners are only logged, so the step is failed explicitly (renaming is repeated on restart)
+            stepExecution.setStatus(BatchStatus.FAILED);
+            stepExecution.addFailureException(e);
+            return ExitStatus.FAILED.addExitDescription(e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package spring.batch.teamPerformanceJob.writer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.file.FlatFileHeaderCallback;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Header of team performance output, naming the player whose score is the baseline
+@RequiredArgsConstructor
+public class PerformanceHeaderCallback implements FlatFileHeaderCallback {
+
+    private final String playerName;
+    private final double score;
+
+    @Override
+    public void writeHeader(Writer writer) throws IOException {
+        writer.write("******************************************************\n");
+        writer.write("Team performance below are calculated against " + score + " which was scored by " + playerName + "\n");
+        writer.write("******************************************************\n");
+    }
+}
@@ -0,0 +1,92 @@
+package spring.batch.teamPerformanceJob.writer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.core.io.WritableResource;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.MultiRankAverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.ScoreRanks;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Writer fanning multi-rank team averages out to one average output per rank.
+ * Per-rank writers are opened upfront for explicitly requested ranks, and lazily (as ranks are found) for all ranks;
+ * ranks with opened writers are saved in execution context, so their writers are restored on restart
+ */
+@RequiredArgsConstructor
+public class RankedAverageScoredTeamWriter implements ItemStreamWriter<MultiRankAverageScoredTeam> {
+
+    private static final String RANKS_KEY = "rankedAverageScoredTeamWriter.ranks";
+
+    private final ScoreRanks scoreRanks;
+    private final IntFunction<WritableResource> rankOutputResource;
+    // Creates average writer (by its name and resource)
+    private final BiFunction<String, WritableResource, FlatFileItemWriter<AverageScoredTeam>> writerFactory;
+
+    private final Map<Integer, FlatFileItemWriter<AverageScoredTeam>> rankWriters = new TreeMap<>();
+    private ExecutionContext executionContext;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        this.executionContext = executionContext;
+        if (!scoreRanks.isAll()) {
+            Arrays.stream(scoreRanks.getRanks()).forEach(this::rankWriter);
+        }
+        if (executionContext.containsKey(RANKS_KEY) && !executionContext.getString(RANKS_KEY).isEmpty()) {
+            Arrays.stream(executionContext.getString(RANKS_KEY).split(","))
+                    .mapToInt(Integer::parseInt)
+                    .forEach(this::rankWriter);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends MultiRankAverageScoredTeam> chunk) throws Exception {
+        Map<Integer, Chunk<AverageScoredTeam>> rankChunks = new TreeMap<>();
+        for (MultiRankAverageScoredTeam team : chunk) {
+            for (int index = 0; index < team.ranks().length; index++) {
+                rankChunks.computeIfAbsent(team.ranks()[index], rank -> new Chunk<>())
+                        .add(new AverageScoredTeam(team.name(), team.averageScores()[index]));
+            }
+        }
+        for (Map.Entry<Integer, Chunk<AverageScoredTeam>> rankChunk : rankChunks.entrySet()) {
+            rankWriter(rankChunk.getKey()).write(rankChunk.getValue());
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        for (FlatFileItemWriter<AverageScoredTeam> writer : rankWriters.values()) {
+            writer.update(executionContext);
+        }
+        executionContext.putString(RANKS_KEY, rankWriters.keySet().stream()
+                .map(Object::toString)
+                .collect(Collectors.joining(",")));
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        for (FlatFileItemWriter<AverageScoredTeam> writer : rankWriters.values()) {
+            writer.close();
+        }
+        rankWriters.clear();
+    }
+
+    private FlatFileItemWriter<AverageScoredTeam> rankWriter(int rank) {
+        return rankWriters.computeIfAbsent(rank, newRank -> {
+            FlatFileItemWriter<AverageScoredTeam> writer =
+                    writerFactory.apply("averageRank" + newRank + "Writer", rankOutputResource.apply(newRank));
+            writer.open(executionContext);
+            return writer;
+        });
+    }
+}
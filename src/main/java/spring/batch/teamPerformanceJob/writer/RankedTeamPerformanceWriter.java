@@ -0,0 +1,49 @@
+package spring.batch.teamPerformanceJob.writer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.RankedAverageScoredTeam;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// Writer routing ranked team averages to the performance writer of their rank
+@RequiredArgsConstructor
+public class RankedTeamPerformanceWriter implements ItemStreamWriter<RankedAverageScoredTeam> {
+
+    private final Map<Integer, ? extends ItemStreamWriter<AverageScoredTeam>> rankWriters;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        rankWriters.values().forEach(writer -> writer.open(executionContext));
+    }
+
+    @Override
+    public void write(Chunk<? extends RankedAverageScoredTeam> chunk) throws Exception {
+        Map<Integer, Chunk<AverageScoredTeam>> rankChunks = new TreeMap<>();
+        for (RankedAverageScoredTeam rankedTeam : chunk) {
+            rankChunks.computeIfAbsent(rankedTeam.rank(), rank -> new Chunk<>()).add(rankedTeam.team());
+        }
+        for (Map.Entry<Integer, Chunk<AverageScoredTeam>> rankChunk : rankChunks.entrySet()) {
+            ItemStreamWriter<AverageScoredTeam> writer = rankWriters.get(rankChunk.getKey());
+            if (writer == null) {
+                throw new IllegalStateException("There is no performance writer for rank " + rankChunk.getKey());
+            }
+            writer.write(rankChunk.getValue());
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        rankWriters.values().forEach(writer -> writer.update(executionContext));
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        rankWriters.values().forEach(ItemStreamWriter::close);
+    }
+}
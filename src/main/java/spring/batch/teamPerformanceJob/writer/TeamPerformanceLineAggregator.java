@@ -0,0 +1,17 @@
+package spring.batch.teamPerformanceJob.writer;
+
+import org.springframework.batch.item.file.transform.LineAggregator;
+import spring.batch.teamPerformanceJob.domain.TeamPerformance;
+
+// "name,performance" line built in a reused buffer (every writer has its own aggregator, used by a single thread)
+public class TeamPerformanceLineAggregator implements LineAggregator<TeamPerformance> {
+
+    private final StringBuilder line = new StringBuilder(64);
+
+    @Override
+    public String aggregate(TeamPerformance teamPerformance) {
+        line.setLength(0);
+        line.append(teamPerformance.name()).append(',');
+        return teamPerformance.appendPerformance(line).toString();
+    }
+}
@@ -0,0 +1,35 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import spring.batch.teamPerformanceJob.controller.ApplicationController;
+import spring.batch.teamPerformanceJob.stream.TeamPerformanceStreams;
+import spring.batch.teamPerformanceJob.submission.JobSubmissionService;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ApplicationControllerTest {
+
+    private final JobSubmissionService jobSubmissionService = mock(JobSubmissionService.class);
+    private final TeamPerformanceStreams teamPerformanceStreams = mock(TeamPerformanceStreams.class);
+
+    @Test
+    public void testNonPositiveChunkSizeIsBadRequest() throws Exception {
+        ApplicationController controller = new ApplicationController();
+        ReflectionTestUtils.setField(controller, "jobSubmissionService", jobSubmissionService);
+        ReflectionTestUtils.setField(controller, "teamPerformanceStreams", teamPerformanceStreams);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        mockMvc.perform(post("/start").param("scoreRank", "1").param("averageChunkSize", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/start").param("scoreRank", "1").param("ratioChunkSize", "-1"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(jobSubmissionService, teamPerformanceStreams);
+    }
+}
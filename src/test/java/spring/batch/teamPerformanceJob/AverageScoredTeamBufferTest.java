@@ -0,0 +1,129 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.handoff.AverageScoredTeamBufferReader;
+import spring.batch.teamPerformanceJob.handoff.AverageScoredTeamBufferWriter;
+import spring.batch.teamPerformanceJob.handoff.AverageScoredTeamBuffers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AverageScoredTeamBufferTest {
+
+    private static final long JOB_EXECUTION_ID = 1L;
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    public void testSegmentsAreReadInOrderWithSpilledTeams() throws Exception {
+        AverageScoredTeamBuffers buffers = new AverageScoredTeamBuffers(3, spillDirectory);
+        // Segments are written in reverse order, as partitions may finish in any order
+        write(buffers, 1, teams("b", 5));
+        write(buffers, 0, teams("a", 4));
+
+        List<AverageScoredTeam> expected = new ArrayList<>(teams("a", 4));
+        expected.addAll(teams("b", 5));
+        Assertions.assertEquals(expected, read(buffers, new ExecutionContext(), Integer.MAX_VALUE));
+        Assertions.assertEquals(2, countSpillFiles());
+
+        buffers.afterJob(new JobExecution(JOB_EXECUTION_ID));
+        Assertions.assertEquals(0, countSpillFiles());
+    }
+
+    @Test
+    public void testReaderRestartsFromSavedCount() throws Exception {
+        AverageScoredTeamBuffers buffers = new AverageScoredTeamBuffers(2, spillDirectory);
+        write(buffers, 0, teams("a", 6));
+
+        ExecutionContext executionContext = new ExecutionContext();
+        List<AverageScoredTeam> teams = read(buffers, executionContext, 3);
+        teams.addAll(read(buffers, executionContext, Integer.MAX_VALUE));
+        Assertions.assertEquals(teams("a", 6), teams);
+    }
+
+    @Test
+    public void testWriterCanNotResume() {
+        AverageScoredTeamBuffers buffers = new AverageScoredTeamBuffers(2, spillDirectory);
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.putLong("averageScoredTeamBufferWriter.written", 10);
+        Assertions.assertThrows(ItemStreamException.class,
+                () -> new AverageScoredTeamBufferWriter(buffers, JOB_EXECUTION_ID, 0).open(executionContext));
+    }
+
+    @Test
+    public void testTeamsOfRolledBackChunkAreNotBuffered() throws Exception {
+        AverageScoredTeamBuffers buffers = new AverageScoredTeamBuffers(2, spillDirectory);
+        AverageScoredTeamBufferWriter writer = new AverageScoredTeamBufferWriter(buffers, JOB_EXECUTION_ID, 0);
+        writer.open(new ExecutionContext());
+        List<AverageScoredTeam> teams = teams("a", 3);
+
+        completeTransaction(writer, teams.subList(0, 2), TransactionSynchronization.STATUS_COMMITTED);
+        // Chunk rolled back after it was written, e.g. by a failed flush of the average file, and then retried
+        completeTransaction(writer, teams.subList(2, 3), TransactionSynchronization.STATUS_ROLLED_BACK);
+        completeTransaction(writer, teams.subList(2, 3), TransactionSynchronization.STATUS_COMMITTED);
+        writer.close();
+
+        Assertions.assertEquals(teams, read(buffers, new ExecutionContext(), Integer.MAX_VALUE));
+    }
+
+    private static void completeTransaction(AverageScoredTeamBufferWriter writer, List<AverageScoredTeam> teams, int status) throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writer.write(new Chunk<>(teams));
+            writer.update(new ExecutionContext());
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(), status);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void write(AverageScoredTeamBuffers buffers, int segmentIndex, List<AverageScoredTeam> teams) throws Exception {
+        AverageScoredTeamBufferWriter writer = new AverageScoredTeamBufferWriter(buffers, JOB_EXECUTION_ID, segmentIndex);
+        writer.open(new ExecutionContext());
+        writer.write(new Chunk<>(teams));
+        writer.close();
+    }
+
+    private static List<AverageScoredTeam> read(AverageScoredTeamBuffers buffers, ExecutionContext executionContext, int limit) throws Exception {
+        AverageScoredTeamBufferReader reader = new AverageScoredTeamBufferReader(buffers, JOB_EXECUTION_ID);
+        reader.open(executionContext);
+        List<AverageScoredTeam> teams = new ArrayList<>();
+        AverageScoredTeam team;
+        while (teams.size() < limit && (team = reader.read()) != null) {
+            teams.add(team);
+        }
+        reader.update(executionContext);
+        reader.close();
+        return teams;
+    }
+
+    private static List<AverageScoredTeam> teams(String prefix, int count) {
+        List<AverageScoredTeam> teams = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            teams.add(new AverageScoredTeam(prefix + i, i / 3.0));
+        }
+        return teams;
+    }
+
+    private long countSpillFiles() throws Exception {
+        try (var files = Files.list(spillDirectory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.env.MapPropertySource;
+import spring.batch.teamPerformanceJob.config.AverageStepMode;
+import spring.batch.teamPerformanceJob.config.TeamPerformanceJobConfiguration;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+public class AverageStepModeTest {
+
+    @Test
+    public void testSingleModeIsSelected() {
+        Assertions.assertEquals(AverageStepMode.SEQUENTIAL, AverageStepMode.of(false, false, 1, true, false, 0, true));
+        Assertions.assertEquals(AverageStepMode.PIPELINED, AverageStepMode.of(false, false, 1, true, true, 0, true));
+        Assertions.assertEquals(AverageStepMode.THREADED_ORDERED, AverageStepMode.of(false, false, 4, true, false, 0, true));
+        Assertions.assertEquals(AverageStepMode.THREADED_UNORDERED, AverageStepMode.of(false, false, 4, false, false, 0, true));
+        Assertions.assertEquals(AverageStepMode.REMOTE, AverageStepMode.of(false, false, 1, true, false, 2, false));
+        Assertions.assertEquals(AverageStepMode.PARTITIONED, AverageStepMode.of(true, false, 1, true, false, 0, true));
+        // Incremental calculation is partitioned anyway
+        Assertions.assertEquals(AverageStepMode.INCREMENTAL, AverageStepMode.of(true, true, 1, true, false, 0, true));
+        Assertions.assertEquals(AverageStepMode.INCREMENTAL, AverageStepMode.of(false, true, 1, true, false, 0, true));
+    }
+
+    @Test
+    public void testConflictingModesAreRejected() {
+        IllegalStateException pipelinedThreads = Assertions.assertThrows(IllegalStateException.class,
+                () -> AverageStepMode.of(false, false, 4, true, true, 0, false));
+        Assertions.assertEquals("Average step modes can not be combined, but team-performance.average.threads=4, "
+                + "team-performance.average.pipelined=true are set", pipelinedThreads.getMessage());
+        Assertions.assertThrows(IllegalStateException.class, () -> AverageStepMode.of(false, false, 1, true, true, 2, false));
+        Assertions.assertThrows(IllegalStateException.class, () -> AverageStepMode.of(true, false, 1, true, false, 2, false));
+        Assertions.assertThrows(IllegalStateException.class, () -> AverageStepMode.of(false, true, 4, false, false, 0, false));
+        // Remote workers don't gather ranking
+        Assertions.assertThrows(IllegalStateException.class, () -> AverageStepMode.of(false, false, 1, true, false, 2, true));
+    }
+
+    @Test
+    public void testEveryModeCalculatesSameOutputs(@TempDir Path outputDirectory) throws Exception {
+        Map<String, List<String>> expected = runJob(outputDirectory, "sequential", Map.of());
+        Map<String, Map<String, Object>> modes = Map.of(
+                "pipelined", Map.of("team-performance.average.pipelined", "true"),
+                "threadedOrdered", Map.of("team-performance.average.threads", "4"),
+                "threadedUnordered", Map.of("team-performance.average.threads", "4", "team-performance.average.ordered", "false"),
+                "remote", Map.of("team-performance.average.remote.workers", "2"),
+                "partitioned", Map.of("team-performance.average.partitioned", "true"));
+        for (Map.Entry<String, Map<String, Object>> mode : modes.entrySet()) {
+            Assertions.assertEquals(expected, runJob(outputDirectory, mode.getKey(), mode.getValue()), mode.getKey());
+        }
+    }
+
+    @Test
+    public void testPipelinedModeReadsOnAfterSkippedTeam(@TempDir Path inputDirectory, @TempDir Path outputDirectory) throws Exception {
+        String inputLocation = writeInputWithSkippedTeams(inputDirectory);
+
+        Map<String, List<String>> expected = runJob(outputDirectory, "skippedSequential",
+                Map.of("team-performance.input.location", inputLocation));
+        Assertions.assertTrue(expected.get("avg.txt").stream().anyMatch(line -> line.contains("Deltas")), expected.toString());
+        Assertions.assertEquals(expected, runJob(outputDirectory, "skippedPipelined",
+                Map.of("team-performance.input.location", inputLocation, "team-performance.average.pipelined", "true")));
+    }
+
+    @Test
+    public void testParallelProcessingSkipsTeamsInProcess(@TempDir Path inputDirectory, @TempDir Path outputDirectory) throws Exception {
+        String inputLocation = writeInputWithSkippedTeams(inputDirectory);
+        Map<String, Map<String, Object>> modes = Map.of(
+                "sequential", Map.of(),
+                "pipelined", Map.of("team-performance.average.pipelined", "true"),
+                "threadedOrdered", Map.of("team-performance.average.threads", "4"));
+        for (Map.Entry<String, Map<String, Object>> mode : modes.entrySet()) {
+            Map<String, Object> properties = new HashMap<>(mode.getValue());
+            properties.put("team-performance.input.location", inputLocation);
+            StepExecution stepExecution = launchJob(outputDirectory, "processSkip-" + mode.getKey(), properties)
+                    .getStepExecutions().stream()
+                    .filter(execution -> execution.getStepName().equals("averageTeamScoreStep"))
+                    .findFirst()
+                    .orElseThrow();
+            // Team without the score rank is skipped in process (with the team), as in the sequential step
+            Assertions.assertEquals(1, stepExecution.getReadSkipCount(), mode.getKey());
+            Assertions.assertEquals(1, stepExecution.getProcessSkipCount(), mode.getKey());
+            Assertions.assertEquals(0, stepExecution.getWriteSkipCount(), mode.getKey());
+        }
+    }
+
+    @Test
+    public void testPartitionedRunMatchesSequentialRunWithTiesAcrossPartitions(@TempDir Path inputDirectory,
+                                                                              @TempDir Path outputDirectory) throws Exception {
+        // Best score (of rank 2) is tied by Al, Gi (next byte range of the same file) and Ed (last file),
+        // worst score by Cy and Fi (last file), so the first of them in input order must win in both runs
+        Files.writeString(inputDirectory.resolve("div1.txt"), """
+                Ants
+                Al:9.0,8.0,7.5
+                Bo:5.0,4.0,3.0
+
+                Dogs
+                Gi:9.5,8.5,7.5
+                Hu:6.0,5.5,2.0
+                """);
+        Files.writeString(inputDirectory.resolve("div2.txt"), """
+                Bees
+                Cy:9.0,8.0,1.0
+                Di:6.0,5.0,4.0
+                """);
+        Files.writeString(inputDirectory.resolve("div3.txt"), """
+                Cats
+                Ed:9.9,8.8,7.5
+                Fi:3.0,2.0,1.0
+                """);
+        String inputLocation = "file:" + inputDirectory + "/*.txt";
+
+        JobExecution sequential = launchJob(outputDirectory, "tiesSequential", Map.of("team-performance.input.location", inputLocation));
+        // First division file is split into a range per team
+        JobExecution partitioned = launchJob(outputDirectory, "tiesPartitioned", Map.of(
+                "team-performance.input.location", inputLocation,
+                "team-performance.average.partitioned", "true",
+                "team-performance.partition.max-range-bytes", "20"));
+
+        Assertions.assertEquals("Al", sequential.getExecutionContext().getString(CommonConstants.MAX_PLAYER));
+        Assertions.assertEquals("Cy", sequential.getExecutionContext().getString(CommonConstants.MIN_PLAYER));
+        for (String key : List.of(CommonConstants.MAX_SCORE, CommonConstants.MAX_PLAYER, CommonConstants.MIN_SCORE, CommonConstants.MIN_PLAYER)) {
+            Assertions.assertEquals(sequential.getExecutionContext().get(key), partitioned.getExecutionContext().get(key), key);
+        }
+        Assertions.assertEquals(4, partitioned.getStepExecutions().stream()
+                .filter(execution -> execution.getStepName().startsWith("averageTeamScoreWorkerStep"))
+                .count());
+        // Partition outputs are concatenated in input order, so outputs are equal line by line
+        for (String file : List.of("avg.txt", "max.txt", "min.txt")) {
+            Assertions.assertEquals(Files.readAllLines(output(outputDirectory, sequential).resolve(file)),
+                    Files.readAllLines(output(outputDirectory, partitioned).resolve(file)), file);
+        }
+    }
+
+    // Input with a team failing the read (in the middle of the first division) and one without the score rank
+    private static String writeInputWithSkippedTeams(Path inputDirectory) throws Exception {
+        Files.writeString(inputDirectory.resolve("div1.txt"), """
+                Alphas
+                Ann:9.0,8.0,7.0
+                Bob:6.0,5.0,4.0
+
+                Betas
+                Cid:
+                Dan:7.0,6.0,5.0
+
+                Gammas
+                Eve:5.0,4.0,3.0
+                """);
+        Files.writeString(inputDirectory.resolve("div2.txt"), """
+                Deltas
+                Fay:8.0,2.0,1.0
+                Gus:3.0,1.0,0.5
+
+                Epsilons
+                Ida:4.0,2.0
+
+                Zetas
+                Jon:6.0,3.0,2.0
+                """);
+        return "file:" + inputDirectory + "/*.txt";
+    }
+
+    @Test
+    public void testConflictingModesFailStartup() {
+        try (AnnotationConfigApplicationContext context = jobContext(Map.of(
+                "team-performance.average.pipelined", "true",
+                "team-performance.average.remote.workers", "2"))) {
+            Exception failure = Assertions.assertThrows(Exception.class, context::refresh);
+            Throwable cause = NestedExceptionUtils.getMostSpecificCause(failure);
+            Assertions.assertInstanceOf(IllegalStateException.class, cause);
+            Assertions.assertTrue(cause.getMessage().startsWith("Average step modes can not be combined"), cause.getMessage());
+        }
+    }
+
+    @Test
+    public void testOnlyWiringOfSelectedModeIsCreated() {
+        try (AnnotationConfigApplicationContext context = jobContext(Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:averageStepMode-wiring;DB_CLOSE_DELAY=-1",
+                "team-performance.average.remote.workers", "2"))) {
+            context.refresh();
+            Assertions.assertTrue(context.containsBean("localChunkWorkers"));
+            Assertions.assertFalse(context.containsBean("averageTaskExecutor"));
+            Assertions.assertFalse(context.containsBean("averagePipelineExecutor"));
+        }
+    }
+
+    // Output lines of the job run in the given mode, sorted as unordered modes write averages in any order
+    private static Map<String, List<String>> runJob(Path outputDirectory, String name, Map<String, Object> modeProperties) throws Exception {
+        JobExecution jobExecution = launchJob(outputDirectory, name, modeProperties);
+        Map<String, List<String>> outputs = new TreeMap<>();
+        for (String file : List.of("avg.txt", "max.txt", "min.txt")) {
+            outputs.put(file, Files.readAllLines(output(outputDirectory, jobExecution).resolve(file)).stream().sorted().toList());
+        }
+        return outputs;
+    }
+
+    private static Path output(Path outputDirectory, JobExecution jobExecution) {
+        return outputDirectory.resolve(jobExecution.getJobParameters().getString(CommonConstants.UUID_PARAM));
+    }
+
+    // Completed execution of the job run in the given mode
+    private static JobExecution launchJob(Path outputDirectory, String name, Map<String, Object> modeProperties) throws Exception {
+        Map<String, Object> properties = new HashMap<>(modeProperties);
+        properties.put("spring.datasource.url", "jdbc:h2:mem:averageStepMode-" + name + ";DB_CLOSE_DELAY=-1");
+        properties.put("team-performance.output.directory", outputDirectory.toString());
+        try (AnnotationConfigApplicationContext context = jobContext(properties)) {
+            context.refresh();
+            JobExecution jobExecution = context.getBean("asyncJobLauncher", JobLauncher.class)
+                    .run(context.getBean("teamPerformanceJob", Job.class), new JobParametersBuilder()
+                            .addLong(CommonConstants.SCORE_RANK_PARAM, 2L)
+                            .addString(CommonConstants.UUID_PARAM, UUID.randomUUID().toString())
+                            .toJobParameters());
+            long deadline = System.currentTimeMillis() + 120_000;
+            while (jobExecution.isRunning() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            Assertions.assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus(), name);
+            return jobExecution;
+        }
+    }
+
+    static AnnotationConfigApplicationContext jobContext(Map<String, Object> properties) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("averageStepMode", properties));
+        context.register(TestConfiguration.class, TeamPerformanceJobConfiguration.class, ConcurrentJobsTest.SchemaConfiguration.class);
+        return context;
+    }
+}
@@ -0,0 +1,148 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.handoff.BinaryAverageScoredTeamReader;
+import spring.batch.teamPerformanceJob.handoff.BinaryAverageScoredTeamWriter;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BinaryAverageHandoffTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testRestartedWriterDropsUncommittedBlocks() throws Exception {
+        FileSystemResource resource = new FileSystemResource(directory.resolve("avg.bin"));
+        ExecutionContext context = new ExecutionContext();
+
+        BinaryAverageScoredTeamWriter writer = new BinaryAverageScoredTeamWriter("writer", resource);
+        writer.open(context);
+        writer.write(Chunk.of(team("Ä Team", 1.0 / 3), team("B Team", 7.616666666666667)));
+        writer.update(context);
+        // Written after the last saved offset, e.g. by a crashed step
+        writer.write(Chunk.of(team("Lost", 0.1)));
+        writer.close();
+
+        writer = new BinaryAverageScoredTeamWriter("writer", resource);
+        writer.open(context);
+        writer.write(Chunk.of(team("C Team", Double.MIN_VALUE)));
+        writer.update(context);
+        writer.close();
+
+        Assertions.assertEquals(List.of(team("Ä Team", 1.0 / 3), team("B Team", 7.616666666666667), team("C Team", Double.MIN_VALUE)),
+                readAll(resource, new ExecutionContext()));
+    }
+
+    @Test
+    public void testBlocksOfRolledBackChunkAreNotWritten() throws Exception {
+        FileSystemResource resource = new FileSystemResource(directory.resolve("avg.bin"));
+        ExecutionContext context = new ExecutionContext();
+        BinaryAverageScoredTeamWriter writer = new BinaryAverageScoredTeamWriter("writer", resource);
+        writer.open(context);
+
+        completeTransaction(writer, context, Chunk.of(team("A Team", 1.5)), TransactionSynchronization.STATUS_COMMITTED);
+        long committedOffset = context.getLong("writer.offset");
+        completeTransaction(writer, context, Chunk.of(team("B Team", 2.5)), TransactionSynchronization.STATUS_ROLLED_BACK);
+        writer.close();
+
+        // Offset saved within the rolled back transaction is rolled back with it
+        Assertions.assertEquals(committedOffset, resource.contentLength());
+        Assertions.assertEquals(List.of(team("A Team", 1.5)), readAll(resource, new ExecutionContext()));
+    }
+
+    @Test
+    public void testFailedAppendFailsCommit() throws Exception {
+        FileSystemResource resource = new FileSystemResource(directory.resolve("avg.bin"));
+        ExecutionContext context = new ExecutionContext();
+        BinaryAverageScoredTeamWriter writer = new BinaryAverageScoredTeamWriter("writer", resource);
+        writer.open(context);
+        completeTransaction(writer, context, Chunk.of(team("A Team", 1.5)), TransactionSynchronization.STATUS_COMMITTED);
+        long committedOffset = context.getLong("writer.offset");
+
+        // Append of the next chunk fails on the closed channel
+        ((FileChannel) ReflectionTestUtils.getField(writer, "channel")).close();
+        Assertions.assertThrows(ItemStreamException.class,
+                () -> completeTransaction(writer, context, Chunk.of(team("B Team", 2.5)), TransactionSynchronization.STATUS_COMMITTED));
+
+        // Chunk is rolled back instead of committing an offset past the written blocks
+        Assertions.assertEquals(committedOffset, context.getLong("writer.offset"));
+        Assertions.assertEquals(committedOffset, resource.contentLength());
+    }
+
+    @Test
+    public void testRestartedReaderContinuesWithinBlock() throws Exception {
+        FileSystemResource resource = new FileSystemResource(directory.resolve("avg.bin"));
+        BinaryAverageScoredTeamWriter writer = new BinaryAverageScoredTeamWriter("writer", resource);
+        writer.open(new ExecutionContext());
+        writer.write(Chunk.of(team("A", 1), team("B", 2), team("C", 3)));
+        writer.write(Chunk.of(team("D", 4)));
+        writer.close();
+
+        ExecutionContext context = new ExecutionContext();
+        BinaryAverageScoredTeamReader reader = new BinaryAverageScoredTeamReader("reader", resource);
+        reader.open(context);
+        Assertions.assertEquals(team("A", 1), reader.read());
+        Assertions.assertEquals(team("B", 2), reader.read());
+        reader.update(context);
+        reader.close();
+
+        Assertions.assertEquals(List.of(team("C", 3), team("D", 4)), readAll(resource, context));
+    }
+
+    private static void completeTransaction(BinaryAverageScoredTeamWriter writer, ExecutionContext context,
+                                            Chunk<AverageScoredTeam> chunk, int status) throws Exception {
+        ExecutionContext transactionContext = new ExecutionContext(context);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writer.write(chunk);
+            writer.update(transactionContext);
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                try {
+                    TransactionSynchronizationUtils.triggerBeforeCommit(false);
+                } catch (RuntimeException e) {
+                    // Transaction manager rolls back the transaction failed before the commit
+                    TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                            TransactionSynchronization.STATUS_ROLLED_BACK);
+                    throw e;
+                }
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(), status);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            transactionContext.entrySet().forEach(entry -> context.put(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private static List<AverageScoredTeam> readAll(FileSystemResource resource, ExecutionContext context) throws Exception {
+        BinaryAverageScoredTeamReader reader = new BinaryAverageScoredTeamReader("reader", resource);
+        reader.open(context);
+        List<AverageScoredTeam> teams = new ArrayList<>();
+        AverageScoredTeam team;
+        while ((team = reader.read()) != null) {
+            teams.add(team);
+        }
+        reader.close();
+        return teams;
+    }
+
+    private static AverageScoredTeam team(String name, double averageScore) {
+        return new AverageScoredTeam(name, averageScore);
+    }
+}
@@ -0,0 +1,56 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import spring.batch.teamPerformanceJob.chunk.BoundedTaskExecutorRepeatTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BoundedTaskExecutorRepeatTemplateTest {
+
+    @Test
+    public void testRunningIterationsReachButDoNotExceedLimit() {
+        // Limit above the default throttle limit (4) of TaskExecutorRepeatTemplate
+        BoundedTaskExecutorRepeatTemplate template = new BoundedTaskExecutorRepeatTemplate(new SimpleAsyncTaskExecutor(), 6);
+
+        int iterations = 200;
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        RepeatStatus status = template.iterate(context -> {
+            if (started.incrementAndGet() > iterations) {
+                return RepeatStatus.FINISHED;
+            }
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            finished.incrementAndGet();
+            return RepeatStatus.CONTINUABLE;
+        });
+
+        Assertions.assertEquals(RepeatStatus.FINISHED, status);
+        Assertions.assertEquals(iterations, finished.get());
+        Assertions.assertEquals(6, maxRunning.get());
+    }
+
+    @Test
+    public void testIterationFailureIsRethrown() {
+        BoundedTaskExecutorRepeatTemplate template = new BoundedTaskExecutorRepeatTemplate(new SimpleAsyncTaskExecutor(), 3);
+
+        AtomicInteger started = new AtomicInteger();
+        IllegalStateException failure = Assertions.assertThrows(IllegalStateException.class, () -> template.iterate(context -> {
+            if (started.incrementAndGet() == 10) {
+                throw new IllegalStateException("chunk failed");
+            }
+            return started.get() > 20 ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+        }));
+        Assertions.assertEquals("chunk failed", failure.getMessage());
+    }
+}
@@ -0,0 +1,77 @@
+package spring.batch.teamPerformanceJob;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.file.DefaultBufferedReaderFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import spring.batch.teamPerformanceJob.reader.DecompressingBufferedReaderFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+public class CompressedDivisionReaderTest {
+
+    private final DecompressingBufferedReaderFactory readerFactory = new DecompressingBufferedReaderFactory(new DefaultBufferedReaderFactory());
+
+    @Test
+    public void testCompressedDivisionIsReadAsPlainOne(@TempDir Path directory) throws IOException {
+        byte[] division = new ClassPathResource("input/div1.txt").getContentAsByteArray();
+        // Division repeated, so that it takes many pipeline buffers
+        byte[] plain = new byte[division.length * 200];
+        for (int i = 0; i < 200; i++) {
+            System.arraycopy(division, 0, plain, i * division.length, division.length);
+        }
+
+        // Gzip archive of two members, split in the middle of a line
+        Path gzip = directory.resolve("div1.txt.gz");
+        try (OutputStream output = Files.newOutputStream(gzip)) {
+            for (byte[] member : new byte[][]{Arrays.copyOf(plain, 1000), Arrays.copyOfRange(plain, 1000, plain.length)}) {
+                GZIPOutputStream memberOutput = new GZIPOutputStream(output);
+                memberOutput.write(member);
+                memberOutput.finish();
+            }
+        }
+        Path zstd = directory.resolve("div1.txt.zst");
+        try (OutputStream output = new ZstdOutputStream(Files.newOutputStream(zstd))) {
+            output.write(plain);
+        }
+
+        String expected = new String(plain, StandardCharsets.UTF_8);
+        Assertions.assertEquals(expected, read(new FileSystemResource(gzip)));
+        Assertions.assertEquals(expected, read(new FileSystemResource(zstd)));
+    }
+
+    @Test
+    public void testCorruptedArchiveFailsReading(@TempDir Path directory) throws IOException {
+        Path gzip = directory.resolve("div1.txt.gz");
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            output.write(new ClassPathResource("input/div1.txt").getContentAsByteArray());
+        }
+        byte[] compressed = Files.readAllBytes(gzip);
+        Files.write(gzip, Arrays.copyOf(compressed, compressed.length / 2));
+
+        Assertions.assertThrows(IOException.class, () -> read(new FileSystemResource(gzip)));
+    }
+
+    private String read(Resource resource) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        try (BufferedReader reader = readerFactory.create(resource, StandardCharsets.UTF_8.name())) {
+            char[] buffer = new char[1000];
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                lines.append(buffer, 0, count);
+            }
+        }
+        return lines.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import spring.batch.teamPerformanceJob.config.TeamPerformanceJobConfiguration;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:concurrentJobs;DB_CLOSE_DELAY=-1")
+@SpringJUnitConfig({TestConfiguration.class, TeamPerformanceJobConfiguration.class, ConcurrentJobsTest.SchemaConfiguration.class})
+public class ConcurrentJobsTest {
+
+    private static final int JOBS = 4;
+    private static final Path OUTPUT_DIRECTORY = createOutputDirectory();
+
+    @Configuration
+    static class SchemaConfiguration {
+
+        @Bean
+        public DataSourceInitializer batchSchemaInitializer(DataSource dataSource) {
+            DataSourceInitializer initializer = new DataSourceInitializer();
+            initializer.setDataSource(dataSource);
+            initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("org/springframework/batch/core/schema-h2.sql")));
+            return initializer;
+        }
+    }
+
+    @DynamicPropertySource
+    static void outputDirectory(DynamicPropertyRegistry registry) {
+        registry.add("team-performance.output.directory", OUTPUT_DIRECTORY::toString);
+    }
+
+    @Autowired
+    @Qualifier("asyncJobLauncher")
+    private JobLauncher asyncJobLauncher;
+
+    @Autowired
+    @Qualifier("teamPerformanceJob")
+    private Job teamPerformanceJob;
+
+    @Test
+    public void testConcurrentJobsWriteSeparateOutputs() throws Exception {
+        List<JobExecution> jobExecutions = new ArrayList<>();
+        for (int job = 0; job < JOBS; job++) {
+            jobExecutions.add(asyncJobLauncher.run(teamPerformanceJob, new JobParametersBuilder()
+                    .addLong(CommonConstants.SCORE_RANK_PARAM, 2L)
+                    .addString(CommonConstants.UUID_PARAM, UUID.randomUUID().toString())
+                    .toJobParameters()));
+        }
+        long deadline = System.currentTimeMillis() + 120_000;
+        for (JobExecution jobExecution : jobExecutions) {
+            while (jobExecution.isRunning() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            Assertions.assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        }
+
+        // Every job has complete outputs of its own, identical to the outputs of the others
+        Path firstOutput = jobOutputDirectory(jobExecutions.get(0));
+        for (JobExecution jobExecution : jobExecutions) {
+            Path output = jobOutputDirectory(jobExecution);
+            try (Stream<Path> files = Files.list(output)) {
+                Assertions.assertEquals(List.of("avg.txt", "max.txt", "min.txt"),
+                        files.map(file -> file.getFileName().toString()).sorted().toList());
+            }
+            for (String name : List.of("avg.txt", "max.txt", "min.txt")) {
+                Assertions.assertEquals(Files.readString(firstOutput.resolve(name)), Files.readString(output.resolve(name)));
+            }
+        }
+        Assertions.assertEquals(100, Files.readAllLines(firstOutput.resolve("avg.txt")).size());
+    }
+
+    private static Path jobOutputDirectory(JobExecution jobExecution) {
+        return OUTPUT_DIRECTORY.resolve(jobExecution.getJobParameters().getString(CommonConstants.UUID_PARAM));
+    }
+
+    private static Path createOutputDirectory() {
+        try {
+            Path directory = Files.createTempDirectory("concurrent-jobs");
+            directory.toFile().deleteOnExit();
+            return directory;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.partition.DivisionFileSplitter;
+import spring.batch.teamPerformanceJob.reader.ByteRangeBufferedReaderFactory;
+import spring.batch.teamPerformanceJob.reader.DivisionFileReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DivisionFileSplitterTest {
+
+    private static final Resource DIVISION = new ClassPathResource("input/div1.txt");
+
+    @Test
+    public void testRangesAreAlignedOnTeamRecords() throws Exception {
+        List<String> expectedTeams = readTeamNames(DIVISION, null);
+
+        for (long maxRangeBytes : new long[]{1, 50, 200, 1000, Long.MAX_VALUE}) {
+            List<DivisionFileSplitter.ByteRange> ranges = DivisionFileSplitter.split(DIVISION, maxRangeBytes);
+            Assertions.assertEquals(0, ranges.getFirst().start());
+            Assertions.assertEquals(DIVISION.contentLength(), ranges.getLast().end());
+
+            List<String> teams = new ArrayList<>();
+            for (DivisionFileSplitter.ByteRange range : ranges) {
+                teams.addAll(readTeamNames(DIVISION, range));
+            }
+            Assertions.assertEquals(expectedTeams, teams, "Max range bytes " + maxRangeBytes);
+        }
+    }
+
+    @Test
+    public void testRangesEndAtDoubleBlankLine(@TempDir Path directory) throws Exception {
+        // Sequential reader ends the file at the double blank line, so Gammas and Deltas are never read
+        Path file = Files.writeString(directory.resolve("div.txt"), """
+                Alphas
+                Ann:1.0,2.0,3.0
+
+                Betas
+                Bob:4.0,5.0,6.0
+
+
+                Gammas
+                Cid:7.0,8.0,9.0
+
+                Deltas
+                Dan:1.0,2.0,3.0
+                """);
+        Resource division = new FileSystemResource(file);
+        List<String> expectedTeams = readTeamNames(division, null);
+        Assertions.assertEquals(List.of("Alphas", "Betas"), expectedTeams);
+
+        for (long maxRangeBytes : new long[]{1, 20, 40, Long.MAX_VALUE}) {
+            List<DivisionFileSplitter.ByteRange> ranges = DivisionFileSplitter.split(division, maxRangeBytes);
+            Assertions.assertEquals(Files.readString(file).indexOf("\n\n\n") + 2, ranges.getLast().end());
+
+            List<String> teams = new ArrayList<>();
+            for (DivisionFileSplitter.ByteRange range : ranges) {
+                teams.addAll(readTeamNames(division, range));
+            }
+            Assertions.assertEquals(expectedTeams, teams, "Max range bytes " + maxRangeBytes);
+        }
+    }
+
+    private static List<String> readTeamNames(Resource division, DivisionFileSplitter.ByteRange range) throws Exception {
+        FlatFileItemReader<String> lineReader = new FlatFileItemReaderBuilder<String>()
+                .name("divisionLineReader")
+                .lineMapper((line, lineNumber) -> line)
+                .build();
+        if (range != null) {
+            lineReader.setBufferedReaderFactory(new ByteRangeBufferedReaderFactory(range.start(), range.end()));
+        }
+        DivisionFileReader reader = new DivisionFileReader(lineReader);
+        reader.setResource(division);
+        reader.open(new ExecutionContext());
+        List<String> names = new ArrayList<>();
+        Team team;
+        while ((team = reader.read()) != null) {
+            names.add(team.getName());
+        }
+        reader.close();
+        return names;
+    }
+}
@@ -0,0 +1,47 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import spring.batch.teamPerformanceJob.partition.DivisionPartials;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class DivisionPartialsTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testCommittedPartialIsRestoredAndReplacedOnChange() throws Exception {
+        DivisionPartials divisionPartials = new DivisionPartials(directory);
+        String key = DivisionPartials.key(1, "file:division1.txt", 0, Long.MAX_VALUE, "content1");
+        Assertions.assertFalse(divisionPartials.contains(key));
+
+        Files.writeString(divisionPartials.pendingAveragesFile(key, 7), "Team,5.0\n");
+        ExecutionContext partitionContext = new ExecutionContext();
+        partitionContext.putDouble(CommonConstants.MAX_SCORE, 9.7);
+        partitionContext.putString(CommonConstants.MAX_PLAYER, "Matthew");
+        partitionContext.putDouble(CommonConstants.MIN_SCORE, 0.1);
+        partitionContext.putString(CommonConstants.MIN_PLAYER, "Daria");
+        divisionPartials.commit(key, 7, partitionContext);
+
+        Assertions.assertTrue(divisionPartials.contains(key));
+        Assertions.assertEquals("Team,5.0\n", Files.readString(divisionPartials.averagesFile(key)));
+        ExecutionContext restoredContext = new ExecutionContext();
+        divisionPartials.restoreExtremes(key, restoredContext);
+        Assertions.assertEquals(9.7, restoredContext.getDouble(CommonConstants.MAX_SCORE));
+        Assertions.assertEquals("Matthew", restoredContext.getString(CommonConstants.MAX_PLAYER));
+        Assertions.assertEquals(0.1, restoredContext.getDouble(CommonConstants.MIN_SCORE));
+        Assertions.assertEquals("Daria", restoredContext.getString(CommonConstants.MIN_PLAYER));
+
+        // Partial of the changed division file replaces the previous one
+        String changedKey = DivisionPartials.key(1, "file:division1.txt", 0, Long.MAX_VALUE, "content2");
+        Files.writeString(divisionPartials.pendingAveragesFile(changedKey, 8), "Team,6.0\n");
+        divisionPartials.commit(changedKey, 8, new ExecutionContext());
+        Assertions.assertTrue(divisionPartials.contains(changedKey));
+        Assertions.assertFalse(divisionPartials.contains(key));
+    }
+}
@@ -0,0 +1,144 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.transaction.support.TransactionOperations;
+import spring.batch.teamPerformanceJob.repository.DurabilityJobRepository;
+import spring.batch.teamPerformanceJob.repository.RepositoryDurability;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class DurabilityJobRepositoryTest {
+
+    private final JobRepository delegate = mock(JobRepository.class);
+    // Flushed by the test only
+    private final DurabilityJobRepository repository = new DurabilityJobRepository(delegate, RepositoryDurability.FULL,
+            TransactionOperations::withoutTransaction, 3_600_000);
+
+    @AfterEach
+    public void close() {
+        repository.close();
+    }
+
+    @Test
+    public void testRelaxedUpdatesAreCoalesced() {
+        StepExecution stepExecution = stepExecution(RepositoryDurability.RELAXED);
+        stepExecution.setStatus(BatchStatus.STARTED);
+        stepExecution.setVersion(1);
+        for (int chunk = 1; chunk <= 3; chunk++) {
+            stepExecution.setCommitCount(chunk);
+            stepExecution.getExecutionContext().putInt("chunk", chunk);
+            repository.updateExecutionContext(stepExecution);
+            repository.update(stepExecution);
+        }
+        verify(delegate, never()).update(any(StepExecution.class));
+
+        // Only the last chunk is written, as a snapshot
+        repository.flush();
+        ArgumentCaptor<StepExecution> flushed = ArgumentCaptor.forClass(StepExecution.class);
+        verify(delegate).update(flushed.capture());
+        Assertions.assertNotSame(stepExecution, flushed.getValue());
+        Assertions.assertEquals(3, flushed.getValue().getCommitCount());
+        Assertions.assertEquals(3, flushed.getValue().getExecutionContext().getInt("chunk"));
+
+        // End of the step is written at once
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        repository.update(stepExecution);
+        repository.flush();
+        // Step executions are equal by id, so the written one is told apart by identity
+        verify(delegate, times(2)).update(flushed.capture());
+        Assertions.assertSame(stepExecution, flushed.getValue());
+    }
+
+    @Test
+    public void testEndOfStepWaitsForRunningFlush() throws Exception {
+        StepExecution stepExecution = stepExecution(RepositoryDurability.RELAXED);
+        stepExecution.setStatus(BatchStatus.STARTED);
+        stepExecution.setVersion(1);
+        repository.update(stepExecution);
+
+        // Delegate increments versions like the database does, flush of the snapshot is held until released
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> updates = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            StepExecution updated = invocation.getArgument(0);
+            boolean live = updated == stepExecution;
+            updates.add((live ? "live:" : "snapshot:") + updated.getVersion());
+            if (!live) {
+                flushing.countDown();
+                release.await();
+            }
+            updated.incrementVersion();
+            return null;
+        }).when(delegate).update(any(StepExecution.class));
+
+        Thread flush = Thread.ofPlatform().start(repository::flush);
+        Assertions.assertTrue(flushing.await(10, TimeUnit.SECONDS));
+        // Step finishes while its first snapshot is being flushed
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        Thread endOfStep = Thread.ofPlatform().start(() -> repository.update(stepExecution));
+        while (endOfStep.isAlive() && endOfStep.getState() != Thread.State.BLOCKED) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        flush.join();
+        endOfStep.join();
+
+        // End of the step is written after the flush, with the version the flush left in the database
+        Assertions.assertEquals(List.of("snapshot:1", "live:2"), updates);
+    }
+
+    @Test
+    public void testFullUpdatesAreWrittenAtOnce() {
+        StepExecution stepExecution = stepExecution(RepositoryDurability.FULL);
+        stepExecution.setStatus(BatchStatus.STARTED);
+        repository.update(stepExecution);
+        verify(delegate).update(stepExecution);
+    }
+
+    @Test
+    public void testNoneJobIsKeptInMemory() throws Exception {
+        JobExecution jobExecution = repository.createJobExecution("job", parameters(RepositoryDurability.NONE));
+        Assertions.assertTrue(jobExecution.getId() < 0);
+        StepExecution stepExecution = jobExecution.createStepExecution("step");
+        repository.add(stepExecution);
+        Assertions.assertTrue(stepExecution.getId() < 0);
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        repository.update(stepExecution);
+        Assertions.assertSame(stepExecution, repository.getLastStepExecution(jobExecution.getJobInstance(), "step"));
+        repository.update(jobExecution);
+        verifyNoInteractions(delegate);
+    }
+
+    private static StepExecution stepExecution(RepositoryDurability durability) {
+        JobExecution jobExecution = new JobExecution(new JobInstance(1L, "job"), 1L, parameters(durability));
+        return new StepExecution("step", jobExecution, 1L);
+    }
+
+    private static JobParameters parameters(RepositoryDurability durability) {
+        return new JobParametersBuilder()
+                .addString(CommonConstants.DURABILITY_PARAM, durability.name())
+                .toJobParameters();
+    }
+}
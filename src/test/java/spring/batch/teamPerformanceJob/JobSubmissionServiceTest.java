@@ -0,0 +1,97 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.job.SimpleJob;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import spring.batch.teamPerformanceJob.submission.InputFingerprint;
+import spring.batch.teamPerformanceJob.submission.JobSubmissionService;
+import spring.batch.teamPerformanceJob.submission.SubmissionRejectedException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JobSubmissionServiceTest {
+
+    @TempDir
+    private Path inputDirectory;
+
+    @Test
+    public void testIdenticalSubmissionsAreCoalescedAndCapacityIsBounded() throws Exception {
+        Path division = Files.writeString(inputDirectory.resolve("division1.txt"), "Team,Player:1.0\n");
+        InputFingerprint inputFingerprint = new InputFingerprint(new Resource[]{new FileSystemResource(division)});
+        // Launcher only records launched jobs, they are finished by the test
+        List<JobParameters> launched = new ArrayList<>();
+        JobLauncher jobLauncher = (job, jobParameters) -> {
+            launched.add(jobParameters);
+            return new JobExecution(1L, jobParameters);
+        };
+        JobSubmissionService jobSubmissionService = new JobSubmissionService(jobLauncher, inputFingerprint, 2, 15);
+        Job job = new SimpleJob("teamPerformanceJob");
+
+        JobSubmissionService.JobSubmission first = jobSubmissionService.submit(job, "1", new JobParametersBuilder());
+        JobSubmissionService.JobSubmission duplicate = jobSubmissionService.submit(job, "1", new JobParametersBuilder());
+        Assertions.assertFalse(first.coalesced());
+        Assertions.assertTrue(duplicate.coalesced());
+        Assertions.assertEquals(first.uuid(), duplicate.uuid());
+        Assertions.assertEquals(1, launched.size());
+
+        // Changed input is a different request
+        Files.writeString(division, "Team,Player:10.0\n");
+        Assertions.assertFalse(jobSubmissionService.submit(job, "1", new JobParametersBuilder()).coalesced());
+        SubmissionRejectedException rejected = Assertions.assertThrows(SubmissionRejectedException.class,
+                () -> jobSubmissionService.submit(job, "2", new JobParametersBuilder()));
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        Assertions.assertEquals("15", rejected.getHeaders().getFirst("Retry-After"));
+
+        // Finished job frees its slot
+        jobSubmissionService.afterJob(new JobExecution(1L, launched.get(0)));
+        Assertions.assertFalse(jobSubmissionService.submit(job, "2", new JobParametersBuilder()).coalesced());
+        Assertions.assertEquals(3, launched.size());
+    }
+
+    @Test
+    public void testSubmissionsWithOtherParametersAreNotCoalesced() throws Exception {
+        Path division = Files.writeString(inputDirectory.resolve("division1.txt"), "Team,Player:1.0\n");
+        InputFingerprint inputFingerprint = new InputFingerprint(new Resource[]{new FileSystemResource(division)});
+        List<JobParameters> launched = new ArrayList<>();
+        JobLauncher jobLauncher = (job, jobParameters) -> {
+            launched.add(jobParameters);
+            return new JobExecution(1L, jobParameters);
+        };
+        JobSubmissionService jobSubmissionService = new JobSubmissionService(jobLauncher, inputFingerprint, 10, 15);
+        Job job = new SimpleJob("teamPerformanceJob");
+
+        JobSubmissionService.JobSubmission inMemory = jobSubmissionService.submit(job, "1", new JobParametersBuilder()
+                .addString(CommonConstants.DURABILITY_PARAM, "NONE"));
+        // Restartable job is not answered by the job without the repository
+        JobSubmissionService.JobSubmission full = jobSubmissionService.submit(job, "1", new JobParametersBuilder()
+                .addString(CommonConstants.DURABILITY_PARAM, "FULL"));
+        Assertions.assertFalse(full.coalesced());
+        Assertions.assertFalse(jobSubmissionService.submit(job, "1", new JobParametersBuilder()
+                .addString(CommonConstants.DURABILITY_PARAM, "NONE")
+                .addLong(CommonConstants.AVERAGE_CHUNK_SIZE_PARAM, 100L)).coalesced());
+        Assertions.assertFalse(jobSubmissionService.submit(job, "1", new JobParametersBuilder()
+                .addString(CommonConstants.DURABILITY_PARAM, "NONE")
+                .addString(CommonConstants.ADAPTIVE_CHUNK_PARAM, "true")).coalesced());
+        Assertions.assertEquals(4, launched.size());
+
+        // Parameters are compared regardless of the order they were added in
+        JobSubmissionService.JobSubmission duplicate = jobSubmissionService.submit(job, "1", new JobParametersBuilder()
+                .addString(CommonConstants.ADAPTIVE_CHUNK_PARAM, "true")
+                .addString(CommonConstants.DURABILITY_PARAM, "NONE"));
+        Assertions.assertTrue(duplicate.coalesced());
+        Assertions.assertNotEquals(inMemory.uuid(), duplicate.uuid());
+        Assertions.assertEquals(4, launched.size());
+    }
+}
@@ -0,0 +1,109 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.reader.DivisionFileReader;
+import spring.batch.teamPerformanceJob.reader.MappedDivisionFileReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedDivisionFileReaderTest {
+
+    @Test
+    public void testSameTeamsAsLineReader() throws Exception {
+        for (Resource division : new PathMatchingResourcePatternResolver().getResources("classpath:input/*.txt")) {
+            List<String> expected = describe(read(lineReader(division), new ExecutionContext(), Integer.MAX_VALUE));
+            // Small windows make records cross window boundaries
+            for (int windowSize : new int[]{16, 100, 4096}) {
+                MappedDivisionFileReader reader = mappedReader(division, windowSize);
+                Assertions.assertEquals(expected, describe(read(reader, new ExecutionContext(), Integer.MAX_VALUE)),
+                        division.getFilename() + " with window size " + windowSize);
+            }
+        }
+    }
+
+    @Test
+    public void testRestartFromSavedOffset() throws Exception {
+        Resource division = new PathMatchingResourcePatternResolver().getResource("classpath:input/div2.txt");
+        List<String> expected = describe(read(mappedReader(division, 128), new ExecutionContext(), Integer.MAX_VALUE));
+
+        ExecutionContext executionContext = new ExecutionContext();
+        List<Team> teams = read(mappedReader(division, 128), executionContext, 7);
+        // Restarted reader continues from the saved byte offset
+        teams.addAll(read(mappedReader(division, 128), executionContext, Integer.MAX_VALUE));
+        Assertions.assertEquals(expected, describe(teams));
+    }
+
+    @Test
+    public void testSameResultAsLineReaderOnMalformedScores(@TempDir Path directory) throws Exception {
+        List<String> players = List.of("p:1,2,,", "p:,", "p: 1 , 2", "p:1:2", "p:1,,2", "p:,1", "p:1, ,2", "p::1", "p:", "p::", "p:x");
+        for (int index = 0; index < players.size(); index++) {
+            Resource division = new FileSystemResource(Files.writeString(directory.resolve("div" + index + ".txt"),
+                    "team\n" + players.get(index) + "\n\n"));
+            Assertions.assertEquals(result(lineReader(division)), result(mappedReader(division, 4096)), players.get(index));
+        }
+    }
+
+    // Read teams (with their division), or type of the failure
+    private static String result(ItemStreamReader<Team> reader) {
+        try {
+            List<Team> teams = read(reader, new ExecutionContext(), Integer.MAX_VALUE);
+            return describe(teams) + " in " + teams.stream().map(Team::getDivision).toList();
+        } catch (Exception e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static MappedDivisionFileReader mappedReader(Resource division, int windowSize) {
+        MappedDivisionFileReader reader = new MappedDivisionFileReader();
+        reader.setWindowSize(windowSize);
+        reader.setResource(division);
+        return reader;
+    }
+
+    private static DivisionFileReader lineReader(Resource division) {
+        FlatFileItemReader<String> lineReader = new FlatFileItemReaderBuilder<String>()
+                .name("divisionLineReader")
+                .lineMapper((line, lineNumber) -> line)
+                .build();
+        DivisionFileReader reader = new DivisionFileReader(lineReader);
+        reader.setResource(division);
+        return reader;
+    }
+
+    private static List<Team> read(ItemStreamReader<Team> reader, ExecutionContext executionContext, int maxCount) throws Exception {
+        List<Team> teams = new ArrayList<>();
+        reader.open(executionContext);
+        Team team;
+        while (teams.size() < maxCount && (team = reader.read()) != null) {
+            teams.add(team);
+        }
+        reader.update(executionContext);
+        reader.close();
+        return teams;
+    }
+
+    private static List<String> describe(List<Team> teams) {
+        List<String> descriptions = new ArrayList<>();
+        for (Team team : teams) {
+            StringBuilder description = new StringBuilder(team.getName());
+            for (Team.ScoredPlayer player : team.getScoredPlayers()) {
+                description.append('|').append(player.getName()).append(':').append(player.getScores());
+            }
+            descriptions.add(description.toString());
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,87 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.processor.PerformanceEvaluator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+// Scaled long performance must be formatted exactly as the BigDecimal calculation it replaced
+public class PerformanceEvaluatorTest {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    public void testTeamAveragesAgainstPlayerScores() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            // Averages of one-decimal scores, as calculated by the average step
+            int players = 1 + random.nextInt(12);
+            double sum = 0;
+            for (int player = 0; player < players; player++) {
+                sum += random.nextInt(101) / 10.0;
+            }
+            assertSamePerformance(sum / players, (1 + random.nextInt(100)) / 10.0);
+        }
+    }
+
+    @Test
+    public void testArbitraryDoubles() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < SAMPLES; i++) {
+            double score = random.nextDouble() * Math.pow(10, random.nextInt(-8, 12));
+            double baseline = random.nextDouble() * Math.pow(10, random.nextInt(-8, 12));
+            if (random.nextBoolean()) {
+                score = -score;
+            }
+            if (baseline != 0 && reference(score, baseline).length() < 20) {
+                assertSamePerformance(score, baseline);
+            }
+        }
+    }
+
+    @Test
+    public void testRoundingTies() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < SAMPLES; i++) {
+            // Percentage of exactly x.xx5 rounds half up
+            double baseline = (1 + random.nextInt(10_000)) / 100.0;
+            double score = BigDecimal.valueOf(random.nextInt(1_000_000) * 10L + 5)
+                    .movePointLeft(5)
+                    .multiply(BigDecimal.valueOf(baseline))
+                    .doubleValue();
+            assertSamePerformance(score, baseline);
+            assertSamePerformance(-score, baseline);
+        }
+    }
+
+    @Test
+    public void testEdgeValues() {
+        double[] values = {0.0, -0.0, 1e-7, 0.001, 0.005, 0.1, 0.2, 0.3, 1.0 / 3, 2.0 / 3, 9.999999999999998, 10.0,
+                123456789.123, 4503599627370495.5, 9007199254740991.0, 9007199254740993.0, Math.ulp(1.0), 1e15, 1e21};
+        for (double score : values) {
+            for (double baseline : values) {
+                if (baseline != 0 && reference(score, baseline).length() < 20) {
+                    assertSamePerformance(score, baseline);
+                }
+            }
+        }
+        Assertions.assertThrows(ArithmeticException.class, () -> PerformanceEvaluator.scaledPerformance(1.0, 0.0));
+    }
+
+    private static void assertSamePerformance(double score, double baseline) {
+        String performance = PerformanceEvaluator.evaluatePerformance(new AverageScoredTeam("team", score), baseline)
+                .performance();
+        Assertions.assertEquals(reference(score, baseline), performance, () -> score + " against " + baseline);
+    }
+
+    private static String reference(double score, double baseline) {
+        return BigDecimal.valueOf(score)
+                .multiply(new BigDecimal(100))
+                .divide(BigDecimal.valueOf(baseline), 2, RoundingMode.HALF_UP)
+                .toString() + "%";
+    }
+}
@@ -0,0 +1,181 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.pipeline.PipelineStageExecutor;
+import spring.batch.teamPerformanceJob.pipeline.PipelinedItemReader;
+import spring.batch.teamPerformanceJob.pipeline.SpscRingBuffer;
+import spring.batch.teamPerformanceJob.processor.OrderedParallelItemProcessor;
+import spring.batch.teamPerformanceJob.processor.TeamAverageProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class PipelineTest {
+
+    private static final int SCORE_RANK = 1;
+
+    @Test
+    public void testRingBufferHandsOverElementsInOrder() throws Exception {
+        SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(3);
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+            try {
+                for (int i = 0; i < 1_000_000; i++) {
+                    buffer.put(i);
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        for (int i = 0; i < 1_000_000; i++) {
+            Assertions.assertEquals(i, buffer.take());
+        }
+        producer.get();
+    }
+
+    @Test
+    public void testReaderStateIsThatOfTheLastTakenItem() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        PipelinedItemReader<Integer> reader = new PipelinedItemReader<>(new CountingReader(10), "test-reader", 4);
+        reader.open(executionContext);
+        Assertions.assertEquals(0, reader.read());
+        Assertions.assertEquals(1, reader.read());
+        Assertions.assertEquals(2, reader.read());
+        // Stage thread has read ahead by now, but the step has taken 3 items only
+        Thread.sleep(50);
+        reader.update(executionContext);
+        reader.close();
+
+        PipelinedItemReader<Integer> restarted = new PipelinedItemReader<>(new CountingReader(10), "test-reader", 4);
+        restarted.open(executionContext);
+        for (int i = 3; i < 10; i++) {
+            Assertions.assertEquals(i, restarted.read());
+        }
+        Assertions.assertNull(restarted.read());
+        Assertions.assertNull(restarted.read());
+        restarted.close();
+    }
+
+    @Test
+    public void testReadingGoesOnAfterFailedRead() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        PipelinedItemReader<Integer> reader = new PipelinedItemReader<>(new CountingReader(10, 4), "test-reader", 4);
+        reader.open(executionContext);
+        List<Integer> items = new ArrayList<>();
+        int failures = 0;
+        while (true) {
+            Integer item;
+            try {
+                item = reader.read();
+            } catch (IllegalArgumentException e) {
+                // Skipped by the step, which reads on
+                failures++;
+                continue;
+            }
+            if (item == null) {
+                break;
+            }
+            items.add(item);
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        Assertions.assertEquals(1, failures);
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 5, 6, 7, 8, 9), items);
+        Assertions.assertEquals(10, executionContext.getInt("next"));
+    }
+
+    @Test
+    public void testPipelinedProcessingMatchesSequentialProcessing() throws Exception {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // Best and worst score repeat, so the first player in input order must win
+            teams.add(team("team" + i, i % 10, 10 - i % 7));
+        }
+        TeamAverageProcessor sequential = new TeamAverageProcessor(SCORE_RANK);
+        ExecutionContext sequentialContext = new ExecutionContext();
+        sequential.open(sequentialContext);
+        List<AverageScoredTeam> expected = new ArrayList<>();
+        for (Team team : teams) {
+            expected.add(sequential.process(team));
+        }
+        sequential.update(sequentialContext);
+
+        TeamAverageProcessor processor = new TeamAverageProcessor(SCORE_RANK);
+        ExecutionContext pipelinedContext = new ExecutionContext();
+        processor.open(pipelinedContext);
+        PipelineStageExecutor executor = new PipelineStageExecutor("test-processor", 8);
+        List<AverageScoredTeam> averages = new ArrayList<>();
+        try {
+            OrderedParallelItemProcessor<Team, AverageScoredTeam> pipelined = new OrderedParallelItemProcessor<>(processor, executor);
+            // Chunks of 64, every team of a chunk is handed to the processing stage when read, before it is processed
+            for (int start = 0; start < teams.size(); start += 64) {
+                List<Team> chunk = teams.subList(start, Math.min(start + 64, teams.size()));
+                chunk.forEach(pipelined::afterRead);
+                for (Team team : chunk) {
+                    averages.add(pipelined.process(team));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        processor.update(pipelinedContext);
+
+        Assertions.assertEquals(expected, averages);
+        // Extremes are the same, including the player chosen among equal scores
+        Assertions.assertFalse(pipelinedContext.isEmpty());
+        Assertions.assertEquals(sequentialContext, pipelinedContext);
+    }
+
+    // Team of players named by team name and player index, every player has given score in the score rank
+    private static Team team(String name, double... scores) {
+        Team team = new Team(name);
+        for (int player = 0; player < scores.length; player++) {
+            team.addScoredPlayer(name + player);
+            team.addScore(0.0);
+            team.addScore(scores[player]);
+        }
+        return team;
+    }
+
+    // Reads numbers up to the limit (failing to read the malformed one), the next number is its restart state
+    private static class CountingReader implements ItemStreamReader<Integer> {
+
+        private final int limit;
+        private final int malformed;
+        private int next;
+
+        CountingReader(int limit) {
+            this(limit, -1);
+        }
+
+        CountingReader(int limit, int malformed) {
+            this.limit = limit;
+            this.malformed = malformed;
+        }
+
+        @Override
+        public Integer read() {
+            if (next == malformed) {
+                next++;
+                throw new IllegalArgumentException("Malformed item " + malformed);
+            }
+            return next < limit ? next++ : null;
+        }
+
+        @Override
+        public void open(ExecutionContext executionContext) {
+            next = executionContext.getInt("next", 0);
+        }
+
+        @Override
+        public void update(ExecutionContext executionContext) {
+            executionContext.putInt("next", next);
+        }
+    }
+}
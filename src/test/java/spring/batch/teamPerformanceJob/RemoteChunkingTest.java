@@ -0,0 +1,95 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.support.ListItemWriter;
+import org.springframework.batch.item.support.builder.SynchronizedItemStreamWriterBuilder;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
+import spring.batch.teamPerformanceJob.domain.AverageScoredTeam;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.remote.ChunkManagerItemWriter;
+import spring.batch.teamPerformanceJob.remote.ChunkWorker;
+import spring.batch.teamPerformanceJob.remote.LocalChunkWorkers;
+import spring.batch.teamPerformanceJob.remote.QueueChunkTransport;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class RemoteChunkingTest {
+
+    private static final int SCORE_RANK = 1;
+
+    @Test
+    public void testChunksAreWrittenByWorkersAndExtremesMergedInInputOrder() throws Exception {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            // Every team has the same best and worst score, so the first team read must win
+            teams.add(team("team" + i, 9.0, 1.0));
+        }
+        // Player without the score rank, the team is skipped by its worker
+        Team skipped = new Team("skipped");
+        skipped.addScoredPlayer("skipped0");
+        skipped.addScore(0.0);
+        teams.add(skipped);
+
+        QueueChunkTransport transport = new QueueChunkTransport(2);
+        ListItemWriter<AverageScoredTeam> averages = new ListItemWriter<>();
+        ItemStreamWriter<AverageScoredTeam> workerWriter = new SynchronizedItemStreamWriterBuilder<AverageScoredTeam>()
+                .delegate(averages::write)
+                .build();
+        LocalChunkWorkers workers = new LocalChunkWorkers(transport,
+                new ChunkWorker(SCORE_RANK, workerWriter, new TransactionTemplate(new ResourcelessTransactionManager())),
+                workerWriter, new SimpleAsyncTaskExecutor("test-chunk-worker-"), 4);
+        ChunkManagerItemWriter manager = new ChunkManagerItemWriter(transport, 1, 10_000);
+        Iterator<Team> input = teams.iterator();
+        ItemStreamReader<Team> reader = manager.endOfInputSignalling(() -> input.hasNext() ? input.next() : null);
+
+        ExecutionContext executionContext = new ExecutionContext();
+        workers.open(executionContext);
+        reader.open(executionContext);
+        manager.open(executionContext);
+        try {
+            Chunk<Team> chunk = new Chunk<>();
+            for (Team team = reader.read(); team != null; team = reader.read()) {
+                chunk.add(team);
+                if (chunk.size() == 7) {
+                    manager.write(chunk);
+                    chunk = new Chunk<>();
+                }
+            }
+            manager.write(chunk);
+            // All responses are awaited at the end of input
+            manager.update(executionContext);
+            // Yet another skipped team would exceed the skip limit
+            chunk = new Chunk<>(List.of(skipped));
+            manager.write(chunk);
+            Assertions.assertThrows(SkipLimitExceededException.class, () -> manager.update(executionContext));
+        } finally {
+            manager.close();
+            workers.close();
+        }
+
+        Assertions.assertEquals(100, averages.getWrittenItems().size());
+        Assertions.assertEquals("team00", executionContext.getString(CommonConstants.MAX_PLAYER));
+        Assertions.assertEquals("team01", executionContext.getString(CommonConstants.MIN_PLAYER));
+    }
+
+    // Team of players named by team name and player index, every player has given score in the score rank
+    private static Team team(String name, double... scores) {
+        Team team = new Team(name);
+        for (int player = 0; player < scores.length; player++) {
+            team.addScoredPlayer(name + player);
+            team.addScore(0.0);
+            team.addScore(scores[player]);
+        }
+        return team;
+    }
+}
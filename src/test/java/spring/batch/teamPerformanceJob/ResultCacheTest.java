@@ -0,0 +1,137 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import spring.batch.teamPerformanceJob.cache.ResultCache;
+import spring.batch.teamPerformanceJob.cache.ResultCacheDecider;
+import spring.batch.teamPerformanceJob.stream.PerformanceRow;
+import spring.batch.teamPerformanceJob.stream.TeamPerformanceStream;
+import spring.batch.teamPerformanceJob.stream.TeamPerformanceStreams;
+import spring.batch.teamPerformanceJob.submission.InputFingerprint;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class ResultCacheTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testStoredResultIsRestoredAndLeastRecentlyUsedIsEvicted() throws Exception {
+        Path outputDirectory = Files.createDirectories(directory.resolve("calculated"));
+        ResultCache resultCache = new ResultCache(directory.resolve("cache"), 350);
+        List<String> outputNames = List.of("max.txt");
+
+        ExecutionContext jobContext = new ExecutionContext();
+        jobContext.putDouble(CommonConstants.MAX_SCORE, 9.7);
+        jobContext.putString(CommonConstants.MAX_PLAYER, "Matthew");
+        Files.writeString(outputDirectory.resolve("max.txt"), "x".repeat(100));
+        String first = ResultCache.key(1, "input", outputNames, Map.of());
+        resultCache.store(first, outputDirectory, outputNames, jobContext, List.of(CommonConstants.MAX_SCORE, CommonConstants.MAX_PLAYER));
+        Files.setLastModifiedTime(directory.resolve("cache").resolve(first), FileTime.fromMillis(1000));
+
+        Files.delete(outputDirectory.resolve("max.txt"));
+        ExecutionContext restoredContext = new ExecutionContext();
+        Assertions.assertTrue(resultCache.restore(first, outputDirectory, restoredContext));
+        Assertions.assertEquals("x".repeat(100), Files.readString(outputDirectory.resolve("max.txt")));
+        Assertions.assertEquals(9.7, restoredContext.getDouble(CommonConstants.MAX_SCORE));
+        Assertions.assertEquals("Matthew", restoredContext.getString(CommonConstants.MAX_PLAYER));
+
+        // Restored result is the most recently used one, so the other result is evicted when the cache is full
+        String second = ResultCache.key(2, "input", outputNames, Map.of());
+        resultCache.store(second, outputDirectory, outputNames, jobContext, List.of());
+        Files.setLastModifiedTime(directory.resolve("cache").resolve(second), FileTime.fromMillis(2000));
+        String third = ResultCache.key(3, "input", outputNames, Map.of());
+        resultCache.store(third, outputDirectory, outputNames, jobContext, List.of());
+
+        Assertions.assertTrue(resultCache.contains(first));
+        Assertions.assertFalse(resultCache.contains(second));
+        Assertions.assertTrue(resultCache.contains(third));
+        Assertions.assertFalse(resultCache.restore(second, outputDirectory, new ExecutionContext()));
+    }
+
+    @Test
+    public void testResultOfOtherOutputSettingsIsNotReused() throws Exception {
+        Path division = Files.writeString(directory.resolve("division.txt"), "team\nplayer:1.0,2.0\n");
+        InputFingerprint inputFingerprint = new InputFingerprint(new Resource[]{new FileSystemResource(division)});
+        Path outputDirectory = Files.createDirectories(directory.resolve("calculated"));
+        Files.writeString(outputDirectory.resolve("top.txt"), "team,1.0");
+        ResultCache resultCache = new ResultCache(directory.resolve("cache"), 1 << 20);
+        List<String> outputNames = List.of("top.txt");
+
+        ResultCacheDecider topTen = new ResultCacheDecider(resultCache, inputFingerprint, outputNames, Map.of("ranking.top-k", "10"));
+        JobExecution firstExecution = jobExecution(1);
+        Assertions.assertEquals(ResultCacheDecider.NOT_CACHED, topTen.decide(firstExecution, null));
+        resultCache.store(firstExecution.getExecutionContext().getString(CommonConstants.RESULT_CACHE_KEY),
+                outputDirectory, outputNames, firstExecution.getExecutionContext(), List.of());
+        Assertions.assertEquals(ResultCacheDecider.CACHED, topTen.decide(jobExecution(2), null));
+
+        // Same rank, input and output files, but top teams are fewer
+        ResultCacheDecider topFive = new ResultCacheDecider(resultCache, inputFingerprint, outputNames, Map.of("ranking.top-k", "5"));
+        Assertions.assertEquals(ResultCacheDecider.NOT_CACHED, topFive.decide(jobExecution(3), null));
+    }
+
+    @Test
+    public void testRestoredPerformancesAreStreamed() throws Exception {
+        try (AnnotationConfigApplicationContext context = AverageStepModeTest.jobContext(Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:resultCache-stream;DB_CLOSE_DELAY=-1",
+                "team-performance.output.directory", directory.resolve("calculated").toString(),
+                "team-performance.cache.enabled", "true",
+                "team-performance.cache.directory", directory.resolve("cache").toString()))) {
+            context.refresh();
+            TeamPerformanceStreams streams = context.getBean("teamPerformanceStreams", TeamPerformanceStreams.class);
+
+            List<PerformanceRow> calculated = streamedRows(context, streams, "resultCacheStoreStep");
+            Assertions.assertFalse(calculated.isEmpty());
+            // Same rank over the same input is restored from the cache, with the same rows streamed
+            List<PerformanceRow> restored = streamedRows(context, streams, "resultCacheRestoreStep");
+            Assertions.assertEquals(calculated, restored);
+        }
+    }
+
+    // Rows streamed by a completed job (which executed the given cache step), in baseline and team order
+    // (ratio steps publish baselines concurrently)
+    private static List<PerformanceRow> streamedRows(AnnotationConfigApplicationContext context, TeamPerformanceStreams streams,
+                                                     String cacheStepName) throws Exception {
+        String uuid = UUID.randomUUID().toString();
+        JobExecution jobExecution = context.getBean("asyncJobLauncher", JobLauncher.class)
+                .run(context.getBean("teamPerformanceJob", Job.class), new JobParametersBuilder()
+                        .addLong(CommonConstants.SCORE_RANK_PARAM, 2L)
+                        .addString(CommonConstants.UUID_PARAM, uuid)
+                        .toJobParameters());
+        TeamPerformanceStream.Rows rows = streams.open(uuid).await(0, Integer.MAX_VALUE, 0);
+        while (rows.exitStatus() == null) {
+            rows = streams.open(uuid).await(0, Integer.MAX_VALUE, 100);
+        }
+        Assertions.assertEquals(BatchStatus.COMPLETED.name(), rows.exitStatus());
+        Assertions.assertEquals(0, rows.missed());
+        Assertions.assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        Assertions.assertTrue(jobExecution.getStepExecutions().stream().anyMatch(step -> step.getStepName().equals(cacheStepName)));
+        return rows.rows().stream()
+                .sorted(Comparator.comparing(PerformanceRow::baseline).thenComparing(PerformanceRow::team))
+                .toList();
+    }
+
+    private static JobExecution jobExecution(long id) {
+        return new JobExecution(new JobInstance(id, "teamPerformanceJob"), id, new JobParametersBuilder()
+                .addLong(CommonConstants.SCORE_RANK_PARAM, 1L)
+                .toJobParameters());
+    }
+}
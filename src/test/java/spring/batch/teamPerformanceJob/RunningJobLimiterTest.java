@@ -0,0 +1,90 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import spring.batch.teamPerformanceJob.launcher.RunningJobLimiter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RunningJobLimiterTest {
+
+    @Test
+    public void testRunningJobsDoNotExceedLimit() throws Exception {
+        SimpleAsyncTaskExecutor virtualThreadExecutor = new SimpleAsyncTaskExecutor();
+        virtualThreadExecutor.setVirtualThreads(true);
+        RunningJobLimiter limiter = new RunningJobLimiter(virtualThreadExecutor, 3);
+
+        int jobs = 1000;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(jobs);
+        for (int job = 0; job < jobs; job++) {
+            limiter.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                finished.countDown();
+            });
+        }
+
+        Assertions.assertTrue(finished.await(30, TimeUnit.SECONDS));
+        Assertions.assertEquals(3, maxRunning.get());
+        Assertions.assertEquals(0, limiter.getWaitingJobCount());
+    }
+
+    @Test
+    public void testJobInterruptedWhileWaitingIsRun() throws Exception {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        RunningJobLimiter limiter = new RunningJobLimiter(task -> {
+            Thread thread = new Thread(task);
+            threads.add(thread);
+            thread.start();
+        }, 1);
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        limiter.execute(() -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Assertions.assertTrue(running.await(10, TimeUnit.SECONDS));
+
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch waitingJobRun = new CountDownLatch(1);
+        limiter.execute(() -> {
+            interrupted.set(Thread.currentThread().isInterrupted());
+            waitingJobRun.countDown();
+        });
+        while (limiter.getWaitingJobCount() == 0) {
+            Thread.sleep(1);
+        }
+        threads.get(1).interrupt();
+
+        // Job is not lost, and runs to its end (interrupted job could not update the job repository)
+        Assertions.assertTrue(waitingJobRun.await(10, TimeUnit.SECONDS));
+        Assertions.assertFalse(interrupted.get());
+        threads.get(1).join(10_000);
+        Assertions.assertFalse(threads.get(1).isAlive());
+
+        // Interrupted job ran without a permit, so none is released for it
+        release.countDown();
+        CountDownLatch nextJobRun = new CountDownLatch(1);
+        limiter.execute(nextJobRun::countDown);
+        Assertions.assertTrue(nextJobRun.await(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, limiter.getWaitingJobCount());
+    }
+}
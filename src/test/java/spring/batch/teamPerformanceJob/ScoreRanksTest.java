@@ -0,0 +1,85 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import spring.batch.teamPerformanceJob.domain.ScoreRanks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class ScoreRanksTest {
+
+    @Test
+    public void testRanksAndRangesAreSortedWithoutDuplicates() {
+        ScoreRanks ranks = ScoreRanks.parse("0,2,5-9");
+        Assertions.assertFalse(ranks.isAll());
+        Assertions.assertArrayEquals(new int[]{0, 2, 5, 6, 7, 8, 9}, ranks.getRanks());
+
+        // Overlapping ranges and repeated ranks, in any order
+        Assertions.assertArrayEquals(new int[]{1, 2, 3, 4}, ScoreRanks.parse(" 3, 1-3 ,2-4,3").getRanks());
+        Assertions.assertArrayEquals(new int[]{7}, ScoreRanks.parse("7-7").getRanks());
+        // Canonical form is the same for the same ranks
+        Assertions.assertEquals(ScoreRanks.parse("2,0,1").toString(), ScoreRanks.parse("0-2").toString());
+    }
+
+    @Test
+    public void testAllRanks() {
+        Assertions.assertTrue(ScoreRanks.parse("all").isAll());
+        Assertions.assertTrue(ScoreRanks.parse(" ALL ").isAll());
+        Assertions.assertEquals(ScoreRanks.ALL, ScoreRanks.parse("All").toString());
+        Assertions.assertThrows(IllegalStateException.class, () -> ScoreRanks.parse("all").getRanks());
+    }
+
+    @Test
+    public void testInvalidRanksAreRejected() {
+        for (String invalid : new String[]{null, "", " ", "a", "1,b", "1,,2", "-1", "3-1", "1-2-3", "1-", "all,1"}) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ScoreRanks.parse(invalid), String.valueOf(invalid));
+        }
+    }
+
+    @Test
+    public void testRankOutputsMatchSingleRankRuns(@TempDir Path outputDirectory) throws Exception {
+        try (AnnotationConfigApplicationContext context = AverageStepModeTest.jobContext(Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:scoreRanks;DB_CLOSE_DELAY=-1",
+                "team-performance.output.directory", outputDirectory.toString()))) {
+            context.refresh();
+            Path multiRankOutput = runJob(context, "multiRankTeamPerformanceJob", new JobParametersBuilder()
+                    .addString(CommonConstants.SCORE_RANKS_PARAM, "0-2"), outputDirectory);
+            for (long rank = 0; rank <= 2; rank++) {
+                Path singleRankOutput = runJob(context, "teamPerformanceJob", new JobParametersBuilder()
+                        .addLong(CommonConstants.SCORE_RANK_PARAM, rank), outputDirectory);
+                for (String baseline : List.of("avg", "max", "min")) {
+                    Assertions.assertEquals(Files.readAllLines(singleRankOutput.resolve(baseline + ".txt")),
+                            Files.readAllLines(multiRankOutput.resolve(baseline + ".rank" + rank + ".txt")),
+                            baseline + " of rank " + rank);
+                }
+            }
+        }
+    }
+
+    // Output directory of the completed job
+    private static Path runJob(AnnotationConfigApplicationContext context, String jobName, JobParametersBuilder jobParametersBuilder,
+                               Path outputDirectory) throws Exception {
+        String uuid = UUID.randomUUID().toString();
+        JobExecution jobExecution = context.getBean("asyncJobLauncher", JobLauncher.class)
+                .run(context.getBean(jobName, Job.class), jobParametersBuilder
+                        .addString(CommonConstants.UUID_PARAM, uuid)
+                        .toJobParameters());
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (jobExecution.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        Assertions.assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus(), jobName);
+        return outputDirectory.resolve(uuid);
+    }
+}
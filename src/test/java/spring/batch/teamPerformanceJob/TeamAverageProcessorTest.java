@@ -0,0 +1,86 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.processor.TeamAverageProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TeamAverageProcessorTest {
+
+    private static final int SCORE_RANK = 1;
+
+    @Test
+    public void testFirstBestAndWorstPlayerArePublished() throws Exception {
+        TeamAverageProcessor processor = new TeamAverageProcessor(SCORE_RANK);
+        ExecutionContext executionContext = new ExecutionContext();
+        processor.open(executionContext);
+
+        Assertions.assertEquals(5.0, processor.process(team("first", 9.0, 1.0)).averageScore());
+        processor.process(team("second", 9.0, 1.0));
+        processor.update(executionContext);
+
+        Assertions.assertEquals(9.0, executionContext.getDouble(CommonConstants.MAX_SCORE));
+        Assertions.assertEquals("first0", executionContext.getString(CommonConstants.MAX_PLAYER));
+        Assertions.assertEquals(1.0, executionContext.getDouble(CommonConstants.MIN_SCORE));
+        Assertions.assertEquals("first1", executionContext.getString(CommonConstants.MIN_PLAYER));
+
+        // Restarted processor continues from the published players
+        TeamAverageProcessor restarted = new TeamAverageProcessor(SCORE_RANK);
+        restarted.open(executionContext);
+        restarted.process(team("third", 5.0, 0.5));
+        restarted.update(executionContext);
+        Assertions.assertEquals("first0", executionContext.getString(CommonConstants.MAX_PLAYER));
+        Assertions.assertEquals("third1", executionContext.getString(CommonConstants.MIN_PLAYER));
+    }
+
+    @Test
+    public void testConcurrentProcessing() throws Exception {
+        TeamAverageProcessor processor = new TeamAverageProcessor(SCORE_RANK);
+        ExecutionContext executionContext = new ExecutionContext();
+        processor.open(executionContext);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        double score = (i * 8 + offset) / 100.0;
+                        processor.process(team("team" + offset + "-" + i, score, 1000 - score));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        processor.update(executionContext);
+
+        Assertions.assertEquals(1000.0, executionContext.getDouble(CommonConstants.MAX_SCORE));
+        Assertions.assertEquals("team0-01", executionContext.getString(CommonConstants.MAX_PLAYER));
+        Assertions.assertEquals(0.0, executionContext.getDouble(CommonConstants.MIN_SCORE));
+        Assertions.assertEquals("team0-00", executionContext.getString(CommonConstants.MIN_PLAYER));
+    }
+
+    // Team of players named by team name and player index, every player has given score in the score rank
+    private static Team team(String name, double... scores) {
+        Team team = new Team(name);
+        for (int player = 0; player < scores.length; player++) {
+            team.addScoredPlayer(name + player);
+            team.addScore(0.0);
+            team.addScore(scores[player]);
+        }
+        return team;
+    }
+}
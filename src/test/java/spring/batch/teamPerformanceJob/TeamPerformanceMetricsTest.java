@@ -0,0 +1,79 @@
+package spring.batch.teamPerformanceJob;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import spring.batch.teamPerformanceJob.domain.Team;
+import spring.batch.teamPerformanceJob.metrics.SplitFlowEfficiencyListener;
+import spring.batch.teamPerformanceJob.metrics.StepMetricsListener;
+import spring.batch.teamPerformanceJob.metrics.TeamPerformanceMetrics;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+public class TeamPerformanceMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TeamPerformanceMetrics metrics = new TeamPerformanceMetrics(meterRegistry);
+
+    @Test
+    public void testStepListenerCountsTeamsPlayersChunksAndSkips() {
+        StepMetricsListener listener = metrics.stepListener("averageTeamScoreStep");
+        ChunkContext chunkContext = new ChunkContext(new StepContext(new StepExecution("averageTeamScoreStep", new JobExecution(1L))));
+
+        listener.beforeChunk(chunkContext);
+        listener.afterRead(team("first", 3));
+        listener.afterRead(team("second", 2));
+        listener.onSkipInProcess(team("third", 1), new IndexOutOfBoundsException());
+        listener.afterChunk(chunkContext);
+
+        Assertions.assertEquals(2.0, meterRegistry.get("team.performance.teams").tag("step", "averageTeamScoreStep").counter().count());
+        Assertions.assertEquals(5.0, meterRegistry.get("team.performance.players").tag("step", "averageTeamScoreStep").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("team.performance.chunk.commit").tag("outcome", "committed").timer().count());
+        Assertions.assertEquals(0, meterRegistry.get("team.performance.chunk.commit").tag("outcome", "rolled_back").timer().count());
+        Assertions.assertEquals(1.0, meterRegistry.get("team.performance.skips")
+                .tag("phase", "process")
+                .tag("exception", "IndexOutOfBoundsException")
+                .counter().count());
+    }
+
+    @Test
+    public void testSplitFlowEfficiency() {
+        SplitFlowEfficiencyListener listener = metrics.splitFlowEfficiencyListener("split", Set.of("max", "min"));
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        // Steps overlapping half of the split time: (4 + 4) / (2 * 6)
+        JobExecution jobExecution = new JobExecution(1L);
+        stepExecution(jobExecution, "max", start, start.plusSeconds(4));
+        stepExecution(jobExecution, "min", start.plusSeconds(2), start.plusSeconds(6));
+        stepExecution(jobExecution, "other", start.minusSeconds(10), start);
+        listener.afterJob(jobExecution);
+
+        // Split which was not executed is not recorded
+        JobExecution cachedJobExecution = new JobExecution(2L);
+        stepExecution(cachedJobExecution, "other", start, start.plusSeconds(1));
+        listener.afterJob(cachedJobExecution);
+
+        Assertions.assertEquals(1, meterRegistry.get("team.performance.split.efficiency").summary().count());
+        Assertions.assertEquals(8.0 / 12, meterRegistry.get("team.performance.split.efficiency").summary().mean(), 1e-9);
+    }
+
+    private static void stepExecution(JobExecution jobExecution, String stepName, LocalDateTime start, LocalDateTime end) {
+        StepExecution stepExecution = jobExecution.createStepExecution(stepName);
+        stepExecution.setStartTime(start);
+        stepExecution.setEndTime(end);
+    }
+
+    private static Team team(String name, int players) {
+        Team team = new Team(name);
+        for (int player = 0; player < players; player++) {
+            team.addScoredPlayer(name + player);
+            team.addScore(1.0);
+        }
+        return team;
+    }
+}
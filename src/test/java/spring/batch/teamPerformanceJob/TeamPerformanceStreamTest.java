@@ -0,0 +1,72 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import spring.batch.teamPerformanceJob.stream.PerformanceRow;
+import spring.batch.teamPerformanceJob.stream.TeamPerformanceStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TeamPerformanceStreamTest {
+
+    @Test
+    public void testRowsAreReplayedFromOffset() throws Exception {
+        TeamPerformanceStream stream = new TeamPerformanceStream(100);
+        stream.publish(rows(0, 3));
+
+        TeamPerformanceStream.Rows rows = stream.await(1, 10, 0);
+        Assertions.assertEquals(List.of(row(1), row(2)), rows.rows());
+        Assertions.assertEquals(3, rows.nextOffset());
+        Assertions.assertEquals(0, rows.missed());
+        Assertions.assertNull(rows.exitStatus());
+
+        // Exit status comes only with the last rows
+        stream.publish(rows(3, 5));
+        stream.complete("COMPLETED");
+        rows = stream.await(3, 1, 0);
+        Assertions.assertEquals(List.of(row(3)), rows.rows());
+        Assertions.assertNull(rows.exitStatus());
+        rows = stream.await(rows.nextOffset(), 1, 0);
+        Assertions.assertEquals(List.of(row(4)), rows.rows());
+        Assertions.assertEquals("COMPLETED", rows.exitStatus());
+    }
+
+    @Test
+    public void testDroppedRowsAreReportedAsMissed() throws Exception {
+        TeamPerformanceStream stream = new TeamPerformanceStream(2);
+        stream.publish(rows(0, 4));
+
+        TeamPerformanceStream.Rows rows = stream.await(0, 10, 0);
+        Assertions.assertEquals(2, rows.missed());
+        Assertions.assertEquals(List.of(row(2), row(3)), rows.rows());
+    }
+
+    @Test
+    public void testWaitingClientGetsPublishedRows() throws Exception {
+        TeamPerformanceStream stream = new TeamPerformanceStream(100);
+        Thread publisher = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stream.publish(rows(0, 1));
+        });
+        TeamPerformanceStream.Rows rows = stream.await(0, 10, 10_000);
+        publisher.join();
+        Assertions.assertEquals(List.of(row(0)), rows.rows());
+    }
+
+    private static List<PerformanceRow> rows(int from, int to) {
+        List<PerformanceRow> rows = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            rows.add(row(i));
+        }
+        return rows;
+    }
+
+    private static PerformanceRow row(int i) {
+        return new PerformanceRow("max", null, "team" + i, i + ".00%");
+    }
+}
@@ -0,0 +1,66 @@
+package spring.batch.teamPerformanceJob;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import spring.batch.teamPerformanceJob.ranking.QuantileSketch;
+import spring.batch.teamPerformanceJob.ranking.TeamRanking;
+import spring.batch.teamPerformanceJob.ranking.TopTeam;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TeamRankingTest {
+
+    @Test
+    public void testTopTeamsAndLeaderboardsOfMergedPartitions() {
+        TeamRanking first = new TeamRanking(2, 8);
+        first.acceptTeam("div1.txt", "A", 0, 5.0);
+        first.acceptTeam("div1.txt", "B", 1, 7.0);
+        first.acceptTeam("div1.txt", "C", 2, 6.0);
+        TeamRanking second = new TeamRanking(2, 8);
+        // Ties with B, but comes later in the input
+        second.acceptTeam("div2.txt", "D", 0, 7.0);
+        second.acceptTeam("div2.txt", "E", 1, 1.0);
+
+        // Ranking survives publishing to the execution context
+        ExecutionContext context = new ExecutionContext();
+        first.publish(context);
+        TeamRanking merged = TeamRanking.fromContext(context);
+        merged.merge(second);
+
+        Assertions.assertEquals(List.of("B", "D"), merged.topTeams().stream().map(TopTeam::name).toList());
+        Assertions.assertEquals(List.of("B", "C"), merged.leaderboards().get("div1.txt").stream().map(TopTeam::name).toList());
+        Assertions.assertEquals(List.of("D", "E"), merged.leaderboards().get("div2.txt").stream().map(TopTeam::name).toList());
+    }
+
+    @Test
+    public void testPercentilesAreExactUpToSketchSize() {
+        TeamRanking ranking = new TeamRanking(1, 100);
+        double[] scores = new double[100];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = 100 - i;
+        }
+        ranking.acceptScores(scores, scores.length);
+
+        Assertions.assertEquals(50.0, ranking.percentile(50));
+        Assertions.assertEquals(90.0, ranking.percentile(90));
+        Assertions.assertEquals(100.0, ranking.percentile(100));
+        Assertions.assertEquals(1.0, ranking.percentile(0));
+    }
+
+    @Test
+    public void testSketchRankErrorIsBounded() {
+        int count = 1_000_000;
+        double[] scores = new Random(42).doubles(count).toArray();
+        QuantileSketch sketch = new QuantileSketch(200);
+        Arrays.stream(scores).forEach(sketch::add);
+        Arrays.sort(scores);
+
+        for (double quantile : new double[]{0.1, 0.5, 0.9, 0.99}) {
+            int rank = Arrays.binarySearch(scores, sketch.quantile(quantile));
+            Assertions.assertEquals(quantile, (double) rank / count, 0.01);
+        }
+    }
+}